@@ -0,0 +1,320 @@
+package application;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Segmented AES-GCM encryption. The plain text is cut into segments of
+ * SEGMENT_SIZE bytes, each encrypted and authenticated on its own, so records
+ * of any size can be streamed through a fixed-size buffer and a truncated or
+ * reordered record fails to decrypt.
+ *
+ * Each record starts with a header chosen by the caller whose last
+ * PREFIX_LENGTH bytes are a random nonce prefix. The nonce of segment i is
+ * prefix || i (4 bytes) || last-segment flag (1 byte), and the whole header is
+ * authenticated with every segment.
+ *
+ * A 7-byte random prefix is too short to keep nonces unique across every
+ * record of a long-lived key, so callers encrypt each record under its own
+ * key, derived from the long-lived key and a random salt with deriveKey.
+ */
+final class AesGcm {
+
+    static final int SEGMENT_SIZE = 64 * 1024;
+    static final int TAG_LENGTH = 16;
+    static final int PREFIX_LENGTH = 7;
+    static final int SALT_LENGTH = 16;
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String HMAC = "HmacSHA256";
+    private static final int NONCE_LENGTH = 12;
+
+    private AesGcm() {
+    }
+
+    /**
+     * Returns the length of a record holding plainLength bytes.
+     */
+    static int recordLength(int headerLength, int plainLength) {
+        long length = headerLength + (long) plainLength + (long) segmentCount(plainLength) * TAG_LENGTH;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too large to encrypt in memory: " + plainLength + " bytes");
+        }
+        return (int) length;
+    }
+
+    private static int segmentCount(int plainLength) {
+        return plainLength == 0 ? 1 : (plainLength + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+    }
+
+    /**
+     * Encrypts a whole value into a record sized exactly once, with no
+     * intermediate copies.
+     *
+     * @param key    The AES key.
+     * @param header The record header, ending with a fresh nonce prefix.
+     * @param plain  The plain text.
+     * @return The header followed by the encrypted segments.
+     * @throws GeneralSecurityException If encryption fails.
+     */
+    static byte[] encrypt(byte[] key, byte[] header, byte[] plain) throws GeneralSecurityException {
+        byte[] record = new byte[recordLength(header.length, plain.length)];
+        System.arraycopy(header, 0, record, 0, header.length);
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        SecretKeySpec keySpec = keySpec(key);
+        int segments = segmentCount(plain.length);
+        int out = header.length;
+        for (int i = 0; i < segments; i++) {
+            int offset = i * SEGMENT_SIZE;
+            int length = Math.min(SEGMENT_SIZE, plain.length - offset);
+            init(cipher, Cipher.ENCRYPT_MODE, keySpec, header, i, i == segments - 1);
+            out += cipher.doFinal(plain, offset, length, record, out);
+        }
+        return record;
+    }
+
+    /**
+     * Decrypts a record produced by encrypt or an encrypting stream.
+     *
+     * @param key          The AES key.
+     * @param record       The record.
+     * @param headerLength The length of the record's header.
+     * @return The plain text.
+     * @throws GeneralSecurityException If the record was altered or the key is wrong.
+     */
+    static byte[] decrypt(byte[] key, byte[] record, int headerLength) throws GeneralSecurityException {
+        int bodyLength = record.length - headerLength;
+        int segments = (bodyLength + SEGMENT_SIZE + TAG_LENGTH - 1) / (SEGMENT_SIZE + TAG_LENGTH);
+        int lastLength = bodyLength - (segments - 1) * (SEGMENT_SIZE + TAG_LENGTH);
+        if (segments == 0 || lastLength < TAG_LENGTH) {
+            throw new GeneralSecurityException("Truncated record");
+        }
+        byte[] header = new byte[headerLength];
+        System.arraycopy(record, 0, header, 0, headerLength);
+        byte[] plain = new byte[bodyLength - segments * TAG_LENGTH];
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        SecretKeySpec keySpec = keySpec(key);
+        int in = headerLength;
+        int out = 0;
+        for (int i = 0; i < segments; i++) {
+            boolean last = i == segments - 1;
+            int length = last ? lastLength : SEGMENT_SIZE + TAG_LENGTH;
+            init(cipher, Cipher.DECRYPT_MODE, keySpec, header, i, last);
+            out += cipher.doFinal(record, in, length, plain, out);
+            in += length;
+        }
+        return plain;
+    }
+
+    /**
+     * Returns a stream that encrypts what is written to it into out. The
+     * header is written first; closing the stream writes the last segment and
+     * closes out.
+     */
+    static OutputStream encryptingStream(byte[] key, byte[] header, OutputStream out) throws IOException {
+        out.write(header);
+        return new SegmentOutputStream(key, header, out);
+    }
+
+    /**
+     * Returns a stream that decrypts the segments read from in, whose header
+     * has already been read.
+     */
+    static InputStream decryptingStream(byte[] key, byte[] header, InputStream in) {
+        return new SegmentInputStream(key, header, in);
+    }
+
+    /**
+     * Derives the key of one record with HKDF-SHA256 (RFC 5869), so records
+     * never share a key and their nonces cannot collide.
+     *
+     * @param key  The long-lived key.
+     * @param salt The record's random salt.
+     * @param info Context bound into the derived key, such as the key id.
+     * @return A 16-byte AES key.
+     * @throws GeneralSecurityException If HMAC-SHA256 is not available.
+     */
+    static byte[] deriveKey(byte[] key, byte[] salt, byte[] info) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC);
+        mac.init(new SecretKeySpec(salt, HMAC));
+        byte[] pseudoRandomKey = mac.doFinal(key); // Extract
+        mac.init(new SecretKeySpec(pseudoRandomKey, HMAC));
+        mac.update(info);
+        mac.update((byte) 1); // Expand; one block covers the 16 bytes needed
+        return Arrays.copyOf(mac.doFinal(), 16);
+    }
+
+    private static SecretKeySpec keySpec(byte[] key) {
+        // Use only the first 16 bytes for AES-128, as EncryptionUtil does
+        byte[] keyBytes16 = new byte[16];
+        System.arraycopy(key, 0, keyBytes16, 0, Math.min(key.length, 16));
+        return new SecretKeySpec(keyBytes16, "AES");
+    }
+
+    private static void init(Cipher cipher, int mode, SecretKeySpec keySpec, byte[] header, int segment, boolean last)
+            throws GeneralSecurityException {
+        byte[] nonce = ByteBuffer.allocate(NONCE_LENGTH)
+                .put(header, header.length - PREFIX_LENGTH, PREFIX_LENGTH)
+                .putInt(segment)
+                .put((byte) (last ? 1 : 0))
+                .array();
+        cipher.init(mode, keySpec, new GCMParameterSpec(TAG_LENGTH * 8, nonce));
+        cipher.updateAAD(header);
+    }
+
+    // Buffers one segment of plain text and encrypts it once the next byte shows it is not the last
+    private static final class SegmentOutputStream extends OutputStream {
+        private final SecretKeySpec keySpec;
+        private final byte[] header;
+        private final OutputStream out;
+        private final Cipher cipher;
+        private final byte[] plain = new byte[SEGMENT_SIZE];
+        private final byte[] sealed = new byte[SEGMENT_SIZE + TAG_LENGTH];
+        private int buffered;
+        private int segment;
+        private boolean closed;
+
+        SegmentOutputStream(byte[] key, byte[] header, OutputStream out) throws IOException {
+            this.keySpec = keySpec(key);
+            this.header = header.clone();
+            this.out = out;
+            try {
+                this.cipher = Cipher.getInstance(TRANSFORMATION);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("AES-GCM is not available", e);
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            while (len > 0) {
+                if (buffered == SEGMENT_SIZE) {
+                    seal(false); // More data follows, so the full segment is not the last
+                }
+                int n = Math.min(len, SEGMENT_SIZE - buffered);
+                System.arraycopy(b, off, plain, buffered, n);
+                buffered += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                seal(true);
+                out.close();
+            }
+        }
+
+        private void seal(boolean last) throws IOException {
+            try {
+                init(cipher, Cipher.ENCRYPT_MODE, keySpec, header, segment++, last);
+                int length = cipher.doFinal(plain, 0, buffered, sealed, 0);
+                out.write(sealed, 0, length);
+                buffered = 0;
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Encryption failed", e);
+            }
+        }
+    }
+
+    // Reads one sealed segment plus one byte of look-ahead to tell whether it is the last
+    private static final class SegmentInputStream extends InputStream {
+        private final SecretKeySpec keySpec;
+        private final byte[] header;
+        private final InputStream in;
+        private final Cipher cipher;
+        private final byte[] sealed = new byte[SEGMENT_SIZE + TAG_LENGTH + 1];
+        private final byte[] plain = new byte[SEGMENT_SIZE];
+        private int sealedCount; // Bytes in sealed, including a carried look-ahead byte
+        private int plainPos;
+        private int plainCount;
+        private int segment;
+        private boolean finished;
+
+        SegmentInputStream(byte[] key, byte[] header, InputStream in) {
+            this.keySpec = keySpec(key);
+            this.header = header.clone();
+            this.in = in;
+            try {
+                this.cipher = Cipher.getInstance(TRANSFORMATION);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("AES-GCM is not available", e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (plainPos == plainCount) {
+                if (finished) {
+                    return -1;
+                }
+                nextSegment();
+            }
+            int n = Math.min(len, plainCount - plainPos);
+            System.arraycopy(plain, plainPos, b, off, n);
+            plainPos += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private void nextSegment() throws IOException {
+            while (sealedCount < sealed.length) {
+                int n = in.read(sealed, sealedCount, sealed.length - sealedCount);
+                if (n == -1) {
+                    break;
+                }
+                sealedCount += n;
+            }
+            boolean last = sealedCount < sealed.length;
+            int length = last ? sealedCount : sealed.length - 1;
+            if (length < TAG_LENGTH) {
+                throw new EOFException("Truncated record");
+            }
+            try {
+                init(cipher, Cipher.DECRYPT_MODE, keySpec, header, segment++, last);
+                plainCount = cipher.doFinal(sealed, 0, length, plain, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Decryption failed", e);
+            }
+            plainPos = 0;
+            finished = last;
+            if (!last) {
+                sealed[0] = sealed[length]; // Carry the look-ahead byte into the next segment
+                sealedCount = 1;
+            }
+        }
+    }
+}
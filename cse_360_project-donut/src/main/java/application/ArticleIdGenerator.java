@@ -0,0 +1,91 @@
+package application;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates help article ids. An id packs, from the high bits down, the
+ * milliseconds since EPOCH_MILLIS (41 bits), a node number (10 bits) and a
+ * per-millisecond sequence (12 bits), so ids from different nodes never
+ * collide and ids from one node are strictly increasing.
+ *
+ * Allocation is a single compare-and-set on the last (timestamp, sequence)
+ * pair, so concurrent callers never block each other. When the 4096 ids of a
+ * millisecond are used up, or the wall clock steps backwards, the generator
+ * keeps counting on its own timestamp instead of waiting for the clock.
+ *
+ * Ids are far larger than the millisecond timestamps used as ids before, so
+ * they cannot clash with existing articles.
+ */
+public class ArticleIdGenerator {
+
+    /** Start of the id timestamp range: 2024-01-01T00:00:00Z. */
+    public static final long EPOCH_MILLIS = 1704067200000L;
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // System property that sets the node number of the default generator
+    private static final String NODE_PROPERTY = "donut.node.id";
+
+    private static final ArticleIdGenerator DEFAULT = new ArticleIdGenerator(Integer.getInteger(NODE_PROPERTY, 0));
+
+    private final long nodeBits;
+
+    // Last allocated (timestamp << SEQUENCE_BITS | sequence), timestamp relative to EPOCH_MILLIS
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * @param nodeId The number of this node, between 0 and MAX_NODE_ID.
+     */
+    public ArticleIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Returns the generator used for new articles. Its node number is read
+     * from the donut.node.id system property and defaults to 0.
+     */
+    public static ArticleIdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Allocates a new id.
+     *
+     * @return An id that no other call on any generator with a different node number returns.
+     */
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        long next = state.updateAndGet(last -> {
+            long lastTime = last >>> SEQUENCE_BITS;
+            if (now > lastTime) {
+                return now << SEQUENCE_BITS;
+            }
+            // Same millisecond or the clock went back: take the next sequence number,
+            // which rolls over into the following millisecond when exhausted
+            return last + 1;
+        });
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+    }
+
+    /**
+     * Returns the node number encoded in an id.
+     */
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+
+    /**
+     * Returns the wall-clock time, in epoch milliseconds, encoded in an id.
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+}
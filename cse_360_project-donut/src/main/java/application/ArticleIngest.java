@@ -0,0 +1,500 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports help articles in bulk, e.g. when migrating from the old wiki.
+ *
+ * Records pass through five stages: parse and normalize on the calling
+ * thread, encode (encrypting special access bodies) on a pool of workers,
+ * then index and commit in batches on a single committer. The stages are
+ * joined by bounded queues, so a slow stage makes the earlier ones wait
+ * instead of buffering the whole import in memory.
+ *
+ * Two input formats are read:
+ * <ul>
+ * <li>JSON lines: one object per line with title, description, keywords,
+ *     body, links, groups, level and author members. List members may be
+ *     arrays or comma-separated strings.</li>
+ * <li>Markdown: each article starts with a "# Title" line, followed by
+ *     "Name: value" header lines, a blank line, and the body up to the next
+ *     "# " line.</li>
+ * </ul>
+ */
+public class ArticleIngest {
+
+    /** Input formats understood by the importer. */
+    public enum Format { JSON_LINES, MARKDOWN }
+
+    /**
+     * Counts and timing of one import.
+     */
+    public static class Report {
+        private final long read;
+        private final long rejected;
+        private final long failed;
+        private final long committed;
+        private final long batches;
+        private final long readerStalls;
+        private final long elapsedNanos;
+
+        Report(long read, long rejected, long failed, long committed, long batches, long readerStalls, long elapsedNanos) {
+            this.read = read;
+            this.rejected = rejected;
+            this.failed = failed;
+            this.committed = committed;
+            this.batches = batches;
+            this.readerStalls = readerStalls;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** Records read from the input, including rejected ones. */
+        public long getRead() { return read; }
+        /** Records that could not be parsed or had no title. */
+        public long getRejected() { return rejected; }
+        /** Records whose body could not be encoded, or whose batch could not be committed. */
+        public long getFailed() { return failed; }
+        /** Articles added to the target user. */
+        public long getCommitted() { return committed; }
+        public long getBatches() { return batches; }
+        /** Times the reader had to wait because the encode stage was full. */
+        public long getReaderStalls() { return readerStalls; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getArticlesPerSecond() {
+            return elapsedNanos > 0 ? committed * 1_000_000_000.0 / elapsedNanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("read=%d, rejected=%d, failed=%d, committed=%d, batches=%d, readerStalls=%d, elapsedMs=%d, articlesPerSecond=%.0f",
+                    read, rejected, failed, committed, batches, readerStalls, elapsedNanos / 1_000_000, getArticlesPerSecond());
+        }
+    }
+
+    // A parsed and normalized record waiting to be encoded
+    private static final class Draft {
+        final String title;
+        final String description;
+        final List<String> keywords;
+        final String body;
+        final List<String> links;
+        final List<String> groups;
+        final String level;
+        final String author;
+
+        Draft(String title, String description, List<String> keywords, String body,
+              List<String> links, List<String> groups, String level, String author) {
+            this.title = title;
+            this.description = description;
+            this.keywords = keywords;
+            this.body = body;
+            this.links = links;
+            this.groups = groups;
+            this.level = level;
+            this.author = author;
+        }
+    }
+
+    // An encoded article waiting to be committed; END marks a finished worker
+    private static final class Encoded {
+        final User.HelpArticle article;
+
+        Encoded(User.HelpArticle article) {
+            this.article = article;
+        }
+    }
+
+    private static final Draft END_OF_INPUT = new Draft(null, null, null, null, null, null, null, null);
+    private static final Encoded END_OF_WORKER = new Encoded(null);
+
+    private final User target;
+    private final int workers;
+    private final int queueCapacity;
+    private final int batchSize;
+    private ArticleIdGenerator idGenerator = ArticleIdGenerator.getDefault();
+
+    /**
+     * Creates an importer with one encode worker per processor, queues of
+     * 4096 records and commit batches of 1000 articles.
+     *
+     * @param target The user who receives the imported articles.
+     */
+    public ArticleIngest(User target) {
+        this(target, Runtime.getRuntime().availableProcessors(), 4096, 1000);
+    }
+
+    /**
+     * @param target        The user who receives the imported articles.
+     * @param workers       Number of encode workers.
+     * @param queueCapacity Capacity of each queue between stages.
+     * @param batchSize     Number of articles committed at a time.
+     */
+    public ArticleIngest(User target, int workers, int queueCapacity, int batchSize) {
+        if (workers < 1 || queueCapacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("workers, queueCapacity and batchSize must be positive");
+        }
+        this.target = target;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+    }
+
+    public void setIdGenerator(ArticleIdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Picks the format from a file name: .md and .markdown files are Markdown,
+     * everything else is read as JSON lines.
+     */
+    public static Format formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".md") || name.endsWith(".markdown") ? Format.MARKDOWN : Format.JSON_LINES;
+    }
+
+    /**
+     * Imports the articles in a file.
+     *
+     * @param file   The file to import.
+     * @param format The file's format.
+     * @return The import report.
+     * @throws IOException If the file cannot be read; articles read before the error are still committed.
+     */
+    public Report ingest(Path file, Format format) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return ingest(reader, format);
+        }
+    }
+
+    /**
+     * Imports the articles read from a reader.
+     *
+     * @param reader The input.
+     * @param format The input's format.
+     * @return The import report.
+     * @throws IOException If the input cannot be read; articles read before the error are still committed.
+     */
+    public Report ingest(BufferedReader reader, Format format) throws IOException {
+        long start = System.nanoTime();
+        User.HelpArticle.loadArticleKey(); // Load once before the workers start encrypting
+
+        BlockingQueue<Draft> drafts = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Encoded> encoded = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicLong failed = new AtomicLong();
+        AtomicLong committed = new AtomicLong();
+        AtomicLong batches = new AtomicLong();
+        long[] counts = new long[3]; // read, rejected, reader stalls
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers + 1, task -> {
+            Thread thread = new Thread(task, "donut-ingest-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int i = 0; i < workers; i++) {
+                pool.execute(() -> encodeLoop(drafts, encoded, failed));
+            }
+            Future<?> committer = pool.submit(() -> {
+                commitLoop(encoded, committed, batches, failed);
+                return null;
+            });
+
+            IOException readError = null;
+            try {
+                if (format == Format.MARKDOWN) {
+                    readMarkdown(reader, drafts, counts);
+                } else {
+                    readJsonLines(reader, drafts, counts);
+                }
+            } catch (IOException e) {
+                readError = e;
+            } finally {
+                for (int i = 0; i < workers; i++) {
+                    putUninterruptibly(drafts, END_OF_INPUT);
+                }
+            }
+            awaitCommitter(committer);
+            if (readError != null) {
+                throw readError;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Report report = new Report(counts[0], counts[1], failed.get(), committed.get(), batches.get(),
+                counts[2], System.nanoTime() - start);
+        EventLog.info("ingest.finished", "user", target.getUsername(), "report", report);
+        return report;
+    }
+
+    // Stage 1 and 2: parse JSON lines and normalize them
+    private void readJsonLines(BufferedReader reader, BlockingQueue<Draft> drafts, long[] counts) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            counts[0]++;
+            Map<String, Object> fields;
+            try {
+                fields = Json.parseObject(line);
+            } catch (IllegalArgumentException e) {
+                reject(counts, lineNumber, e.getMessage());
+                continue;
+            }
+            submit(drafts, fields, lineNumber, counts);
+        }
+    }
+
+    // Stage 1 and 2: parse Markdown articles and normalize them
+    private void readMarkdown(BufferedReader reader, BlockingQueue<Draft> drafts, long[] counts) throws IOException {
+        Map<String, Object> fields = null;
+        StringBuilder body = new StringBuilder();
+        boolean inHeaders = false;
+        long articleLine = 0;
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.startsWith("# ")) {
+                if (fields != null) {
+                    counts[0]++;
+                    fields.put("body", trimTrailingNewlines(body));
+                    submit(drafts, fields, articleLine, counts);
+                }
+                fields = new LinkedHashMap<>();
+                fields.put("title", line.substring(2));
+                body.setLength(0);
+                inHeaders = true;
+                articleLine = lineNumber;
+            } else if (fields == null) {
+                continue; // Text before the first article
+            } else if (inHeaders) {
+                int colon = line.indexOf(':');
+                if (line.isBlank()) {
+                    inHeaders = false;
+                } else if (colon > 0 && line.substring(0, colon).trim().matches("[A-Za-z]+")) {
+                    fields.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1));
+                } else {
+                    inHeaders = false;
+                    body.append(line).append('\n');
+                }
+            } else {
+                body.append(line).append('\n');
+            }
+        }
+        if (fields != null) {
+            counts[0]++;
+            fields.put("body", trimTrailingNewlines(body));
+            submit(drafts, fields, articleLine, counts);
+        }
+    }
+
+    // Normalizes a record and hands it to the encode stage, waiting while that stage is full
+    private void submit(BlockingQueue<Draft> drafts, Map<String, Object> fields, long lineNumber, long[] counts)
+            throws IOException {
+        Draft draft = normalize(fields);
+        if (draft == null) {
+            reject(counts, lineNumber, "missing title");
+            return;
+        }
+        if (!drafts.offer(draft)) {
+            counts[2]++;
+            try {
+                drafts.put(draft);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrupted", e);
+            }
+        }
+    }
+
+    private void reject(long[] counts, long lineNumber, String reason) {
+        counts[1]++;
+        EventLog.warn("ingest.rejected", "line", lineNumber, "reason", reason);
+    }
+
+    // Stage 2: trims text, removes blank and duplicate list entries and fills in defaults
+    private Draft normalize(Map<String, Object> fields) {
+        String title = text(fields.get("title"));
+        if (title.isEmpty()) {
+            return null;
+        }
+        Object body = fields.get("body");
+        String author = text(fields.get("author"));
+        return new Draft(title,
+                text(fields.get("description")),
+                list(fields.get("keywords")),
+                body != null ? body.toString() : "",
+                list(fields.get("links")),
+                list(fields.get("groups")),
+                level(text(fields.get("level"))),
+                author.isEmpty() ? target.getUsername() : author);
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString().trim() : "";
+    }
+
+    private static List<String> list(Object value) {
+        if (value == null) {
+            return new ArrayList<>();
+        }
+        Iterable<?> items = value instanceof List ? (List<?>) value : Arrays.asList(value.toString().split(","));
+        Set<String> unique = new LinkedHashSet<>();
+        for (Object item : items) {
+            String entry = text(item);
+            if (!entry.isEmpty()) {
+                unique.add(entry);
+            }
+        }
+        return new ArrayList<>(unique);
+    }
+
+    private static String level(String level) {
+        if (level.isEmpty()) {
+            return "Beginner";
+        }
+        Level known = Level.of(level);
+        return known != null ? known.getDisplayName() : level;
+    }
+
+    private static String trimTrailingNewlines(StringBuilder body) {
+        int end = body.length();
+        while (end > 0 && body.charAt(end - 1) == '\n') {
+            end--;
+        }
+        return body.substring(0, end);
+    }
+
+    // Stage 3: assigns ids and encodes bodies, encrypting special access articles
+    private void encodeLoop(BlockingQueue<Draft> drafts, BlockingQueue<Encoded> encoded, AtomicLong failed) {
+        try {
+            while (true) {
+                Draft draft = drafts.take();
+                if (draft == END_OF_INPUT) {
+                    break;
+                }
+                Encoded next;
+                try {
+                    next = encode(draft);
+                } catch (RuntimeException e) {
+                    // Keep draining so the reader never blocks on a dead worker
+                    EventLog.error("ingest.encode_failed", "title", draft.title, "error", e.getMessage());
+                    next = null;
+                }
+                if (next == null) {
+                    failed.incrementAndGet();
+                    continue;
+                }
+                encoded.put(next);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            putUninterruptibly(encoded, END_OF_WORKER); // The committer waits for one from every worker
+        }
+    }
+
+    // Returns the encoded article, or null if its body could not be encoded
+    private Encoded encode(Draft draft) {
+        long id = idGenerator.nextId();
+        byte[] storedBody = User.HelpArticle.encodeBody(id, draft.body,
+                User.HelpArticle.isSpecialAccessGroups(draft.groups));
+        if (storedBody == null) {
+            return null;
+        }
+        return new Encoded(User.HelpArticle.fromStored(id, draft.title, draft.description,
+                draft.keywords, storedBody, draft.links, draft.groups, draft.level, draft.author,
+                User.HelpArticle.nextModificationStamp()));
+    }
+
+    // Stage 4 and 5: collects encoded articles into batches, sorts each batch by id and commits it
+    private void commitLoop(BlockingQueue<Encoded> encoded, AtomicLong committed, AtomicLong batches,
+                            AtomicLong failed) throws InterruptedException {
+        List<User.HelpArticle> batch = new ArrayList<>(batchSize);
+        int finishedWorkers = 0;
+        while (finishedWorkers < workers) {
+            Encoded next = encoded.take();
+            if (next == END_OF_WORKER) {
+                finishedWorkers++;
+                continue;
+            }
+            batch.add(next.article);
+            if (batch.size() >= batchSize) {
+                commit(batch, committed, batches, failed);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        commit(batch, committed, batches, failed);
+    }
+
+    private void commit(List<User.HelpArticle> batch, AtomicLong committed, AtomicLong batches, AtomicLong failed) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Id order makes the registry's ordered index inserts sequential
+        Collections.sort(batch, Comparator.comparingLong(User.HelpArticle::getId));
+        try {
+            target.addHelpArticles(batch);
+        } catch (RuntimeException e) {
+            // Keep draining so the earlier stages never block on a dead committer
+            EventLog.error("ingest.commit_failed", "articles", batch.size(), "error", e.getMessage());
+            failed.addAndGet(batch.size());
+            return;
+        }
+        committed.addAndGet(batch.size());
+        batches.incrementAndGet();
+    }
+
+    private static void awaitCommitter(Future<?> committer) throws IOException {
+        try {
+            committer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed", e.getCause());
+        }
+    }
+
+    private static <T> void putUninterruptibly(BlockingQueue<T> queue, T item) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(item);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package application;
+
+import javafx.scene.control.ListCell;
+
+/**
+ * List cell for an ArticleResultList. The ListView only creates enough cells
+ * to fill the viewport and reuses them while scrolling, so row text is built
+ * for visible rows only, into a buffer kept per cell.
+ */
+public class ArticleListCell extends ListCell<Long> {
+
+    private final StringBuilder text = new StringBuilder(128);
+
+    @Override
+    protected void updateItem(Long id, boolean empty) {
+        super.updateItem(id, empty);
+        if (empty || id == null || !(getListView().getItems() instanceof ArticleResultList)) {
+            setText(null);
+            return;
+        }
+        ArticleSearch.Result result = ((ArticleResultList) getListView().getItems()).getResult();
+        int index = getIndex();
+        if (index < 0 || index >= result.size()) {
+            setText(null);
+            return;
+        }
+        text.setLength(0);
+        result.formatRow(index, text);
+        setText(text.toString());
+    }
+}
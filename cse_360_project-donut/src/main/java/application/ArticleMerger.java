@@ -0,0 +1,142 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges restored help articles into a user's article list.
+ *
+ * The user's articles are indexed by id once, so each restored article is
+ * matched with a single hash lookup and the whole merge is linear in the size
+ * of both lists. Id conflicts are resolved by a ConflictPolicy.
+ *
+ * Articles a merge puts into the list are stamped as modified, since their
+ * stored stamps can predate the last checkpoint even though the live state
+ * changed; the next incremental backup then carries them.
+ */
+public class ArticleMerger {
+
+    /**
+     * How to resolve a restored article whose id already exists.
+     */
+    public enum ConflictPolicy {
+        /** Keep the existing article and skip the restored one. */
+        KEEP_EXISTING,
+        /** Replace the existing article if the restored one was modified later. */
+        OVERWRITE_NEWER,
+        /** Keep the existing article and add the restored one under a new id. */
+        KEEP_BOTH
+    }
+
+    /**
+     * Counts of what a merge did.
+     */
+    public static class MergeResult {
+        private int added;
+        private int overwritten;
+        private int keptExisting;
+        private int keptBoth;
+        private int denied;
+
+        public int getAdded() { return added; }
+        public int getOverwritten() { return overwritten; }
+        public int getKeptExisting() { return keptExisting; }
+        public int getKeptBoth() { return keptBoth; }
+        public int getDenied() { return denied; }
+
+        @Override
+        public String toString() {
+            return "added=" + added + ", overwritten=" + overwritten + ", keptExisting=" + keptExisting
+                    + ", keptBoth=" + keptBoth + ", denied=" + denied;
+        }
+    }
+
+    /**
+     * Merges restored articles into the target user's list.
+     *
+     * @param target   The user receiving the articles.
+     * @param restored The restored articles.
+     * @param policy   How to resolve id conflicts.
+     * @return Counts of added, overwritten, skipped and denied articles.
+     */
+    public static MergeResult merge(User target, List<User.HelpArticle> restored, ConflictPolicy policy) {
+        MergeResult result = new MergeResult();
+        List<User.HelpArticle> merged = target.getAllHelpArticles();
+
+        // Index existing articles by id to their position in the merged list
+        Map<Long, Integer> positions = new HashMap<>(merged.size() * 2);
+        for (int i = 0; i < merged.size(); i++) {
+            positions.put(merged.get(i).getId(), i);
+        }
+
+        for (User.HelpArticle article : restored) {
+            if (!article.userHasAccess(target)) {
+                result.denied++;
+                continue;
+            }
+            Integer position = positions.get(article.getId());
+            if (position == null) {
+                article.markModified();
+                positions.put(article.getId(), merged.size());
+                merged.add(article);
+                result.added++;
+                continue;
+            }
+            switch (policy) {
+                case OVERWRITE_NEWER:
+                    if (article.getLastModified() > merged.get(position).getLastModified()) {
+                        article.markModified();
+                        merged.set(position, article);
+                        result.overwritten++;
+                    } else {
+                        result.keptExisting++;
+                    }
+                    break;
+                case KEEP_BOTH:
+                    User.HelpArticle copy = article.withId(ArticleIdGenerator.getDefault().nextId());
+                    positions.put(copy.getId(), merged.size());
+                    merged.add(copy);
+                    result.keptBoth++;
+                    break;
+                default:
+                    result.keptExisting++;
+                    break;
+            }
+        }
+        target.replaceAllHelpArticles(merged);
+        return result;
+    }
+
+    /**
+     * Replaces the target user's articles with the restored ones it has access to.
+     * Articles that disappear are recorded as deletions for incremental backups.
+     *
+     * @param target   The user receiving the articles.
+     * @param restored The restored articles.
+     * @return Counts of added and denied articles.
+     */
+    public static MergeResult replace(User target, List<User.HelpArticle> restored) {
+        MergeResult result = new MergeResult();
+        Map<Long, User.HelpArticle> kept = new HashMap<>(restored.size() * 2);
+        List<User.HelpArticle> replacement = new ArrayList<>(restored.size());
+        for (User.HelpArticle article : restored) {
+            if (!article.userHasAccess(target)) {
+                result.denied++;
+            } else if (kept.putIfAbsent(article.getId(), article) == null) {
+                article.markModified();
+                replacement.add(article);
+                result.added++;
+            }
+        }
+        Login login = Login.getInstance();
+        for (User.HelpArticle existing : target.getAllHelpArticles()) {
+            if (!kept.containsKey(existing.getId())) {
+                login.recordArticleDeletion(existing.getId());
+            }
+        }
+        target.replaceAllHelpArticles(replacement);
+        return result;
+    }
+}
@@ -0,0 +1,344 @@
+package application;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Article metadata laid out as parallel arrays (structure of arrays), so
+ * filters by level, group, author or access run as tight loops over
+ * primitive columns instead of walking HelpArticle objects.
+ *
+ * Every registered article occupies one slot:
+ *   ids[slot]        the article id
+ *   levels[slot]     the Level ordinal, or OTHER_LEVEL for unknown level text
+ *   authorIds[slot]  the author, as a code local to this store
+ * and one bit in each bitset it belongs to: live, special, and one bitset per
+ * group. Removed slots are cleared from every bitset and reused. Groups are
+ * interned in SymbolTable; authors are free text, so their codes are counted
+ * and released with the author's last article instead.
+ *
+ * ArticleRegistry keeps the store in sync: it is told whenever an article is
+ * added, removed, or changes its groups, level or author. All methods are
+ * synchronized; the registry calls in while holding its own lock.
+ */
+public class ArticleMetadataStore {
+
+    /** Level code for articles whose level text is not a Level. */
+    static final byte OTHER_LEVEL = -1;
+
+    private static final SymbolTable SYMBOLS = SymbolTable.getDefault();
+
+    private long[] ids = new long[64];
+    private byte[] levels = new byte[64];
+    private int[] authorIds = new int[64];
+    private long[] live = new long[1];
+    private long[] special = new long[1];
+    private final Map<Integer, long[]> groupBits = new HashMap<>(); // Group symbol id -> members bitset
+
+    private final Map<String, Integer> authorCodes = new HashMap<>();
+    private String[] authorNames = new String[16]; // Author by code, null for a free code
+    private int[] authorUses = new int[16]; // Stored articles per author code
+    private int[] freeAuthorCodes = new int[16];
+    private int freeAuthorCount;
+    private int nextAuthorCode;
+
+    private final Map<User.HelpArticle, Integer> slots = new IdentityHashMap<>();
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int highWater; // Slots below this have been used
+
+    /**
+     * Adds an article, or refreshes its columns if it is already stored.
+     */
+    synchronized void put(User.HelpArticle article) {
+        Integer existing = slots.get(article);
+        int slot;
+        int previousAuthor = SymbolTable.NONE;
+        if (existing != null) {
+            slot = existing;
+            clearGroups(slot);
+            previousAuthor = authorIds[slot];
+        } else {
+            slot = freeCount > 0 ? freeSlots[--freeCount] : highWater++;
+            ensureCapacity(slot + 1);
+            slots.put(article, slot);
+            set(live, slot);
+        }
+        ids[slot] = article.getId();
+        Level level = article.getLevelType();
+        levels[slot] = level != null ? (byte) level.ordinal() : OTHER_LEVEL;
+        authorIds[slot] = acquireAuthor(article.getAuthor());
+        releaseAuthor(previousAuthor); // After acquiring, so an unchanged author keeps its code
+        if (article.isSpecialAccessGroup()) {
+            set(special, slot);
+        } else {
+            clear(special, slot);
+        }
+        for (String group : article.getGroups()) {
+            long[] bits = groupBits.computeIfAbsent(SYMBOLS.intern(group), k -> new long[live.length]);
+            set(bits, slot);
+        }
+    }
+
+    /**
+     * Removes an article.
+     *
+     * @return True if the article was stored.
+     */
+    synchronized boolean remove(User.HelpArticle article) {
+        Integer slot = slots.remove(article);
+        if (slot == null) {
+            return false;
+        }
+        clearGroups(slot);
+        clear(live, slot);
+        clear(special, slot);
+        releaseAuthor(authorIds[slot]);
+        authorIds[slot] = SymbolTable.NONE;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    /**
+     * Returns the number of distinct authors of the stored articles.
+     */
+    public synchronized int authorCount() {
+        return authorCodes.size();
+    }
+
+    /**
+     * Counts the stored articles matching every given filter.
+     *
+     * @param level  Level the articles must have, or null for any level.
+     * @param group  Group the articles must belong to, or null for any group.
+     * @param author Author the articles must have, or null for any author.
+     * @return The number of matching articles; an article held by several users counts once per copy.
+     */
+    public synchronized int count(Level level, String group, String author) {
+        return count(match(level, group, author));
+    }
+
+    /**
+     * Counts the stored articles in a special access group.
+     *
+     * @param group Group the articles must belong to, or null for any group.
+     */
+    public synchronized int countSpecialAccess(String group) {
+        long[] mask = match(null, group, null);
+        for (int w = 0; w < mask.length; w++) {
+            mask[w] &= special[w];
+        }
+        return count(mask);
+    }
+
+    /**
+     * Counts the stored articles in a group by level, in one pass over the level column.
+     *
+     * @param group Group the articles must belong to, or null for any group.
+     * @return Counts indexed by Level ordinal.
+     */
+    public synchronized int[] countByLevel(String group) {
+        int[] counts = new int[Level.values().length];
+        long[] mask = match(null, group, null);
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            while (word != 0) {
+                int slot = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (levels[slot] != OTHER_LEVEL) {
+                    counts[levels[slot]]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the ids of the stored articles matching every given filter.
+     *
+     * @param level  Level the articles must have, or null for any level.
+     * @param group  Group the articles must belong to, or null for any group.
+     * @param author Author the articles must have, or null for any author.
+     * @return The matching ids in ascending order, without duplicates.
+     */
+    public synchronized long[] matchingIds(Level level, String group, String author) {
+        long[] mask = match(level, group, author);
+        long[] result = new long[count(mask)];
+        int n = 0;
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            while (word != 0) {
+                result[n++] = ids[(w << 6) + Long.numberOfTrailingZeros(word)];
+                word &= word - 1;
+            }
+        }
+        Arrays.sort(result);
+        return distinct(result);
+    }
+
+    /**
+     * Counts the stored articles a viewer may read: all of them for admins and
+     * instructors, otherwise those in at least one of the viewer's groups.
+     */
+    public synchronized int countAccessible(User viewer) {
+        if (viewer.isAdmin() || viewer.isInstructor()) {
+            return count(live);
+        }
+        long[] mask = new long[live.length];
+        for (String group : viewer.getGroupNames()) {
+            long[] bits = groupBits.get(SYMBOLS.idOf(group));
+            if (bits != null) {
+                for (int w = 0; w < mask.length; w++) {
+                    mask[w] |= bits[w];
+                }
+            }
+        }
+        return count(mask);
+    }
+
+    // Builds the bitset of live slots matching the filters
+    private long[] match(Level level, String group, String author) {
+        long[] mask = live.clone();
+        if (group != null) {
+            long[] bits = groupBits.get(SYMBOLS.idOf(group));
+            if (bits == null) {
+                return new long[mask.length];
+            }
+            for (int w = 0; w < mask.length; w++) {
+                mask[w] &= bits[w];
+            }
+        }
+        if (level != null) {
+            andWithColumn(mask, levels, (byte) level.ordinal());
+        }
+        if (author != null) {
+            Integer authorCode = authorCodes.get(author);
+            if (authorCode == null) {
+                return new long[mask.length];
+            }
+            andWithColumn(mask, authorIds, authorCode);
+        }
+        return mask;
+    }
+
+    // Clears the mask bits of slots whose level code differs; the inner loop is branch-free
+    private void andWithColumn(long[] mask, byte[] column, byte value) {
+        for (int w = 0; w < mask.length; w++) {
+            if (mask[w] == 0) {
+                continue;
+            }
+            long bits = 0;
+            int base = w << 6;
+            int end = Math.min(64, highWater - base);
+            for (int i = 0; i < end; i++) {
+                bits |= (column[base + i] == value ? 1L : 0L) << i;
+            }
+            mask[w] &= bits;
+        }
+    }
+
+    // Clears the mask bits of slots whose value differs; the inner loop is branch-free
+    private void andWithColumn(long[] mask, int[] column, int value) {
+        for (int w = 0; w < mask.length; w++) {
+            if (mask[w] == 0) {
+                continue;
+            }
+            long bits = 0;
+            int base = w << 6;
+            int end = Math.min(64, highWater - base);
+            for (int i = 0; i < end; i++) {
+                bits |= (column[base + i] == value ? 1L : 0L) << i;
+            }
+            mask[w] &= bits;
+        }
+    }
+
+    // Returns the code of an author, assigning one if no stored article has that author yet
+    private int acquireAuthor(String author) {
+        if (author == null) {
+            return SymbolTable.NONE;
+        }
+        Integer code = authorCodes.get(author);
+        if (code == null) {
+            code = freeAuthorCount > 0 ? freeAuthorCodes[--freeAuthorCount] : nextAuthorCode++;
+            if (code == authorNames.length) {
+                authorNames = Arrays.copyOf(authorNames, code * 2);
+                authorUses = Arrays.copyOf(authorUses, code * 2);
+            }
+            authorNames[code] = author;
+            authorCodes.put(author, code);
+        }
+        authorUses[code]++;
+        return code;
+    }
+
+    // Drops one use of an author code, freeing it with the author's last article
+    private void releaseAuthor(int code) {
+        if (code == SymbolTable.NONE || --authorUses[code] > 0) {
+            return;
+        }
+        authorCodes.remove(authorNames[code]);
+        authorNames[code] = null;
+        if (freeAuthorCount == freeAuthorCodes.length) {
+            freeAuthorCodes = Arrays.copyOf(freeAuthorCodes, freeAuthorCount * 2);
+        }
+        freeAuthorCodes[freeAuthorCount++] = code;
+    }
+
+    private void clearGroups(int slot) {
+        for (long[] bits : groupBits.values()) {
+            clear(bits, slot);
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(needed, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        authorIds = Arrays.copyOf(authorIds, capacity);
+        int words = (capacity + 63) >>> 6;
+        live = Arrays.copyOf(live, words);
+        special = Arrays.copyOf(special, words);
+        for (Map.Entry<Integer, long[]> entry : groupBits.entrySet()) {
+            entry.setValue(Arrays.copyOf(entry.getValue(), words));
+        }
+    }
+
+    private static int count(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static long[] distinct(long[] sorted) {
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    private static void set(long[] bits, int slot) {
+        bits[slot >>> 6] |= 1L << slot;
+    }
+
+    private static void clear(long[] bits, int slot) {
+        bits[slot >>> 6] &= ~(1L << slot);
+    }
+}
@@ -0,0 +1,95 @@
+package application;
+
+import java.util.List;
+
+/**
+ * A set of changes to one help article. Only the fields that were set are
+ * applied, and of those only the ones whose value actually differs, so a
+ * title-only edit does not re-encrypt the body or re-index the article.
+ */
+public class ArticlePatch {
+
+    public static final int TITLE = 1;
+    public static final int DESCRIPTION = 1 << 1;
+    public static final int KEYWORDS = 1 << 2;
+    public static final int BODY = 1 << 3;
+    public static final int LINKS = 1 << 4;
+    public static final int GROUPS = 1 << 5;
+    public static final int LEVEL = 1 << 6;
+
+    private final long id;
+    private int fields; // Bit set of the fields this patch sets
+
+    private String title;
+    private String description;
+    private List<String> keywords;
+    private String body;
+    private List<String> links;
+    private List<String> groups;
+    private String level;
+
+    /**
+     * @param id The id of the article to change.
+     */
+    public ArticlePatch(long id) {
+        this.id = id;
+    }
+
+    public long getId() { return id; }
+
+    /**
+     * Returns the bit set of the fields this patch sets, e.g. TITLE | LEVEL.
+     */
+    public int getFields() { return fields; }
+
+    public boolean isSet(int field) { return (fields & field) != 0; }
+
+    public String getTitle() { return title; }
+
+    public void setTitle(String title) {
+        this.title = title;
+        fields |= TITLE;
+    }
+
+    public String getDescription() { return description; }
+
+    public void setDescription(String description) {
+        this.description = description;
+        fields |= DESCRIPTION;
+    }
+
+    public List<String> getKeywords() { return keywords; }
+
+    public void setKeywords(List<String> keywords) {
+        this.keywords = keywords;
+        fields |= KEYWORDS;
+    }
+
+    public String getBody() { return body; }
+
+    public void setBody(String body) {
+        this.body = body;
+        fields |= BODY;
+    }
+
+    public List<String> getLinks() { return links; }
+
+    public void setLinks(List<String> links) {
+        this.links = links;
+        fields |= LINKS;
+    }
+
+    public List<String> getGroups() { return groups; }
+
+    public void setGroups(List<String> groups) {
+        this.groups = groups;
+        fields |= GROUPS;
+    }
+
+    public String getLevel() { return level; }
+
+    public void setLevel(String level) {
+        this.level = level;
+        fields |= LEVEL;
+    }
+}
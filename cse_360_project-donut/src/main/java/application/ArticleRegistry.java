@@ -0,0 +1,302 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Index of the help articles of every registered user. Articles are found by
+ * id in constant time, and sorted id sets, one for all articles and one per
+ * group and per author, let a page start at its cursor and stop at its limit.
+ * Searches, which visit every match anyway, take their group and level
+ * candidates from a columnar copy of the metadata (see ArticleMetadataStore).
+ *
+ * Users attached to the registry report additions and removals, and
+ * registered articles report changes to their groups, level or author, so
+ * every index and the metadata stay consistent. Writes are serialized;
+ * lookups by id and paging are lock-free.
+ *
+ * Article ids are not guaranteed unique across users (a restore may copy
+ * articles into another account), so each id maps to a chain of entries.
+ */
+public class ArticleRegistry {
+
+    // An article together with the user whose list holds it, and its filter values when it was filed
+    static final class Entry {
+        final User owner;
+        final User.HelpArticle article;
+        final List<String> groups;
+        final String level;
+        final String author;
+        final Entry next;
+
+        Entry(User owner, User.HelpArticle article, Entry next) {
+            this.owner = owner;
+            this.article = article;
+            this.groups = article.getGroups(); // Read-only view of the article's interned groups at this moment
+            this.level = levelKey(article.getLevel());
+            this.author = article.getAuthor();
+            this.next = next;
+        }
+    }
+
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Long> orderedIds = new ConcurrentSkipListSet<>();
+    private final Map<String, ConcurrentSkipListSet<Long>> byGroup = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentSkipListSet<Long>> byAuthor = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ArticleMetadataStore metadata = new ArticleMetadataStore();
+
+    /**
+     * Adds an article held by the given owner.
+     */
+    synchronized void add(User owner, User.HelpArticle article) {
+        long id = article.getId();
+        Entry head = byId.get(id);
+        Entry added = new Entry(owner, article, head);
+        byId.put(id, added);
+        orderedIds.add(id);
+        refile(id, head, added);
+        metadata.put(article);
+        article.setRegistry(this);
+        size.incrementAndGet();
+    }
+
+    /**
+     * Adds a batch of articles held by the given owner under one lock.
+     */
+    synchronized void addAll(User owner, Iterable<User.HelpArticle> articles) {
+        for (User.HelpArticle article : articles) {
+            add(owner, article);
+        }
+    }
+
+    /**
+     * Removes the owner's entries for the given id.
+     *
+     * @return The number of entries removed.
+     */
+    synchronized int remove(User owner, long id) {
+        Entry head = byId.get(id);
+        if (head == null) {
+            return 0;
+        }
+        int removed = 0;
+        Entry kept = null;
+        for (Entry e = head; e != null; e = e.next) {
+            if (e.owner == owner) {
+                removed++;
+                e.article.setRegistry(null);
+                metadata.remove(e.article);
+            } else {
+                kept = new Entry(e.owner, e.article, kept);
+            }
+        }
+        if (removed > 0) {
+            if (kept != null) {
+                byId.put(id, kept);
+                for (Entry e = kept; e != null; e = e.next) {
+                    e.article.setRegistry(this);
+                    metadata.put(e.article); // In case the same article object was also held by the owner removed
+                }
+            } else {
+                byId.remove(id);
+                orderedIds.remove(id);
+            }
+            refile(id, head, kept);
+            size.addAndGet(-removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every entry of the given owner for the listed articles.
+     */
+    void removeAll(User owner, Iterable<User.HelpArticle> articles) {
+        for (User.HelpArticle article : articles) {
+            remove(owner, article.getId());
+        }
+    }
+
+    /**
+     * Re-files an article whose groups, level or author have changed.
+     */
+    synchronized void reindex(User.HelpArticle article) {
+        long id = article.getId();
+        Entry head = byId.get(id);
+        if (head == null) {
+            return;
+        }
+        Entry rebuilt = null;
+        for (Entry e = head; e != null; e = e.next) {
+            rebuilt = new Entry(e.owner, e.article, rebuilt);
+            metadata.put(e.article);
+        }
+        byId.put(id, rebuilt);
+        refile(id, head, rebuilt);
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the columnar copy of the registered articles' metadata.
+     */
+    public ArticleMetadataStore getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Returns an article with the given id, or null if none is registered.
+     */
+    public User.HelpArticle get(long id) {
+        Entry head = byId.get(id);
+        return head != null ? head.article : null;
+    }
+
+    /**
+     * Returns the owner of an article with the given id, or null if none is registered.
+     */
+    public User getOwner(long id) {
+        Entry head = byId.get(id);
+        return head != null ? head.owner : null;
+    }
+
+    /**
+     * Returns every user holding an article with the given id.
+     */
+    public List<User> getOwners(long id) {
+        List<User> owners = new ArrayList<>(1);
+        for (Entry e = byId.get(id); e != null; e = e.next) {
+            if (!owners.contains(e.owner)) {
+                owners.add(e.owner);
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * Returns the next page of articles in id order. Candidates come from the
+     * group or author index when one of those filters is given, and only
+     * entries up to the end of the page are visited.
+     *
+     * @param afterId Cursor from the previous page, or Long.MIN_VALUE for the first page.
+     * @param limit   Number of articles on the page; an id shared by several
+     *                users is never split across pages, so a page can hold a few more.
+     * @param group   Group the articles must belong to, or null for any group.
+     * @param author  Author the articles must have, or null for any author.
+     * @return The page; its cursor is the id of the last article visited.
+     */
+    public Page<User.HelpArticle> page(long afterId, int limit, String group, String author) {
+        List<User.HelpArticle> items = new ArrayList<>(Math.min(limit, 1024));
+        long cursor = afterId;
+        for (Long id : candidates(group, author).tailSet(afterId, false)) {
+            if (items.size() >= limit) {
+                return new Page<>(items, cursor, true);
+            }
+            collect(id, group, null, author, items::add);
+            cursor = id;
+        }
+        return new Page<>(items, cursor, false);
+    }
+
+    // Picks the narrowest ordered index for the given filters
+    private NavigableSet<Long> candidates(String group, String author) {
+        if (group != null) {
+            return byGroup.getOrDefault(group, new ConcurrentSkipListSet<>());
+        }
+        if (author != null) {
+            return byAuthor.getOrDefault(author, new ConcurrentSkipListSet<>());
+        }
+        return orderedIds;
+    }
+
+    /**
+     * Visits every registered article matching the filters, in id order.
+     *
+     * @param group  Group the articles must belong to, or null for any group.
+     * @param level  Level the articles must have (case-insensitive), or null for any level.
+     * @param action Called with each matching article.
+     */
+    public void forEachMatch(String group, String level, Consumer<User.HelpArticle> action) {
+        String levelKey = level != null ? levelKey(level) : null;
+        if (group == null && level == null) {
+            for (Long id : orderedIds) {
+                collect(id, null, null, null, action);
+            }
+            return;
+        }
+        // Level text outside the Level enum is not a column value; such levels are filtered per entry
+        for (long id : metadata.matchingIds(Level.of(level), group, null)) {
+            collect(id, group, levelKey, null, action);
+        }
+    }
+
+    // Passes on the entries of an id that match the filters; the id may have been removed meanwhile
+    private void collect(long id, String group, String levelKey, String author, Consumer<User.HelpArticle> action) {
+        for (Entry e = byId.get(id); e != null; e = e.next) {
+            if (matches(e, group, levelKey, author)) {
+                action.accept(e.article);
+            }
+        }
+    }
+
+    // Files an id under the groups and authors of its new chain, then drops the keys only the old chain had
+    private void refile(long id, Entry before, Entry after) {
+        Set<String> groups = new HashSet<>();
+        Set<String> authors = new HashSet<>();
+        for (Entry e = after; e != null; e = e.next) {
+            for (String group : e.groups) {
+                if (groups.add(group)) {
+                    byGroup.computeIfAbsent(group, k -> new ConcurrentSkipListSet<>()).add(id);
+                }
+            }
+            if (e.author != null && authors.add(e.author)) {
+                byAuthor.computeIfAbsent(e.author, k -> new ConcurrentSkipListSet<>()).add(id);
+            }
+        }
+        for (Entry e = before; e != null; e = e.next) {
+            for (String group : e.groups) {
+                if (!groups.contains(group)) {
+                    removeFrom(byGroup, group, id);
+                }
+            }
+            if (e.author != null && !authors.contains(e.author)) {
+                removeFrom(byAuthor, e.author, id);
+            }
+        }
+    }
+
+    // Removes an id from one index key, dropping the key once it is empty
+    private static void removeFrom(Map<String, ConcurrentSkipListSet<Long>> index, String key, long id) {
+        ConcurrentSkipListSet<Long> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static boolean matches(Entry e, String group, String levelKey, String author) {
+        if (group != null && !e.groups.contains(group)) {
+            return false;
+        }
+        if (levelKey != null && !levelKey.equals(e.level)) {
+            return false;
+        }
+        return author == null || author.equals(e.author);
+    }
+
+    private static String levelKey(String level) {
+        return level != null ? level.toLowerCase() : "";
+    }
+}
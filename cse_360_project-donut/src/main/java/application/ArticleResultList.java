@@ -0,0 +1,67 @@
+package application;
+
+import java.util.Collection;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * Exposes an ArticleSearch.Result to a ListView as a list of article ids.
+ * Nothing is copied or formatted up front; ArticleListCell renders rows as
+ * they scroll into view.
+ */
+public class ArticleResultList extends ObservableListBase<Long> {
+
+    private final ArticleSearch.Result result;
+
+    public ArticleResultList(ArticleSearch.Result result) {
+        this.result = result;
+    }
+
+    public ArticleSearch.Result getResult() {
+        return result;
+    }
+
+    @Override
+    public Long get(int index) {
+        return result.getId(index);
+    }
+
+    @Override
+    public int size() {
+        return result.size();
+    }
+
+    /**
+     * Appends articles to the end of the list, e.g. the next page of a listing.
+     *
+     * @param articles The articles to append.
+     */
+    public void append(Collection<User.HelpArticle> articles) {
+        if (articles.isEmpty()) {
+            return;
+        }
+        int from = result.size();
+        beginChange();
+        for (User.HelpArticle article : articles) {
+            result.add(article);
+        }
+        nextAdd(from, result.size());
+        endChange();
+    }
+
+    /**
+     * Removes the article at the given position and notifies the ListView.
+     *
+     * @param index The position to remove.
+     * @return The removed article's id.
+     */
+    @Override
+    public Long remove(int index) {
+        Long removed = result.getId(index);
+        beginChange();
+        result.remove(index);
+        nextRemove(index, removed);
+        endChange();
+        return removed;
+    }
+}
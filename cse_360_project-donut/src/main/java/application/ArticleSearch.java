@@ -0,0 +1,252 @@
+package application;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the dashboard article search. A search returns a Result that keeps the
+ * matching articles by position and id only; the "N. Title: ..., Author: ...,
+ * Abstract: ..." row text is built on demand for the rows that are on screen.
+ */
+public class ArticleSearch {
+
+    /** The content levels shown in the dashboards' level counts. */
+    public static final List<String> LEVELS = Collections.unmodifiableList(Level.displayNames());
+
+    /**
+     * Searches the help articles of the given users.
+     *
+     * @param users          The users whose articles are searched.
+     * @param viewer         The user running the search; used for access checks and body decryption.
+     * @param keyword        Lower-case keyword, or null/empty to match every article.
+     * @param group          Group to filter by, or null/"all" for every group.
+     * @param level          Level to filter by, or null/"All" for every level.
+     * @param accessibleOnly Whether to skip articles the viewer has no access to.
+     * @return The matching articles.
+     */
+    public static Result search(Collection<User> users, User viewer, String keyword, String group, String level,
+                                boolean accessibleOnly) {
+        String groupFilter = group == null || group.equals("all") ? null : group;
+        String levelFilter = level == null || level.equals("All") ? null : level;
+        Level knownLevel = Level.of(levelFilter);
+        KeywordScanner scanner = KeywordScanner.forKeyword(keyword);
+
+        Result result = new Result();
+        for (User u : users) {
+            for (User.HelpArticle article : u.getAllHelpArticles()) {
+                if (groupFilter != null && !article.getGroups().contains(groupFilter)) {
+                    continue;
+                }
+                if (levelFilter != null && (knownLevel != null ? article.getLevelType() != knownLevel
+                                                               : !levelFilter.equalsIgnoreCase(article.getLevel()))) {
+                    continue;
+                }
+                addIfMatch(result, article, viewer, keyword, scanner, accessibleOnly);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Searches every article in the registry. Group and level filters are
+     * answered from the registry's metadata columns, so only candidates in the
+     * selected group or level are checked against the keyword. Results are in id order.
+     *
+     * @param registry       The article registry to search.
+     * @param viewer         The user running the search; used for access checks and body decryption.
+     * @param keyword        Lower-case keyword, or null/empty to match every article.
+     * @param group          Group to filter by, or null/"all" for every group.
+     * @param level          Level to filter by, or null/"All" for every level.
+     * @param accessibleOnly Whether to skip articles the viewer has no access to.
+     * @return The matching articles.
+     */
+    public static Result search(ArticleRegistry registry, User viewer, String keyword, String group, String level,
+                                boolean accessibleOnly) {
+        String groupFilter = group == null || group.equals("all") ? null : group;
+        String levelFilter = level == null || level.equals("All") ? null : level;
+        KeywordScanner scanner = KeywordScanner.forKeyword(keyword);
+
+        Result result = new Result();
+        registry.forEachMatch(groupFilter, levelFilter,
+                article -> addIfMatch(result, article, viewer, keyword, scanner, accessibleOnly));
+        return result;
+    }
+
+    // Applies the access and keyword checks shared by both searches
+    private static void addIfMatch(Result result, User.HelpArticle article, User viewer, String keyword,
+                                   KeywordScanner scanner, boolean accessibleOnly) {
+        if (accessibleOnly && !article.userHasAccess(viewer)) {
+            return;
+        }
+        if (keyword != null && !keyword.isEmpty() && !matchesKeyword(article, keyword, scanner, viewer)) {
+            return;
+        }
+        result.add(article);
+    }
+
+    /**
+     * Checks whether an article's title, description, body or keywords contain the keyword.
+     *
+     * @param article The article to check.
+     * @param keyword The lower-case keyword.
+     * @param viewer  The user reading the body.
+     * @return True if the keyword occurs in the article.
+     */
+    public static boolean matchesKeyword(User.HelpArticle article, String keyword, User viewer) {
+        return matchesKeyword(article, keyword, KeywordScanner.forKeyword(keyword), viewer);
+    }
+
+    /**
+     * Checks an article against a keyword using a scanner built once per
+     * search. ASCII keywords are matched without lower-casing copies: the
+     * body is scanned as UTF-8 bytes, straight from storage for plain
+     * articles. Other keywords fall back to String comparison.
+     *
+     * @param scanner The scanner for the keyword, or null to compare Strings.
+     */
+    static boolean matchesKeyword(User.HelpArticle article, String keyword, KeywordScanner scanner, User viewer) {
+        if (scanner != null) {
+            if (scanner.matches(article.getTitle()) || scanner.matches(article.getDescription())) {
+                return true;
+            }
+            for (String k : article.getKeywords()) {
+                if (scanner.matches(k)) {
+                    return true;
+                }
+            }
+            byte[] body = article.readBodyBytes(viewer);
+            return body != null && scanner.matches(body);
+        }
+        if (article.getTitle().toLowerCase().contains(keyword)) {
+            return true;
+        }
+        if (article.getDescription().toLowerCase().contains(keyword)) {
+            return true;
+        }
+        // Check keywords before the body, which may need decrypting
+        for (String k : article.getKeywords()) {
+            if (k.toLowerCase().contains(keyword)) {
+                return true;
+            }
+        }
+        return article.getBody(viewer).toLowerCase().contains(keyword);
+    }
+
+    /**
+     * Search results in display order. Only ids and article references are
+     * stored, so a result of 500k articles costs two arrays, not 500k strings.
+     */
+    public static class Result {
+        private long[] ids = new long[16];
+        private User.HelpArticle[] articles = new User.HelpArticle[16];
+        private int size;
+        // Counts per known level by ordinal; levels outside the Level enum are counted by text
+        private final int[] levelCounts = new int[Level.values().length];
+        private Map<String, Integer> otherLevelCounts;
+
+        void add(User.HelpArticle article) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                articles = Arrays.copyOf(articles, capacity);
+            }
+            ids[size] = article.getId();
+            articles[size] = article;
+            size++;
+            countLevel(article, 1);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long getId(int index) {
+            checkIndex(index);
+            return ids[index];
+        }
+
+        public User.HelpArticle get(int index) {
+            checkIndex(index);
+            return articles[index];
+        }
+
+        /**
+         * Returns the position of the article with the given id, or -1 if it is not in the result.
+         */
+        public int indexOf(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Removes the article at the given position, e.g. after it was deleted.
+         *
+         * @param index The position to remove.
+         * @return The removed article.
+         */
+        public User.HelpArticle remove(int index) {
+            checkIndex(index);
+            User.HelpArticle removed = articles[index];
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(articles, index + 1, articles, index, size - index - 1);
+            size--;
+            articles[size] = null;
+            countLevel(removed, -1);
+            return removed;
+        }
+
+        /**
+         * Returns how many results have the given level.
+         */
+        public int getLevelCount(String level) {
+            Level known = Level.of(level);
+            if (known != null) {
+                return levelCounts[known.ordinal()];
+            }
+            return otherLevelCounts != null ? otherLevelCounts.getOrDefault(level, 0) : 0;
+        }
+
+        public int getLevelCount(Level level) {
+            return levelCounts[level.ordinal()];
+        }
+
+        private void countLevel(User.HelpArticle article, int delta) {
+            Level level = article.getLevelType();
+            if (level != null) {
+                levelCounts[level.ordinal()] += delta;
+            } else {
+                if (otherLevelCounts == null) {
+                    otherLevelCounts = new HashMap<>();
+                }
+                otherLevelCounts.merge(article.getLevel(), delta, Integer::sum);
+            }
+        }
+
+        /**
+         * Appends the display text of one row to the builder.
+         *
+         * @param index The row position.
+         * @param out   The builder to append to.
+         */
+        public void formatRow(int index, StringBuilder out) {
+            User.HelpArticle article = get(index);
+            out.append(index + 1).append(". Title: ").append(article.getTitle())
+               .append(", Author: ").append(article.getAuthor())
+               .append(", Abstract: ").append(article.getDescription());
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+    }
+}
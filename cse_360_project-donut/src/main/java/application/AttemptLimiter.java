@@ -0,0 +1,205 @@
+package application;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts failed attempts per key (a username or a source address) over a
+ * sliding window and tells whether a key is over its limit.
+ *
+ * Every key with a recent failure has its own exact count, so failures on
+ * other keys never push a key over its limit, however many distinct keys an
+ * attacker sprays. Each count is a ring of time buckets. Memory is bounded by
+ * maxKeys: when more keys than that are tracked, keys whose failures have
+ * left the window are dropped first, then the keys whose last failure is
+ * oldest. A key under active attack keeps failing and so stays tracked.
+ * Checking a key that has no failures does not track it.
+ */
+public class AttemptLimiter {
+
+    /** Keys tracked at most, unless the constructor is given another bound. */
+    public static final int DEFAULT_MAX_KEYS = 100_000;
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int maxAttempts;
+    private final int buckets;
+    private final long bucketMillis;
+    private final int maxKeys;
+    private final LongSupplier clock;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final ReentrantLock pruneLock = new ReentrantLock();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * @param maxAttempts  Failed attempts allowed per key within the window.
+     * @param windowMillis Length of the sliding window.
+     * @param buckets      Number of time buckets the window is divided into.
+     */
+    public AttemptLimiter(int maxAttempts, long windowMillis, int buckets) {
+        this(maxAttempts, windowMillis, buckets, DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * @param maxAttempts  Failed attempts allowed per key within the window.
+     * @param windowMillis Length of the sliding window.
+     * @param buckets      Number of time buckets the window is divided into.
+     * @param maxKeys      Keys tracked at most; size it to the distinct keys expected to fail within one window.
+     */
+    public AttemptLimiter(int maxAttempts, long windowMillis, int buckets, int maxKeys) {
+        this(maxAttempts, windowMillis, buckets, maxKeys, System::currentTimeMillis);
+    }
+
+    // Constructor with a replaceable clock, for tests
+    AttemptLimiter(int maxAttempts, long windowMillis, int buckets, int maxKeys, LongSupplier clock) {
+        if (maxAttempts <= 0 || buckets <= 0 || windowMillis < buckets || maxKeys <= 0) {
+            throw new IllegalArgumentException("Invalid attempt limit: " + maxAttempts + " per " + windowMillis + " ms");
+        }
+        this.maxAttempts = Math.min(maxAttempts, (int) COUNT_MASK);
+        this.buckets = buckets;
+        this.bucketMillis = windowMillis / buckets;
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks whether a key may make another attempt, counting a rejection if
+     * it may not. Does not record an attempt.
+     *
+     * @param key The username or source, or null to always allow.
+     * @return True if the key is under its limit.
+     */
+    public boolean tryAcquire(String key) {
+        if (key == null || count(key) < maxAttempts) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Records a failed attempt for a key.
+     *
+     * @param key The username or source; null is ignored.
+     * @return The key's failed attempts in the window, including this one.
+     */
+    public int recordFailure(String key) {
+        if (key == null) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        Window window = windows.computeIfAbsent(key, k -> new Window(buckets));
+        int total = window.increment(now / bucketMillis, now);
+        recorded.increment();
+        if (windows.size() > maxKeys) {
+            prune(now);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of failed attempts recorded for a key in the window.
+     */
+    public int count(String key) {
+        Window window = windows.get(key);
+        return window != null ? window.sum(clock.getAsLong() / bucketMillis) : 0;
+    }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public int getTrackedKeys() { return windows.size(); }
+    public long getRecordedFailures() { return recorded.sum(); }
+    public long getRejectedAttempts() { return rejected.sum(); }
+    public long getEvictedKeys() { return evicted.sum(); }
+
+    // Brings the map back to at most 7/8 of maxKeys, dropping expired keys first and then the longest idle
+    private void prune(long now) {
+        if (!pruneLock.tryLock()) {
+            return; // Another thread is already pruning
+        }
+        try {
+            int target = maxKeys - maxKeys / 8;
+            for (Iterator<Window> it = windows.values().iterator(); it.hasNext(); ) {
+                if (now - it.next().lastFailure() >= bucketMillis * buckets) {
+                    it.remove();
+                }
+            }
+            int excess = windows.size() - target;
+            if (excess <= 0) {
+                return;
+            }
+            // Every remaining key failed within the window; drop those idle longest
+            long[] lastFailures = new long[windows.size()];
+            int n = 0;
+            for (Window window : windows.values()) {
+                if (n == lastFailures.length) {
+                    break; // Keys added meanwhile are the newest anyway
+                }
+                lastFailures[n++] = window.lastFailure();
+            }
+            Arrays.sort(lastFailures, 0, n);
+            long cutoff = lastFailures[Math.min(excess, n) - 1];
+            int removed = 0;
+            for (Iterator<Window> it = windows.values().iterator(); it.hasNext() && removed < excess; ) {
+                if (it.next().lastFailure() <= cutoff) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            evicted.add(removed);
+            EventLog.warn("auth.limiter_full", "evicted", removed, "tracked", windows.size());
+        } finally {
+            pruneLock.unlock();
+        }
+    }
+
+    /**
+     * The failures of one key: a ring of buckets, each holding its epoch in
+     * the high bits and its count in the low bits.
+     */
+    private static final class Window {
+        private final long[] slots;
+        private volatile long lastFailure; // Clock time of the latest failure
+
+        Window(int buckets) {
+            this.slots = new long[buckets];
+        }
+
+        // Adds one to the current bucket and returns the window total
+        synchronized int increment(long epoch, long now) {
+            int slot = (int) (epoch % slots.length);
+            long current = slots[slot];
+            if ((current >>> COUNT_BITS) != epoch) {
+                slots[slot] = (epoch << COUNT_BITS) | 1; // The bucket held an expired epoch; start it over
+            } else if ((current & COUNT_MASK) != COUNT_MASK) {
+                slots[slot] = current + 1; // Otherwise saturated; the key is far over any limit already
+            }
+            lastFailure = now;
+            return sum(epoch);
+        }
+
+        // Sums the buckets that fall inside the window ending at epoch
+        synchronized int sum(long epoch) {
+            int total = 0;
+            for (long value : slots) {
+                if (epoch - (value >>> COUNT_BITS) < slots.length) {
+                    total += (int) (value & COUNT_MASK);
+                }
+            }
+            return total;
+        }
+
+        long lastFailure() {
+            return lastFailure;
+        }
+    }
+}
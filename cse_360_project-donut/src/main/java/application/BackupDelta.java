@@ -0,0 +1,37 @@
+package application;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An incremental backup: the help articles created or updated and the ids of the
+ * articles deleted between two checkpoints. A full backup followed by a chain of
+ * deltas, each starting at the previous one's checkpoint, reproduces the corpus.
+ */
+public class BackupDelta implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long baseCheckpoint; // Changes strictly after this stamp are included
+    private long checkpoint; // Stamp at which the delta was taken
+    // Declared as List to keep the stream form of older deltas; the constructor always stores an ArrayList
+    @SuppressWarnings("serial")
+    private List<User.HelpArticle> changedArticles;
+    private long[] deletedIds;
+
+    public BackupDelta(long baseCheckpoint, long checkpoint, List<User.HelpArticle> changedArticles, long[] deletedIds) {
+        this.baseCheckpoint = baseCheckpoint;
+        this.checkpoint = checkpoint;
+        this.changedArticles = new ArrayList<>(changedArticles);
+        this.deletedIds = deletedIds;
+    }
+
+    public long getBaseCheckpoint() { return baseCheckpoint; }
+
+    public long getCheckpoint() { return checkpoint; }
+
+    public List<User.HelpArticle> getChangedArticles() { return changedArticles; }
+
+    public long[] getDeletedIds() { return deletedIds; }
+}
@@ -0,0 +1,503 @@
+package application;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, versioned binary encoding for users and help articles, used instead of
+ * Java serialization.
+ *
+ * A payload starts with the layout version, the record kind and a string table
+ * holding every group, keyword, level, role, topic and author name once; records
+ * refer to those names by index. Every field is prefixed with a tag (field number
+ * and wire type) and a record ends with a zero tag, so a decoder skips fields it
+ * does not know. New fields therefore only need a new field number; the layout
+ * version changes only if the payload structure itself changes.
+ */
+public class BinaryCodec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int KIND_ARTICLES = 1;
+    private static final int KIND_USERS = 2;
+
+    // Wire types
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_BYTES = 1; // Varint length followed by the bytes
+    private static final int WIRE_SYMBOL = 2; // Varint index into the string table
+
+    // Help article fields
+    private static final int ARTICLE_ID = 1;
+    private static final int ARTICLE_TITLE = 2;
+    private static final int ARTICLE_DESCRIPTION = 3;
+    private static final int ARTICLE_KEYWORD = 4; // Repeated
+    private static final int ARTICLE_BODY = 5;
+    private static final int ARTICLE_LINK = 6; // Repeated
+    private static final int ARTICLE_GROUP = 7; // Repeated
+    private static final int ARTICLE_LEVEL = 8;
+    private static final int ARTICLE_AUTHOR = 9;
+    private static final int ARTICLE_LAST_MODIFIED = 10;
+
+    // User fields
+    private static final int USER_USERNAME = 1;
+    private static final int USER_PASSWORD = 2;
+    private static final int USER_ROLE = 3;
+    private static final int USER_EMAIL = 4;
+    private static final int USER_FIRST_NAME = 5;
+    private static final int USER_MIDDLE_NAME = 6;
+    private static final int USER_LAST_NAME = 7;
+    private static final int USER_PREFERRED_NAME = 8;
+    private static final int USER_ONE_TIME_PASSWORD = 9;
+    private static final int USER_OTP_EXPIRY = 10;
+    private static final int USER_SETUP_COMPLETE = 11;
+    private static final int USER_TOPIC = 12; // Repeated, nested (topic symbol, level symbol)
+    private static final int USER_GROUP_NAME = 13; // Repeated
+    private static final int USER_MESSAGE = 14; // Repeated
+    private static final int USER_ARTICLE = 15; // Repeated, nested article record
+
+    /**
+     * Encodes a list of help articles.
+     *
+     * @param articles The articles to encode.
+     * @return The encoded payload.
+     */
+    public static byte[] encodeArticles(List<User.HelpArticle> articles) {
+        Encoder encoder = new Encoder();
+        for (User.HelpArticle article : articles) {
+            encoder.writeArticle(encoder.body, article);
+        }
+        return encoder.finish(KIND_ARTICLES, articles.size());
+    }
+
+    /**
+     * Decodes a payload produced by encodeArticles.
+     *
+     * @param payload The encoded payload.
+     * @return The decoded articles.
+     * @throws IOException If the payload is malformed or of an unsupported version.
+     */
+    public static List<User.HelpArticle> decodeArticles(byte[] payload) throws IOException {
+        Decoder decoder = new Decoder(payload, KIND_ARTICLES);
+        List<User.HelpArticle> articles = new ArrayList<>(decoder.recordCount);
+        for (int i = 0; i < decoder.recordCount; i++) {
+            articles.add(decoder.readArticle(decoder.in));
+        }
+        return articles;
+    }
+
+    /**
+     * Encodes a list of users, including their help articles.
+     *
+     * @param users The users to encode.
+     * @return The encoded payload.
+     */
+    public static byte[] encodeUsers(List<User> users) {
+        Encoder encoder = new Encoder();
+        for (User user : users) {
+            encoder.writeUser(user);
+        }
+        return encoder.finish(KIND_USERS, users.size());
+    }
+
+    /**
+     * Decodes a payload produced by encodeUsers.
+     *
+     * @param payload The encoded payload.
+     * @return The decoded users.
+     * @throws IOException If the payload is malformed or of an unsupported version.
+     */
+    public static List<User> decodeUsers(byte[] payload) throws IOException {
+        Decoder decoder = new Decoder(payload, KIND_USERS);
+        List<User> users = new ArrayList<>(decoder.recordCount);
+        for (int i = 0; i < decoder.recordCount; i++) {
+            users.add(decoder.readUser());
+        }
+        return users;
+    }
+
+    public static byte[] encodeUser(User user) {
+        return encodeUsers(List.of(user));
+    }
+
+    public static User decodeUser(byte[] payload) throws IOException {
+        List<User> users = decodeUsers(payload);
+        if (users.size() != 1) {
+            throw new IOException("Expected one user, found " + users.size());
+        }
+        return users.get(0);
+    }
+
+    // Growable output buffer with varint helpers
+    private static final class Output {
+        private byte[] buf = new byte[256];
+        private int pos;
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            writeVarint(length);
+            ensure(length);
+            System.arraycopy(bytes, offset, buf, pos, length);
+            pos += length;
+        }
+
+        void writeTag(int field, int wireType) {
+            writeVarint((field << 3) | wireType);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+
+    // Writes records into a body buffer while building the string table
+    private static final class Encoder {
+        private final Output body = new Output();
+        private final Map<String, Integer> symbols = new HashMap<>();
+        private final List<String> table = new ArrayList<>();
+
+        private int symbol(String value) {
+            Integer index = symbols.get(value);
+            if (index == null) {
+                index = table.size();
+                symbols.put(value, index);
+                table.add(value);
+            }
+            return index;
+        }
+
+        private void writeSymbol(Output out, int field, String value) {
+            if (value != null) {
+                out.writeTag(field, WIRE_SYMBOL);
+                out.writeVarint(symbol(value));
+            }
+        }
+
+        private void writeSymbols(Output out, int field, List<String> values) {
+            if (values != null) {
+                for (String value : values) {
+                    writeSymbol(out, field, value);
+                }
+            }
+        }
+
+        private void writeString(Output out, int field, String value) {
+            if (value != null) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeTag(field, WIRE_BYTES);
+                out.writeBytes(bytes, 0, bytes.length);
+            }
+        }
+
+        private void writeBytesField(Output out, int field, byte[] value) {
+            if (value != null) {
+                out.writeTag(field, WIRE_BYTES);
+                out.writeBytes(value, 0, value.length);
+            }
+        }
+
+        private void writeVarintField(Output out, int field, long value) {
+            out.writeTag(field, WIRE_VARINT);
+            out.writeVarint(value);
+        }
+
+        void writeArticle(Output out, User.HelpArticle article) {
+            writeVarintField(out, ARTICLE_ID, article.getId());
+            writeString(out, ARTICLE_TITLE, article.getTitle());
+            writeString(out, ARTICLE_DESCRIPTION, article.getDescription());
+            writeSymbols(out, ARTICLE_KEYWORD, article.getKeywords());
+            writeBytesField(out, ARTICLE_BODY, article.getStoredBody());
+            if (article.getLinks() != null) {
+                for (String link : article.getLinks()) {
+                    writeString(out, ARTICLE_LINK, link);
+                }
+            }
+            writeSymbols(out, ARTICLE_GROUP, article.getGroups());
+            writeSymbol(out, ARTICLE_LEVEL, article.getLevel());
+            writeSymbol(out, ARTICLE_AUTHOR, article.getAuthor());
+            writeVarintField(out, ARTICLE_LAST_MODIFIED, article.getLastModified());
+            out.writeVarint(0); // End of record
+        }
+
+        void writeUser(User user) {
+            Output out = body;
+            writeString(out, USER_USERNAME, user.getUsername());
+            writeBytesField(out, USER_PASSWORD, user.getPassword());
+            writeSymbol(out, USER_ROLE, user.getRole());
+            writeString(out, USER_EMAIL, user.getEmail());
+            writeString(out, USER_FIRST_NAME, user.getFirstName());
+            writeString(out, USER_MIDDLE_NAME, user.getMiddleName());
+            writeString(out, USER_LAST_NAME, user.getLastName());
+            writeString(out, USER_PREFERRED_NAME, user.getPreferredName());
+            writeVarintField(out, USER_ONE_TIME_PASSWORD, user.isOneTimePassword() ? 1 : 0);
+            if (user.getOtpExpiry() != null) {
+                writeString(out, USER_OTP_EXPIRY, user.getOtpExpiry().toString());
+            }
+            writeVarintField(out, USER_SETUP_COMPLETE, user.isAccountSetupComplete() ? 1 : 0);
+            for (Map.Entry<String, String> topic : user.getTopics().entrySet()) {
+                Output nested = new Output();
+                nested.writeVarint(symbol(topic.getKey()));
+                nested.writeVarint(symbol(topic.getValue()));
+                out.writeTag(USER_TOPIC, WIRE_BYTES);
+                out.writeBytes(nested.buf, 0, nested.pos);
+            }
+            for (String groupName : user.getGroupNames()) {
+                writeSymbol(out, USER_GROUP_NAME, groupName);
+            }
+            for (String message : user.getSentMessages()) {
+                writeString(out, USER_MESSAGE, message);
+            }
+            for (User.HelpArticle article : user.getAllHelpArticles()) {
+                Output nested = new Output();
+                writeArticle(nested, article);
+                out.writeTag(USER_ARTICLE, WIRE_BYTES);
+                out.writeBytes(nested.buf, 0, nested.pos);
+            }
+            out.writeVarint(0); // End of record
+        }
+
+        byte[] finish(int kind, int recordCount) {
+            Output out = new Output();
+            out.writeVarint(FORMAT_VERSION);
+            out.writeVarint(kind);
+            out.writeVarint(table.size());
+            for (String value : table) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeBytes(bytes, 0, bytes.length);
+            }
+            out.writeVarint(recordCount);
+            out.ensure(body.pos);
+            System.arraycopy(body.buf, 0, out.buf, out.pos, body.pos);
+            out.pos += body.pos;
+            return out.toByteArray();
+        }
+    }
+
+    // Bounded reader over part of a payload
+    private static final class Input {
+        private final byte[] buf;
+        private int pos;
+        private final int limit;
+
+        Input(byte[] buf, int pos, int limit) {
+            this.buf = buf;
+            this.pos = pos;
+            this.limit = limit;
+        }
+
+        long readVarint() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= limit) {
+                    throw new EOFException("Truncated varint");
+                }
+                byte b = buf[pos++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        int readLength() throws IOException {
+            long length = readVarint();
+            if (length < 0 || length > limit - pos) {
+                throw new EOFException("Length " + length + " exceeds payload");
+            }
+            return (int) length;
+        }
+
+        byte[] readBytes() throws IOException {
+            int length = readLength();
+            byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        String readString() throws IOException {
+            int length = readLength();
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        Input readNested() throws IOException {
+            int length = readLength();
+            Input nested = new Input(buf, pos, pos + length);
+            pos += length;
+            return nested;
+        }
+
+        void skip(int wireType) throws IOException {
+            switch (wireType) {
+                case WIRE_VARINT:
+                case WIRE_SYMBOL:
+                    readVarint();
+                    break;
+                case WIRE_BYTES:
+                    pos += readLength();
+                    break;
+                default:
+                    throw new IOException("Unknown wire type " + wireType);
+            }
+        }
+    }
+
+    // Reads the header and string table, then records on demand
+    private static final class Decoder {
+        private final Input in;
+        private final String[] table;
+        private final int recordCount;
+
+        Decoder(byte[] payload, int expectedKind) throws IOException {
+            in = new Input(payload, 0, payload.length);
+            long version = in.readVarint();
+            if (version > FORMAT_VERSION) {
+                throw new IOException("Unsupported codec version " + version);
+            }
+            long kind = in.readVarint();
+            if (kind != expectedKind) {
+                throw new IOException("Unexpected record kind " + kind);
+            }
+            int symbols = (int) in.readVarint();
+            if (symbols < 0 || symbols > payload.length) {
+                throw new IOException("Corrupt string table");
+            }
+            table = new String[symbols];
+            for (int i = 0; i < symbols; i++) {
+                table[i] = in.readString();
+            }
+            recordCount = (int) in.readVarint();
+        }
+
+        private String symbol(Input input) throws IOException {
+            long index = input.readVarint();
+            if (index < 0 || index >= table.length) {
+                throw new IOException("String table index out of range: " + index);
+            }
+            return table[(int) index];
+        }
+
+        User.HelpArticle readArticle(Input input) throws IOException {
+            long id = 0;
+            long lastModified = 0;
+            String title = null;
+            String description = null;
+            String level = null;
+            String author = null;
+            byte[] body = null;
+            List<String> keywords = new ArrayList<>();
+            List<String> links = new ArrayList<>();
+            List<String> groups = new ArrayList<>();
+            while (true) {
+                int tag = (int) input.readVarint();
+                if (tag == 0) {
+                    break;
+                }
+                int field = tag >>> 3;
+                int wireType = tag & 7;
+                if (field == ARTICLE_ID && wireType == WIRE_VARINT) {
+                    id = input.readVarint();
+                } else if (field == ARTICLE_TITLE && wireType == WIRE_BYTES) {
+                    title = input.readString();
+                } else if (field == ARTICLE_DESCRIPTION && wireType == WIRE_BYTES) {
+                    description = input.readString();
+                } else if (field == ARTICLE_KEYWORD && wireType == WIRE_SYMBOL) {
+                    keywords.add(symbol(input));
+                } else if (field == ARTICLE_BODY && wireType == WIRE_BYTES) {
+                    body = input.readBytes();
+                } else if (field == ARTICLE_LINK && wireType == WIRE_BYTES) {
+                    links.add(input.readString());
+                } else if (field == ARTICLE_GROUP && wireType == WIRE_SYMBOL) {
+                    groups.add(symbol(input));
+                } else if (field == ARTICLE_LEVEL && wireType == WIRE_SYMBOL) {
+                    level = symbol(input);
+                } else if (field == ARTICLE_AUTHOR && wireType == WIRE_SYMBOL) {
+                    author = symbol(input);
+                } else if (field == ARTICLE_LAST_MODIFIED && wireType == WIRE_VARINT) {
+                    lastModified = input.readVarint();
+                } else {
+                    input.skip(wireType); // Field from a newer writer
+                }
+            }
+            return User.HelpArticle.fromStored(id, title, description, keywords, body, links, groups, level, author, lastModified);
+        }
+
+        User readUser() throws IOException {
+            String username = null;
+            byte[] password = null;
+            String role = null;
+            User user = new User(null, null, null);
+            user.getTopics().clear();
+            List<User.HelpArticle> articles = new ArrayList<>();
+            while (true) {
+                int tag = (int) in.readVarint();
+                if (tag == 0) {
+                    break;
+                }
+                int field = tag >>> 3;
+                int wireType = tag & 7;
+                if (field == USER_USERNAME && wireType == WIRE_BYTES) {
+                    username = in.readString();
+                } else if (field == USER_PASSWORD && wireType == WIRE_BYTES) {
+                    password = in.readBytes();
+                } else if (field == USER_ROLE && wireType == WIRE_SYMBOL) {
+                    role = symbol(in);
+                } else if (field == USER_EMAIL && wireType == WIRE_BYTES) {
+                    user.setEmail(in.readString());
+                } else if (field == USER_FIRST_NAME && wireType == WIRE_BYTES) {
+                    user.setFirstName(in.readString());
+                } else if (field == USER_MIDDLE_NAME && wireType == WIRE_BYTES) {
+                    user.setMiddleName(in.readString());
+                } else if (field == USER_LAST_NAME && wireType == WIRE_BYTES) {
+                    user.setLastName(in.readString());
+                } else if (field == USER_PREFERRED_NAME && wireType == WIRE_BYTES) {
+                    user.setPreferredName(in.readString());
+                } else if (field == USER_ONE_TIME_PASSWORD && wireType == WIRE_VARINT) {
+                    user.setOneTimePassword(in.readVarint() != 0);
+                } else if (field == USER_OTP_EXPIRY && wireType == WIRE_BYTES) {
+                    user.setOtpExpiry(LocalDateTime.parse(in.readString()));
+                } else if (field == USER_SETUP_COMPLETE && wireType == WIRE_VARINT) {
+                    user.setAccountSetupComplete(in.readVarint() != 0);
+                } else if (field == USER_TOPIC && wireType == WIRE_BYTES) {
+                    Input nested = in.readNested();
+                    user.setTopicProficiency(symbol(nested), symbol(nested));
+                } else if (field == USER_GROUP_NAME && wireType == WIRE_SYMBOL) {
+                    user.addGroupName(symbol(in));
+                } else if (field == USER_MESSAGE && wireType == WIRE_BYTES) {
+                    user.getSentMessages().add(in.readString());
+                } else if (field == USER_ARTICLE && wireType == WIRE_BYTES) {
+                    articles.add(readArticle(in.readNested()));
+                } else {
+                    in.skip(wireType); // Field from a newer writer
+                }
+            }
+            user.setUsername(username);
+            user.setPassword(password);
+            user.setRole(role);
+            user.replaceAllHelpArticles(articles);
+            return user;
+        }
+    }
+}
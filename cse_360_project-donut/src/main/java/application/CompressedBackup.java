@@ -0,0 +1,386 @@
+package application;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Block-compressed backup file format for help articles.
+ *
+ * Articles are split into fixed-size blocks that are encoded with BinaryCodec
+ * and deflated independently, so blocks are encoded and decoded in parallel.
+ * A block index at the end of the file lets a reader seek straight to any block.
+ *
+ * Layout: header (magic, version, checkpoint), compressed blocks, index (offset,
+ * lengths, article count and id range per block), trailer (index offset, magic).
+ * The checkpoint is the one an incremental backup taken after this file must
+ * start from; files written before version 3 have no checkpoint.
+ */
+public class CompressedBackup {
+
+    public static final int MAGIC = 0x444E5442; // "DNTB"
+    /** Checkpoint of a backup that does not record one. */
+    public static final long NO_CHECKPOINT = -1;
+    public static final int DEFAULT_BLOCK_ARTICLES = 256;
+
+    // 1: Java-serialized blocks, 2: BinaryCodec blocks, 3: BinaryCodec blocks and a checkpoint in the header
+    private static final byte FORMAT_VERSION = 3;
+    private static final int HEADER_SIZE = 13;
+    private static final int LEGACY_HEADER_SIZE = 5; // Versions 1 and 2: magic and version only
+    private static final int TRAILER_SIZE = 12;
+    // Blocks being encoded or waiting to be written at once; bounds the memory a large backup needs
+    private static final int MAX_BLOCKS_IN_FLIGHT = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Describes one compressed block in the index.
+     */
+    public static class BlockInfo {
+        private final long offset;
+        private final int compressedLength;
+        private final int rawLength;
+        private final int articleCount;
+        private final long firstId;
+        private final long lastId;
+        private byte formatVersion = FORMAT_VERSION; // Encoding of the block contents
+
+        BlockInfo(long offset, int compressedLength, int rawLength, int articleCount, long firstId, long lastId) {
+            this.offset = offset;
+            this.compressedLength = compressedLength;
+            this.rawLength = rawLength;
+            this.articleCount = articleCount;
+            this.firstId = firstId;
+            this.lastId = lastId;
+        }
+
+        public long getOffset() { return offset; }
+        public int getCompressedLength() { return compressedLength; }
+        public int getRawLength() { return rawLength; }
+        public int getArticleCount() { return articleCount; }
+        public long getFirstId() { return firstId; }
+        public long getLastId() { return lastId; }
+    }
+
+    // An encoded block waiting to be written
+    private static class EncodedBlock {
+        final byte[] compressed;
+        final int rawLength;
+        final int articleCount;
+        final long firstId;
+        final long lastId;
+
+        EncodedBlock(byte[] compressed, int rawLength, int articleCount, long firstId, long lastId) {
+            this.compressed = compressed;
+            this.rawLength = rawLength;
+            this.articleCount = articleCount;
+            this.firstId = firstId;
+            this.lastId = lastId;
+        }
+    }
+
+    /**
+     * Writes articles using the default block size, without a checkpoint.
+     *
+     * @param file     The file to write.
+     * @param articles The articles to back up.
+     * @throws IOException If writing fails.
+     */
+    public static void write(Path file, List<User.HelpArticle> articles) throws IOException {
+        write(file, articles, DEFAULT_BLOCK_ARTICLES, NO_CHECKPOINT);
+    }
+
+    /**
+     * Writes articles in blocks of the given size, without a checkpoint.
+     *
+     * @param file          The file to write.
+     * @param articles      The articles to back up.
+     * @param blockArticles Number of articles per block.
+     * @throws IOException If writing fails.
+     */
+    public static void write(Path file, List<User.HelpArticle> articles, int blockArticles) throws IOException {
+        write(file, articles, blockArticles, NO_CHECKPOINT);
+    }
+
+    /**
+     * Writes articles in blocks of the given size, compressing blocks in parallel.
+     * Blocks are written in order as soon as each one is ready, and a new block
+     * is started only when one is written, so only a few encoded blocks are held
+     * in memory at any time, however large the backup.
+     *
+     * @param file          The file to write.
+     * @param articles      The articles to back up.
+     * @param blockArticles Number of articles per block.
+     * @param checkpoint    Checkpoint the backup was taken at, or NO_CHECKPOINT.
+     * @throws IOException If writing fails.
+     */
+    public static void write(Path file, List<User.HelpArticle> articles, int blockArticles, long checkpoint)
+            throws IOException {
+        if (blockArticles <= 0) {
+            throw new IllegalArgumentException("Invalid block size: " + blockArticles);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).put(FORMAT_VERSION).putLong(checkpoint).flip();
+            writeFully(channel, header);
+
+            List<BlockInfo> index = new ArrayList<>();
+            long offset = HEADER_SIZE;
+            Deque<CompletableFuture<EncodedBlock>> pendingBlocks = new ArrayDeque<>();
+            int next = 0; // Start of the next slice to submit
+            while (next < articles.size() || !pendingBlocks.isEmpty()) {
+                // Keep the window full, then write the oldest block once it is ready
+                while (next < articles.size() && pendingBlocks.size() < MAX_BLOCKS_IN_FLIGHT) {
+                    List<User.HelpArticle> slice = articles.subList(next, Math.min(next + blockArticles, articles.size()));
+                    pendingBlocks.addLast(CompletableFuture.supplyAsync(() -> encodeBlock(slice)));
+                    next += slice.size();
+                }
+                EncodedBlock block = join(pendingBlocks.removeFirst());
+                writeFully(channel, ByteBuffer.wrap(block.compressed));
+                index.add(new BlockInfo(offset, block.compressed.length, block.rawLength,
+                        block.articleCount, block.firstId, block.lastId));
+                offset += block.compressed.length;
+            }
+
+            ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(indexBytes);
+            out.writeInt(index.size());
+            for (BlockInfo info : index) {
+                out.writeLong(info.offset);
+                out.writeInt(info.compressedLength);
+                out.writeInt(info.rawLength);
+                out.writeInt(info.articleCount);
+                out.writeLong(info.firstId);
+                out.writeLong(info.lastId);
+            }
+            out.writeLong(offset); // Trailer: where the index starts
+            out.writeInt(MAGIC);
+            out.flush();
+            writeFully(channel, ByteBuffer.wrap(indexBytes.toByteArray()));
+        }
+    }
+
+    /**
+     * Checks whether a file starts with this format's magic number.
+     *
+     * @param file The file to check.
+     * @return True if the file is a compressed backup.
+     */
+    public static boolean isCompressedBackup(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Keep reading until four bytes or end of file
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the checkpoint recorded in the header.
+     *
+     * @param file The backup file.
+     * @return The checkpoint, or NO_CHECKPOINT if the file predates checkpoints or was written without one.
+     * @throws IOException If the file is not a valid compressed backup.
+     */
+    public static long readCheckpoint(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readAt(channel, 0, LEGACY_HEADER_SIZE);
+            byte version = readVersion(header);
+            if (version < 3) {
+                return NO_CHECKPOINT;
+            }
+            return readAt(channel, LEGACY_HEADER_SIZE, Long.BYTES).getLong();
+        }
+    }
+
+    /**
+     * Reads the block index without decoding any block.
+     *
+     * @param file The backup file.
+     * @return The block index, in file order.
+     * @throws IOException If the file is not a valid compressed backup.
+     */
+    public static List<BlockInfo> readIndex(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readIndex(channel);
+        }
+    }
+
+    /**
+     * Reads every article, decoding blocks in parallel.
+     *
+     * @param file The backup file.
+     * @return The articles in their original order.
+     * @throws IOException If the file cannot be read or decoded.
+     */
+    public static List<User.HelpArticle> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<BlockInfo> index = readIndex(channel);
+            List<CompletableFuture<List<User.HelpArticle>>> pendingBlocks = new ArrayList<>();
+            for (BlockInfo info : index) {
+                // Positional reads on a FileChannel are safe from several threads
+                pendingBlocks.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return decodeBlock(channel, info);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            List<User.HelpArticle> articles = new ArrayList<>();
+            for (CompletableFuture<List<User.HelpArticle>> pending : pendingBlocks) {
+                articles.addAll(join(pending));
+            }
+            return articles;
+        }
+    }
+
+    /**
+     * Reads a single block, seeking directly to it through the index.
+     *
+     * @param file       The backup file.
+     * @param blockIndex Position of the block in the index.
+     * @return The articles stored in that block.
+     * @throws IOException If the file cannot be read or decoded.
+     */
+    public static List<User.HelpArticle> readBlock(Path file, int blockIndex) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<BlockInfo> index = readIndex(channel);
+            return decodeBlock(channel, index.get(blockIndex));
+        }
+    }
+
+    private static List<BlockInfo> readIndex(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < LEGACY_HEADER_SIZE + TRAILER_SIZE) {
+            throw new IOException("File too short for a compressed backup");
+        }
+        byte version = readVersion(readAt(channel, 0, LEGACY_HEADER_SIZE));
+        int headerSize = version >= 3 ? HEADER_SIZE : LEGACY_HEADER_SIZE;
+        ByteBuffer trailer = readAt(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+        long indexOffset = trailer.getLong();
+        if (trailer.getInt() != MAGIC || indexOffset < headerSize || indexOffset > size - TRAILER_SIZE) {
+            throw new IOException("Corrupt compressed backup trailer");
+        }
+        ByteBuffer indexBytes = readAt(channel, indexOffset, (int) (size - TRAILER_SIZE - indexOffset));
+        int count = indexBytes.getInt();
+        List<BlockInfo> index = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BlockInfo info = new BlockInfo(indexBytes.getLong(), indexBytes.getInt(), indexBytes.getInt(),
+                    indexBytes.getInt(), indexBytes.getLong(), indexBytes.getLong());
+            info.formatVersion = version;
+            index.add(info);
+        }
+        return index;
+    }
+
+    // Checks the magic number and returns the format version
+    private static byte readVersion(ByteBuffer header) throws IOException {
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a compressed backup");
+        }
+        byte version = header.get();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported compressed backup version: " + version);
+        }
+        return version;
+    }
+
+    private static EncodedBlock encodeBlock(List<User.HelpArticle> slice) {
+        byte[] rawBytes = BinaryCodec.encodeArticles(slice);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(rawBytes);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(rawBytes.length / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                compressed.write(buffer, 0, n);
+            }
+            return new EncodedBlock(compressed.toByteArray(), rawBytes.length, slice.size(),
+                    slice.get(0).getId(), slice.get(slice.size() - 1).getId());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<User.HelpArticle> decodeBlock(FileChannel channel, BlockInfo info) throws IOException {
+        ByteBuffer compressed = readAt(channel, info.offset, info.compressedLength);
+        byte[] rawBytes = new byte[info.rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array(), 0, info.compressedLength);
+            int filled = 0;
+            while (filled < rawBytes.length && !inflater.finished()) {
+                int n = inflater.inflate(rawBytes, filled, rawBytes.length - filled);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new EOFException("Truncated compressed block");
+                }
+                filled += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed block: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+        if (info.formatVersion >= 2) {
+            return BinaryCodec.decodeArticles(rawBytes);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(rawBytes))) {
+            return (List<User.HelpArticle>) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in compressed block: " + e.getMessage(), e);
+        }
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                throw new EOFException("Unexpected end of compressed backup");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Waits for a block task, surfacing I/O failures as IOException
+    private static <T> T join(CompletableFuture<T> pending) throws IOException {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+}
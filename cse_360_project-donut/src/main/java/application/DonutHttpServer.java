@@ -0,0 +1,352 @@
+package application;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves DonutService as JSON over HTTP using the JDK's built-in server, so
+ * the help system can run without JavaFX and be driven by a load generator.
+ * Requests run on the service's RequestExecutor: one virtual thread each by
+ * default, or a platform thread pool when configured for comparison.
+ *
+ * The server listens on the loopback interface unless given another address,
+ * so the API is not reachable from other hosts by default.
+ *
+ * Clients log in with POST /api/login and send the returned token as
+ * "Authorization: Bearer <token>". Endpoints:
+ *
+ *   POST   /api/login                   {username, password} -> {token}
+ *   POST   /api/logout
+ *   GET    /api/articles?q=&group=&level=
+ *   GET    /api/articles?q=&groups=a,b,c&level=   -> {group: [articles]}, groups searched in parallel
+ *   POST   /api/articles                {title, description, keywords, body, links, groups, level}
+ *   GET    /api/articles/{id}
+ *   PATCH  /api/articles/{id}           any article fields
+ *   DELETE /api/articles/{id}
+ *   GET    /api/groups
+ *   POST   /api/groups                  {name, specialAccess}
+ *   POST   /api/groups/{name}/members   {username}
+ *   GET    /api/messages?after=
+ *   POST   /api/messages                {recipient, content}
+ */
+public class DonutHttpServer {
+
+    private static final int MAX_BODY_BYTES = 16 * 1024 * 1024;
+
+    private final DonutService service;
+    private final HttpServer server;
+
+    /**
+     * Creates a server on the loopback interface; call start() to accept requests.
+     *
+     * @param service The service to expose.
+     * @param port    The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public DonutHttpServer(DonutService service, int port) throws IOException {
+        this(service, InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Creates a server on the given address; call start() to accept requests.
+     *
+     * @param service The service to expose.
+     * @param address The address to listen on; the wildcard address listens on every interface.
+     * @param port    The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public DonutHttpServer(DonutService service, InetAddress address, int port) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        server.setExecutor(service.getExecutor().requests());
+        server.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+        EventLog.info("http.started", "address", getAddress().getAddress().getHostAddress(), "port", getPort());
+    }
+
+    /**
+     * Stops accepting requests and waits up to a second for running ones.
+     * The service's executor is left running.
+     */
+    public void stop() {
+        server.stop(1);
+        EventLog.info("http.stopped", "port", getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int status = 200;
+        Object response;
+        try {
+            response = route(exchange);
+        } catch (DonutService.ServiceException e) {
+            status = e.getStatus();
+            response = error(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            status = 400; // Malformed JSON, ids or parameters
+            response = error(e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            response = error("Internal error");
+            EventLog.error("http.failed", "path", exchange.getRequestURI().getPath(), "error", String.valueOf(e));
+        }
+        byte[] body = Json.write(response).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Object route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String token = bearerToken(exchange);
+        String resource = path[0];
+
+        if (resource.equals("login") && method.equals("POST")) {
+            Map<String, Object> body = readBody(exchange);
+            String source = exchange.getRemoteAddress().getAddress().getHostAddress();
+            return Map.of("token", service.login(string(body, "username"), string(body, "password"), source));
+        }
+        if (resource.equals("logout") && method.equals("POST")) {
+            service.logout(token);
+            return Map.of("ok", true);
+        }
+        if (resource.equals("articles")) {
+            if (path.length == 1) {
+                if (method.equals("GET") && query.containsKey("groups")) {
+                    List<String> groups = List.of(query.get("groups").split(","));
+                    Map<String, Object> byGroup = new LinkedHashMap<>();
+                    for (Map.Entry<String, ArticleSearch.Result> entry
+                            : service.searchGroups(token, query.get("q"), groups, query.get("level")).entrySet()) {
+                        byGroup.put(entry.getKey(), searchResults(entry.getValue()));
+                    }
+                    return byGroup;
+                }
+                if (method.equals("GET")) {
+                    return searchResults(service.search(token, query.get("q"), query.get("group"), query.get("level")));
+                }
+                if (method.equals("POST")) {
+                    Map<String, Object> body = readBody(exchange);
+                    User.HelpArticle article = service.createArticle(token, string(body, "title"),
+                            string(body, "description"), strings(body, "keywords"), string(body, "body"),
+                            strings(body, "links"), strings(body, "groups"), string(body, "level"));
+                    return Map.of("id", article.getId());
+                }
+            } else if (path.length == 2) {
+                long id = Long.parseLong(path[1]);
+                switch (method) {
+                    case "GET":
+                        return articleJson(service.getArticle(token, id), service.getArticleBody(token, id));
+                    case "PATCH":
+                        return Map.of("changed", service.updateArticle(token, patch(id, readBody(exchange))));
+                    case "DELETE":
+                        service.deleteArticle(token, id);
+                        return Map.of("ok", true);
+                    default:
+                        break;
+                }
+            }
+        }
+        if (resource.equals("groups")) {
+            if (path.length == 1 && method.equals("GET")) {
+                List<Object> groups = new ArrayList<>();
+                for (Group group : service.listGroups(token)) {
+                    groups.add(Map.of("name", group.getGroupName(), "specialAccess", group.isSpecialAccess()));
+                }
+                return groups;
+            }
+            if (path.length == 1 && method.equals("POST")) {
+                Map<String, Object> body = readBody(exchange);
+                Group group = service.createGroup(token, string(body, "name"), Boolean.TRUE.equals(body.get("specialAccess")));
+                return Map.of("name", group.getGroupName());
+            }
+            if (path.length == 3 && path[2].equals("members") && method.equals("POST")) {
+                service.addUserToGroup(token, decode(path[1]), string(readBody(exchange), "username"));
+                return Map.of("ok", true);
+            }
+        }
+        if (resource.equals("messages")) {
+            if (method.equals("GET")) {
+                long after = query.containsKey("after") ? Long.parseLong(query.get("after")) : 0;
+                List<Object> messages = new ArrayList<>();
+                for (Login.Message message : service.getMessages(token, after)) {
+                    Map<String, Object> json = new LinkedHashMap<>();
+                    json.put("id", message.getId());
+                    json.put("from", message.getUsername());
+                    json.put("to", message.getRecipient());
+                    json.put("content", message.getContent());
+                    json.put("timestamp", String.valueOf(message.getTimestamp()));
+                    messages.add(json);
+                }
+                return messages;
+            }
+            if (method.equals("POST")) {
+                Map<String, Object> body = readBody(exchange);
+                return Map.of("id", service.sendMessage(token, string(body, "recipient"), string(body, "content")).getId());
+            }
+        }
+        throw new DonutService.ServiceException(404, "No endpoint " + method + " " + exchange.getRequestURI().getPath());
+    }
+
+    private static List<Object> searchResults(ArticleSearch.Result result) {
+        List<Object> rows = new ArrayList<>(result.size());
+        for (int i = 0; i < result.size(); i++) {
+            User.HelpArticle article = result.get(i);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", article.getId());
+            row.put("title", article.getTitle());
+            row.put("author", article.getAuthor());
+            row.put("description", article.getDescription());
+            row.put("level", article.getLevel());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Map<String, Object> articleJson(User.HelpArticle article, String body) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", article.getId());
+        json.put("title", article.getTitle());
+        json.put("description", article.getDescription());
+        json.put("keywords", article.getKeywords());
+        json.put("body", body);
+        json.put("links", article.getLinks());
+        json.put("groups", article.getGroups());
+        json.put("level", article.getLevel());
+        json.put("author", article.getAuthor());
+        return json;
+    }
+
+    private static ArticlePatch patch(long id, Map<String, Object> body) {
+        ArticlePatch patch = new ArticlePatch(id);
+        if (body.containsKey("title")) {
+            patch.setTitle(string(body, "title"));
+        }
+        if (body.containsKey("description")) {
+            patch.setDescription(string(body, "description"));
+        }
+        if (body.containsKey("keywords")) {
+            patch.setKeywords(strings(body, "keywords"));
+        }
+        if (body.containsKey("body")) {
+            patch.setBody(string(body, "body"));
+        }
+        if (body.containsKey("links")) {
+            patch.setLinks(strings(body, "links"));
+        }
+        if (body.containsKey("groups")) {
+            patch.setGroups(strings(body, "groups"));
+        }
+        if (body.containsKey("level")) {
+            patch.setLevel(string(body, "level"));
+        }
+        return patch;
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Map.of("error", message != null ? message : "Error");
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new DonutService.ServiceException(413, "Request body too large");
+            }
+            return bytes.length == 0 ? new HashMap<>() : Json.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+            }
+        }
+        return query;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String string(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("'" + name + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    private static List<String> strings(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("'" + name + "' must be an array of strings");
+        }
+        List<String> strings = new ArrayList<>();
+        for (Object element : (List<?>) value) {
+            if (!(element instanceof String)) {
+                throw new IllegalArgumentException("'" + name + "' must be an array of strings");
+            }
+            strings.add((String) element);
+        }
+        return strings;
+    }
+
+    /**
+     * Runs the service headless. Usage: DonutHttpServer [port] [adminUser adminPassword]
+     * The optional admin account is registered at start-up so clients can log in.
+     * Listens on the loopback interface unless the donut.http.bind property names
+     * another address, such as 0.0.0.0 for every interface.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String bind = System.getProperty("donut.http.bind");
+        InetAddress address = bind != null ? InetAddress.getByName(bind) : InetAddress.getLoopbackAddress();
+        Login login = Login.getInstance();
+        if (args.length >= 3) {
+            login.registerUser(args[1], args[2], "Admin", false, null);
+        }
+        DonutHttpServer server = new DonutHttpServer(new DonutService(login), address, port);
+        server.start();
+        System.out.println("Listening on " + server.getAddress());
+    }
+}
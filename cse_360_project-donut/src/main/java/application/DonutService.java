@@ -0,0 +1,318 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Headless entry point to the help system. Every operation after login takes
+ * a session token instead of relying on UI state, checks the caller's role
+ * the same way the dashboards do, and reports failures as ServiceExceptions
+ * carrying an HTTP-style status. Safe to call from many threads at once.
+ */
+public class DonutService {
+
+    private final Login login;
+    private final SessionManager sessions;
+    private final RequestExecutor executor;
+
+    /**
+     * A failed request. The status follows HTTP: 400 bad input, 401 not
+     * logged in, 403 not allowed, 404 not found, 409 conflict, 413 too large.
+     */
+    public static class ServiceException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        public ServiceException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() { return status; }
+    }
+
+    /**
+     * @param login The login holding users, groups, articles and messages.
+     */
+    public DonutService(Login login) {
+        this(login, RequestExecutor.fromSystemProperties());
+    }
+
+    /**
+     * @param login    The login holding users, groups, articles and messages.
+     * @param executor Runs requests and their fan-out subtasks.
+     */
+    public DonutService(Login login, RequestExecutor executor) {
+        this.login = login;
+        this.sessions = login.getSessionManager();
+        this.executor = executor;
+    }
+
+    public RequestExecutor getExecutor() {
+        return executor;
+    }
+
+    // Sessions
+
+    /**
+     * Logs a user in.
+     *
+     * @param username The username.
+     * @param password The password.
+     * @param source   The client address, for rate limiting, or null.
+     * @return The session token.
+     */
+    public String login(String username, String password, String source) {
+        String token = sessions.login(username, password, source);
+        if (token == null) {
+            throw new ServiceException(401, "Invalid username or password");
+        }
+        return token;
+    }
+
+    public void logout(String token) {
+        sessions.logout(token);
+    }
+
+    /**
+     * Returns the user a session token belongs to.
+     *
+     * @param token The session token.
+     * @return The user.
+     * @throws ServiceException 401 if the token is missing, unknown or expired.
+     */
+    public User requireUser(String token) {
+        User user = sessions.resolve(token);
+        if (user == null) {
+            throw new ServiceException(401, "Not logged in");
+        }
+        return user;
+    }
+
+    // Articles
+
+    /**
+     * Searches the articles the caller has access to.
+     *
+     * @param token   The session token.
+     * @param keyword Keyword to look for, or null/empty for every article.
+     * @param group   Group to filter by, or null for every group.
+     * @param level   Level to filter by, or null for every level.
+     * @return The matching articles in id order.
+     */
+    public ArticleSearch.Result search(String token, String keyword, String group, String level) {
+        User user = requireUser(token);
+        String lowerKeyword = keyword != null ? keyword.toLowerCase() : null;
+        if (lowerKeyword != null && !lowerKeyword.isEmpty()) {
+            login.addSearchQuery(user.getUsername(), keyword);
+        }
+        return ArticleSearch.search(login.getArticleRegistry(), user, lowerKeyword, group, level, true);
+    }
+
+    /**
+     * Searches several groups at once, one concurrent subtask per group.
+     *
+     * @param token   The session token.
+     * @param keyword Keyword to look for, or null/empty for every article.
+     * @param groups  The groups to search.
+     * @param level   Level to filter by, or null for every level.
+     * @return Each group's matching articles, in the order of the groups.
+     */
+    public Map<String, ArticleSearch.Result> searchGroups(String token, String keyword, List<String> groups, String level) {
+        User user = requireUser(token);
+        String lowerKeyword = keyword != null ? keyword.toLowerCase() : null;
+        if (lowerKeyword != null && !lowerKeyword.isEmpty()) {
+            login.addSearchQuery(user.getUsername(), keyword);
+        }
+        List<Callable<ArticleSearch.Result>> searches = new ArrayList<>(groups.size());
+        for (String group : groups) {
+            searches.add(() -> ArticleSearch.search(login.getArticleRegistry(), user, lowerKeyword, group, level, true));
+        }
+        List<ArticleSearch.Result> results;
+        try {
+            results = executor.fanOut(searches);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServiceException(500, "Search failed: " + e.getMessage());
+        }
+        Map<String, ArticleSearch.Result> byGroup = new LinkedHashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            byGroup.put(groups.get(i), results.get(i));
+        }
+        return byGroup;
+    }
+
+    /**
+     * Returns an article the caller has access to.
+     *
+     * @param token The session token.
+     * @param id    The article id.
+     * @return The article.
+     */
+    public User.HelpArticle getArticle(String token, long id) {
+        User user = requireUser(token);
+        User.HelpArticle article = login.getArticleRegistry().get(id);
+        if (article == null) {
+            throw new ServiceException(404, "No article " + id);
+        }
+        if (!article.userHasAccess(user)) {
+            throw new ServiceException(403, "No access to article " + id);
+        }
+        return article;
+    }
+
+    /**
+     * Returns an article's body, decrypted for the caller.
+     */
+    public String getArticleBody(String token, long id) {
+        User user = requireUser(token);
+        return getArticle(token, id).getBody(user);
+    }
+
+    /**
+     * Creates an article owned by the caller, who must be an admin or instructor.
+     *
+     * @return The new article.
+     */
+    public User.HelpArticle createArticle(String token, String title, String description, List<String> keywords,
+                                          String body, List<String> links, List<String> groups, String level) {
+        User user = requireStaff(token);
+        if (title == null || title.isEmpty()) {
+            throw new ServiceException(400, "An article needs a title");
+        }
+        User.HelpArticle article = new User.HelpArticle(ArticleIdGenerator.getDefault().nextId(), title,
+                description != null ? description : "", orEmpty(keywords), body != null ? body : "",
+                orEmpty(links), orEmpty(groups), level != null ? level : "Beginner", user.getUsername());
+        user.addHelpArticle(article);
+        return article;
+    }
+
+    /**
+     * Applies a patch to every copy of an article. The caller must be an admin
+     * or the instructor who wrote the article.
+     *
+     * @return The bit set of ArticlePatch fields that changed.
+     */
+    public int updateArticle(String token, ArticlePatch patch) {
+        List<User> owners = requireEditor(token, patch.getId());
+        int changed = 0;
+        for (User owner : owners) {
+            changed |= Math.max(0, owner.applyPatch(patch));
+        }
+        return changed;
+    }
+
+    /**
+     * Deletes an article. The caller must be an admin or the instructor who wrote the article.
+     */
+    public void deleteArticle(String token, long id) {
+        requireEditor(token, id);
+        if (!login.deleteArticle(id)) {
+            throw new ServiceException(404, "No article " + id);
+        }
+    }
+
+    // Groups
+
+    public List<Group> listGroups(String token) {
+        requireUser(token);
+        return login.listGroups();
+    }
+
+    /**
+     * Creates a group. The caller must be an admin.
+     */
+    public Group createGroup(String token, String name, boolean specialAccess) {
+        User user = requireUser(token);
+        if (!user.isAdmin()) {
+            throw new ServiceException(403, "Only admins can create groups");
+        }
+        if (name == null || name.isEmpty()) {
+            throw new ServiceException(400, "A group needs a name");
+        }
+        Group group = login.createGroup(name, specialAccess);
+        if (group == null) {
+            throw new ServiceException(409, "Group " + name + " already exists");
+        }
+        return group;
+    }
+
+    /**
+     * Adds a user to a group. The caller must be an admin or instructor.
+     */
+    public void addUserToGroup(String token, String groupName, String username) {
+        requireStaff(token);
+        User member = login.findUser(username);
+        if (member == null) {
+            throw new ServiceException(404, "No user " + username);
+        }
+        if (login.getGroup(groupName) == null) {
+            throw new ServiceException(404, "No group " + groupName);
+        }
+        login.addUserToGroup(groupName, member);
+    }
+
+    // Messages
+
+    /**
+     * Sends a message from the caller.
+     *
+     * @param recipient The recipient's username, or null for the staff.
+     */
+    public Login.Message sendMessage(String token, String recipient, String content) {
+        User user = requireUser(token);
+        if (content == null || content.isEmpty()) {
+            throw new ServiceException(400, "A message needs content");
+        }
+        if (recipient != null && login.findUser(recipient) == null) {
+            throw new ServiceException(404, "No user " + recipient);
+        }
+        return login.addMessage(user.getUsername(), recipient, content);
+    }
+
+    /**
+     * Returns messages newer than afterId: every message for staff, and the
+     * messages addressed to the caller for everyone else.
+     */
+    public List<Login.Message> getMessages(String token, long afterId) {
+        User user = requireUser(token);
+        if (user.isAdmin() || user.isInstructor()) {
+            return login.getMessagesSince(afterId);
+        }
+        return login.getMessagesForRecipient(user.getUsername(), afterId);
+    }
+
+    private User requireStaff(String token) {
+        User user = requireUser(token);
+        if (!user.isAdmin() && !user.isInstructor()) {
+            throw new ServiceException(403, "Only admins and instructors can change articles");
+        }
+        return user;
+    }
+
+    // Allows admins, and instructors on their own articles only, as the instructor dashboard does
+    private List<User> requireEditor(String token, long id) {
+        User user = requireStaff(token);
+        List<User> owners = login.getArticleRegistry().getOwners(id);
+        if (owners.isEmpty()) {
+            throw new ServiceException(404, "No article " + id);
+        }
+        if (!user.isAdmin()) {
+            for (User owner : owners) {
+                User.HelpArticle copy = owner.getHelpArticle(id);
+                if (copy != null && !user.getUsername().equals(copy.getAuthor())) {
+                    throw new ServiceException(403, "Only the author or an admin can change article " + id);
+                }
+            }
+        }
+        return owners;
+    }
+
+    private static List<String> orEmpty(List<String> values) {
+        return values != null ? values : new ArrayList<>();
+    }
+}
@@ -3,6 +3,7 @@ package application;
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.*;
+import java.nio.file.Paths;
 import java.security.Key;
 import java.security.SecureRandom;
 import java.util.Base64;
@@ -16,9 +17,17 @@ public class EncryptionUtil {
     private static final String ALGORITHM = "AES";
     private static final String PASSWORD_KEY_FILE = "passwordKey.key";
     private static final String ARTICLE_KEY_FILE = "articleKey.key";
+    private static final String PASSWORD_KEY_RING_FILE = "passwordKey.ring";
+    private static final String ARTICLE_KEY_RING_FILE = "articleKey.ring";
+
+    // Key rings shared by the application, loaded on first use
+    private static KeyRing passwordKeyRing;
+    private static KeyRing articleKeyRing;
 
     /**
-     * Encrypts a plain text using the provided key.
+     * Encrypts a plain text using the provided key. This is the original
+     * AES/ECB format, still used as key 0 of the key rings; new passwords and
+     * article bodies are encrypted through KeyRing with AES-GCM.
      *
      * @param valueToEnc The plain text to encrypt.
      * @param key        The encryption key.
@@ -92,6 +101,7 @@ public class EncryptionUtil {
         File file = new File(keyFile);
         if (!file.exists()) {
             // Generate and store a new key
+            EventLog.info("key.generated", "file", keyFile);
             return generateAndStoreKey(keyFile);
         } else {
             // Load existing key
@@ -122,6 +132,32 @@ public class EncryptionUtil {
         return loadKey(getArticleKeyFile());
     }
 
+    /**
+     * Returns the key ring for user passwords, whose key 0 is passwordKey.key.
+     *
+     * @return The password key ring.
+     * @throws IOException If a key file cannot be read.
+     */
+    public static synchronized KeyRing getPasswordKeyRing() throws IOException {
+        if (passwordKeyRing == null) {
+            passwordKeyRing = new KeyRing(Paths.get(PASSWORD_KEY_RING_FILE), Paths.get(getPasswordKeyFile()));
+        }
+        return passwordKeyRing;
+    }
+
+    /**
+     * Returns the key ring for special access article bodies, whose key 0 is articleKey.key.
+     *
+     * @return The article key ring.
+     * @throws IOException If a key file cannot be read.
+     */
+    public static synchronized KeyRing getArticleKeyRing() throws IOException {
+        if (articleKeyRing == null) {
+            articleKeyRing = new KeyRing(Paths.get(ARTICLE_KEY_RING_FILE), Paths.get(getArticleKeyFile()));
+        }
+        return articleKeyRing;
+    }
+
 	public static String getPasswordKeyFile() {
 		return PASSWORD_KEY_FILE;
 	}
@@ -0,0 +1,353 @@
+package application;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous structured event log. Callers enqueue events on a lock-free queue
+ * and a single background thread writes them as key=value lines to a size-rotated
+ * log file, so logging never blocks on the console or on disk I/O.
+ *
+ * Events below the configured level return before an entry is built. Primitive
+ * arguments are still boxed at the call site, so hot paths that log numbers
+ * should check isEnabled first.
+ */
+public final class EventLog {
+
+    /** Severity levels, in increasing order. OFF disables all logging. */
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static volatile Level threshold = parseLevel(System.getProperty("donut.eventlog.level"), Level.INFO);
+    private static volatile String logFile = System.getProperty("donut.eventlog.file", "donut-events.log");
+    private static volatile long maxFileBytes = 10L * 1024 * 1024;
+    private static volatile int maxFiles = 5;
+
+    private static final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger pending = new AtomicInteger();
+    private static final LongAdder dropped = new LongAdder();
+    private static volatile boolean writerIdle;
+    private static volatile Thread writerThread; // Read without the lock by wakeWriter
+
+    private EventLog() {
+    }
+
+    // Single event record; the only allocation made for an enabled event
+    private static class Entry {
+        final long timeMillis;
+        final Level level;
+        final String event;
+        final String key1;
+        final Object value1;
+        final String key2;
+        final Object value2;
+        final CountDownLatch flushed; // Non-null for flush/reconfigure markers
+
+        Entry(Level level, String event, String key1, Object value1, String key2, Object value2, CountDownLatch flushed) {
+            this.timeMillis = System.currentTimeMillis();
+            this.level = level;
+            this.event = event;
+            this.key1 = key1;
+            this.value1 = value1;
+            this.key2 = key2;
+            this.value2 = value2;
+            this.flushed = flushed;
+        }
+    }
+
+    /**
+     * Checks whether events of the given level are currently written.
+     *
+     * @param level The level to check.
+     * @return True if events of this level are enabled.
+     */
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold.ordinal() && level != Level.OFF;
+    }
+
+    /**
+     * Parses a level name, ignoring case. A missing or misspelled name must not
+     * stop the class from loading, since every class that logs depends on it.
+     *
+     * @param name     The level name, or null.
+     * @param fallback The level to use when the name is not a level.
+     * @return The named level, or the fallback.
+     */
+    static Level parseLevel(String name, Level fallback) {
+        if (name == null) {
+            return fallback;
+        }
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown event log level '" + name + "', using " + fallback);
+            return fallback;
+        }
+    }
+
+    public static Level getLevel() { return threshold; }
+
+    public static void setLevel(Level level) { threshold = level; }
+
+    /**
+     * Redirects the log to another file and changes the rotation limits.
+     * Pending events are written to the previous file first.
+     *
+     * @param file     The log file path.
+     * @param maxBytes Size at which the file is rotated.
+     * @param files    Number of rotated files to keep (including the active one).
+     */
+    public static void configure(String file, long maxBytes, int files) {
+        flush();
+        logFile = file;
+        maxFileBytes = maxBytes;
+        maxFiles = Math.max(1, files);
+        // The marker makes the writer reopen its file with the new settings
+        enqueueMarker();
+    }
+
+    /**
+     * Returns the number of events dropped because the queue was full.
+     *
+     * @return The dropped event count.
+     */
+    public static long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public static void debug(String event) { log(Level.DEBUG, event, null, null, null, null); }
+    public static void debug(String event, String key, Object value) { log(Level.DEBUG, event, key, value, null, null); }
+    public static void debug(String event, String key1, Object value1, String key2, Object value2) { log(Level.DEBUG, event, key1, value1, key2, value2); }
+
+    public static void info(String event) { log(Level.INFO, event, null, null, null, null); }
+    public static void info(String event, String key, Object value) { log(Level.INFO, event, key, value, null, null); }
+    public static void info(String event, String key1, Object value1, String key2, Object value2) { log(Level.INFO, event, key1, value1, key2, value2); }
+
+    public static void warn(String event) { log(Level.WARN, event, null, null, null, null); }
+    public static void warn(String event, String key, Object value) { log(Level.WARN, event, key, value, null, null); }
+    public static void warn(String event, String key1, Object value1, String key2, Object value2) { log(Level.WARN, event, key1, value1, key2, value2); }
+
+    public static void error(String event) { log(Level.ERROR, event, null, null, null, null); }
+    public static void error(String event, String key, Object value) { log(Level.ERROR, event, key, value, null, null); }
+    public static void error(String event, String key1, Object value1, String key2, Object value2) { log(Level.ERROR, event, key1, value1, key2, value2); }
+
+    /**
+     * Enqueues an event with up to two key/value fields.
+     */
+    public static void log(Level level, String event, String key1, Object value1, String key2, Object value2) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        if (pending.incrementAndGet() > QUEUE_CAPACITY) {
+            pending.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(new Entry(level, event, key1, value1, key2, value2, null));
+        wakeWriter();
+    }
+
+    /**
+     * Blocks until every event enqueued before this call has been written to disk.
+     */
+    public static void flush() {
+        CountDownLatch latch = enqueueMarker();
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CountDownLatch enqueueMarker() {
+        CountDownLatch latch = new CountDownLatch(1);
+        pending.incrementAndGet();
+        queue.offer(new Entry(Level.OFF, null, null, null, null, null, latch));
+        wakeWriter();
+        return latch;
+    }
+
+    private static void wakeWriter() {
+        Thread writer = writerThread;
+        if (writer == null) {
+            writer = startWriter();
+        }
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private static synchronized Thread startWriter() {
+        if (writerThread == null) {
+            Thread thread = new Thread(EventLog::drainLoop, "donut-event-log");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(EventLog::flush, "donut-event-log-shutdown"));
+            writerThread = thread;
+        }
+        return writerThread;
+    }
+
+    // Background writer: drains the queue, formats into a reused buffer and rotates by size
+    private static void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        Writer out = null;
+        long written = 0;
+        String openFile = null;
+        while (true) {
+            Entry entry = queue.poll();
+            if (entry == null) {
+                try {
+                    if (out != null) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    out = closeQuietly(out);
+                }
+                writerIdle = true;
+                if (queue.isEmpty()) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                writerIdle = false;
+                continue;
+            }
+            pending.decrementAndGet();
+            if (entry.flushed != null) {
+                try {
+                    if (out != null) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    out = closeQuietly(out);
+                }
+                if (openFile != null && !openFile.equals(logFile)) {
+                    out = closeQuietly(out);
+                }
+                entry.flushed.countDown();
+                continue;
+            }
+            try {
+                if (out == null) {
+                    openFile = logFile;
+                    File file = new File(openFile);
+                    written = file.length();
+                    out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+                }
+                line.setLength(0);
+                format(entry, line);
+                out.append(line);
+                written += utf8Length(line); // Bytes on disk, not chars, so multi-byte text rotates on time
+                if (written >= maxFileBytes) {
+                    out = closeQuietly(out);
+                    rotate(openFile);
+                }
+            } catch (IOException e) {
+                out = closeQuietly(out);
+                dropped.increment();
+            }
+        }
+    }
+
+    private static void format(Entry entry, StringBuilder line) {
+        line.append(Instant.ofEpochMilli(entry.timeMillis)).append(' ')
+            .append(entry.level).append(' ')
+            .append(entry.event);
+        appendField(line, entry.key1, entry.value1);
+        appendField(line, entry.key2, entry.value2);
+        line.append('\n');
+    }
+
+    private static void appendField(StringBuilder line, String key, Object value) {
+        if (key == null) {
+            return;
+        }
+        line.append(' ').append(key).append('=');
+        String text = String.valueOf(value);
+        boolean quote = text.isEmpty();
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ' ' || c == '"' || c == '=' || c == '\n';
+        }
+        if (!quote) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c == '\n') {
+                line.append("\\n");
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    // Number of bytes the UTF-8 encoder writes for the text; an unpaired surrogate becomes one '?'
+    static int utf8Length(CharSequence text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    // Shifts file -> file.1 -> file.2 ... dropping the oldest
+    private static void rotate(String fileName) {
+        int keep = maxFiles;
+        new File(fileName + "." + (keep - 1)).delete();
+        for (int i = keep - 2; i >= 1; i--) {
+            File from = new File(fileName + "." + i);
+            if (from.exists()) {
+                from.renameTo(new File(fileName + "." + (i + 1)));
+            }
+        }
+        File current = new File(fileName);
+        if (keep > 1) {
+            current.renameTo(new File(fileName + ".1"));
+        } else {
+            current.delete();
+        }
+    }
+
+    private static Writer closeQuietly(Writer out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // Nothing more can be done with a broken log file
+            }
+        }
+        return null;
+    }
+}
@@ -47,25 +47,25 @@ public class Group {
 
     // Methods to add a user to the group
     public boolean addUser(User user) {
-        String role = user.getRole();
-        if ("Admin".equalsIgnoreCase(role)) {
+        Role role = user.getRoleType();
+        if (role == Role.ADMIN) {
             if (!admins.contains(user)) {
                 admins.add(user);
                 user.addGroupName(groupName);
                 return true;
             }
-        } else if ("Instructor".equalsIgnoreCase(role)) {
+        } else if (role == Role.INSTRUCTOR) {
             if (!instructors.contains(user)) {
                 instructors.add(user);
                 user.addGroupName(groupName);
                 // First instructor added gets admin rights
                 if (admins.isEmpty()) {
                     admins.add(user);
-                    System.out.println("First instructor added as admin to group: " + groupName);
+                    EventLog.info("group.first_instructor_admin", "group", groupName, "user", user.getUsername());
                 }
                 return true;
             }
-        } else if ("Student".equalsIgnoreCase(role)) {
+        } else if (role == Role.STUDENT) {
             if (!students.contains(user)) {
                 students.add(user);
                 user.addGroupName(groupName);
@@ -0,0 +1,312 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader and writer for article imports and the HTTP service.
+ * Objects become LinkedHashMaps, arrays become Lists, numbers become Long or
+ * Double, and true/false/null map to Boolean and null. Writing accepts the
+ * same types, plus any Map, Collection and Number.
+ *
+ * Parsing is recursive, so objects and arrays may nest at most MAX_DEPTH
+ * deep; deeper input is rejected before it can exhaust the stack.
+ */
+final class Json {
+
+    /** Deepest nesting of objects and arrays a document may have. */
+    static final int MAX_DEPTH = 256;
+
+    private final String text;
+    private int pos;
+    private int depth; // Objects and arrays currently open
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a JSON object.
+     *
+     * @param text The JSON text.
+     * @return The object's members in document order.
+     * @throws IllegalArgumentException If the text is not a single JSON object.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> parseObject(String text) {
+        Json parser = new Json(text);
+        parser.skipWhitespace();
+        if (parser.peek() != '{') {
+            throw parser.error("Expected an object");
+        }
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw parser.error("Unexpected trailing characters");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Writes a value as JSON.
+     *
+     * @param value A Map, Collection, String, Number, Boolean or null.
+     * @return The JSON text.
+     * @throws IllegalArgumentException If the value contains another type.
+     */
+    static String write(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(value, out);
+        return out.toString();
+    }
+
+    private static void write(Object value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            writeString((String) value, out);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                writeString(String.valueOf(entry.getKey()), out);
+                out.append(':');
+                write(entry.getValue(), out);
+            }
+            out.append('}');
+        } else if (value instanceof Collection) {
+            out.append('[');
+            boolean first = true;
+            for (Object element : (Collection<?>) value) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                write(element, out);
+            }
+            out.append(']');
+        } else {
+            throw new IllegalArgumentException("Cannot write " + value.getClass().getName() + " as JSON");
+        }
+    }
+
+    private static void writeString(String value, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                    break;
+            }
+        }
+        out.append('"');
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        char c = peek();
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                expectWord("true");
+                return Boolean.TRUE;
+            case 'f':
+                expectWord("false");
+                return Boolean.FALSE;
+            case 'n':
+                expectWord("null");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        enter();
+        Map<String, Object> object = new LinkedHashMap<>();
+        pos++; // '{'
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            depth--;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a member name");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(name, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                depth--;
+                return object;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        enter();
+        List<Object> array = new ArrayList<>();
+        pos++; // '['
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            depth--;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') {
+                depth--;
+                return array;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    // Opens an object or array, rejecting input nested deeper than MAX_DEPTH
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("Nesting deeper than " + MAX_DEPTH);
+        }
+    }
+
+    private String readString() {
+        pos++; // opening quote
+        StringBuilder out = null;
+        int start = pos;
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                if (out == null) {
+                    return text.substring(start, pos - 1);
+                }
+                return out.append(text, start, pos - 1).toString();
+            }
+            if (c == '\\') {
+                if (out == null) {
+                    out = new StringBuilder();
+                }
+                out.append(text, start, pos - 1);
+                char escaped = next();
+                switch (escaped) {
+                    case 'n': out.append('\n'); break;
+                    case 't': out.append('\t'); break;
+                    case 'r': out.append('\r'); break;
+                    case 'b': out.append('\b'); break;
+                    case 'f': out.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Truncated unicode escape");
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        out.append(escaped); // '"', '\\' and '/'
+                        break;
+                }
+                start = pos;
+            }
+        }
+    }
+
+    private Object readNumber() {
+        int start = pos;
+        boolean decimal = false;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+            } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            pos++;
+        }
+        String number = text.substring(start, pos);
+        try {
+            return decimal ? (Object) Double.parseDouble(number) : (Object) Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + number + "'");
+        }
+    }
+
+    private void expectWord(String word) {
+        if (!text.startsWith(word, pos)) {
+            throw error("Expected '" + word + "'");
+        }
+        pos += word.length();
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private char peek() {
+        if (pos >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        return text.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos);
+    }
+}
@@ -0,0 +1,420 @@
+package application;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * A set of numbered encryption keys, one of which is active. Ciphertexts are
+ * prefixed with the id of the key that produced them, so data encrypted with
+ * an older key stays readable after a rotation and can be migrated lazily.
+ *
+ * Key 0 is the original key file (e.g. articleKey.key); ciphertexts written
+ * before key rings existed have no header and are read with key 0. Newer keys
+ * live in a ring file next to it, which is re-read whenever it changes on
+ * disk, so a rotation done by another process is picked up without a restart.
+ *
+ * Record layout: magic byte 'K', format byte, key id (4 bytes), cipher output.
+ * New records use format 3, segmented AES-GCM (see AesGcm) under a key
+ * derived for the record alone from the ring key and a random salt; its
+ * header also holds the salt and a random nonce prefix. Format 2 records
+ * (AES-GCM directly under the ring key) and format 1 records (AES/ECB)
+ * written by earlier versions are still read.
+ */
+public final class KeyRing {
+
+    /** Id of the original, pre-ring key. */
+    public static final int LEGACY_KEY_ID = 0;
+
+    static final byte MAGIC = 'K';
+    static final byte FORMAT_AES = 1;
+    static final byte FORMAT_GCM = 2;
+    static final byte FORMAT_GCM_DERIVED = 3;
+    static final int HEADER_LENGTH = 6;
+    static final int GCM_V2_HEADER_LENGTH = HEADER_LENGTH + AesGcm.PREFIX_LENGTH;
+    static final int GCM_HEADER_LENGTH = HEADER_LENGTH + AesGcm.SALT_LENGTH + AesGcm.PREFIX_LENGTH;
+
+    private static final SecureRandom random = new SecureRandom();
+
+    // One lock per ring file for rotations within this process; the file lock only excludes other processes
+    private static final Map<Path, Object> ROTATION_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path ringFile;
+    private final Path legacyKeyFile;
+
+    // Immutable snapshots, replaced as a whole on reload or rotation
+    private volatile Map<Integer, byte[]> keys;
+    private volatile int activeKeyId;
+    private long generation = -1; // Generation of the ring last loaded; -1 while there is no ring file
+
+    /**
+     * Loads a key ring, generating the legacy key file if it does not exist.
+     *
+     * @param ringFile      File holding the rotated keys; it need not exist yet.
+     * @param legacyKeyFile The original key file, used as key 0.
+     * @throws IOException If a key file cannot be read.
+     */
+    public KeyRing(Path ringFile, Path legacyKeyFile) throws IOException {
+        this.ringFile = ringFile;
+        this.legacyKeyFile = legacyKeyFile;
+        load(readRing());
+    }
+
+    /**
+     * Re-reads the ring file if another instance or process changed it since
+     * it was last read. Every save increments a generation counter stored in
+     * the file, so a change is never missed however quickly it follows.
+     *
+     * @return True if the keys were reloaded.
+     * @throws IOException If a key file cannot be read.
+     */
+    public synchronized boolean reload() throws IOException {
+        Properties ring = readRing();
+        if (generationOf(ring) == generation) {
+            return false;
+        }
+        load(ring);
+        return true;
+    }
+
+    // Reads the ring file, or returns null if there is none yet
+    private Properties readRing() throws IOException {
+        Properties ring = new Properties();
+        try (Reader reader = Files.newBufferedReader(ringFile, StandardCharsets.UTF_8)) {
+            ring.load(reader);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        return ring;
+    }
+
+    private static long generationOf(Properties ring) {
+        // Ring files written before generations were stored count as generation 0
+        return ring != null ? Long.parseLong(ring.getProperty("generation", "0")) : -1;
+    }
+
+    private synchronized void load(Properties ring) throws IOException {
+        Map<Integer, byte[]> loaded = new HashMap<>();
+        loaded.put(LEGACY_KEY_ID, EncryptionUtil.loadKey(legacyKeyFile.toString()));
+        int active = LEGACY_KEY_ID;
+        if (ring != null) {
+            for (String name : ring.stringPropertyNames()) {
+                if (name.startsWith("key.")) {
+                    loaded.put(Integer.parseInt(name.substring(4)), Base64.getDecoder().decode(ring.getProperty(name)));
+                }
+            }
+            active = Integer.parseInt(ring.getProperty("active", String.valueOf(LEGACY_KEY_ID)));
+            if (!loaded.containsKey(active)) {
+                throw new IOException("Active key " + active + " is missing from " + ringFile);
+            }
+        }
+        keys = Collections.unmodifiableMap(loaded);
+        activeKeyId = active;
+        generation = generationOf(ring);
+        EventLog.info("key.ring_loaded", "file", ringFile, "active", active);
+    }
+
+    /**
+     * Generates a new key, makes it the active key and saves the ring. Older
+     * keys are kept so existing ciphertexts stay readable.
+     *
+     * The ring is re-read and saved while holding an exclusive lock on a lock
+     * file next to it, so concurrent rotations, also from other processes,
+     * each build on the previous one instead of picking the same new id.
+     *
+     * @return The id of the new key.
+     * @throws IOException If the ring file cannot be written.
+     */
+    public synchronized int rotate() throws IOException {
+        Path absolute = ringFile.toAbsolutePath().normalize();
+        synchronized (ROTATION_LOCKS.computeIfAbsent(absolute, k -> new Object())) {
+            Path lockFile = absolute.resolveSibling(absolute.getFileName() + ".lock");
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.lock(); // Released when the channel is closed
+                reload(); // Build on the latest ring in case another instance or process rotated
+                int newId = Collections.max(keys.keySet()) + 1;
+                byte[] key = new byte[16]; // 16 bytes for AES-128
+                random.nextBytes(key);
+
+                Map<Integer, byte[]> rotated = new HashMap<>(keys);
+                rotated.put(newId, key);
+                long nextGeneration = Math.max(generation, 0) + 1;
+                save(rotated, newId, nextGeneration);
+                keys = Collections.unmodifiableMap(rotated);
+                activeKeyId = newId;
+                generation = nextGeneration;
+                EventLog.info("key.rotated", "file", ringFile, "active", newId);
+                return newId;
+            }
+        }
+    }
+
+    // Writes the ring to a temporary file and moves it into place; the caller holds the rotation lock
+    private void save(Map<Integer, byte[]> ringKeys, int active, long ringGeneration) throws IOException {
+        Map<String, String> lines = new TreeMap<>();
+        for (Map.Entry<Integer, byte[]> entry : ringKeys.entrySet()) {
+            if (entry.getKey() != LEGACY_KEY_ID) {
+                lines.put("key." + entry.getKey(), Base64.getEncoder().encodeToString(entry.getValue()));
+            }
+        }
+        Path absolute = ringFile.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("generation=" + ringGeneration + "\n");
+            writer.write("active=" + active + "\n");
+            for (Map.Entry<String, String> line : lines.entrySet()) {
+                writer.write(line.getKey() + "=" + line.getValue() + "\n");
+            }
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public Set<Integer> getKeyIds() {
+        return keys.keySet();
+    }
+
+    /**
+     * Encrypts text with the active key.
+     *
+     * @param plainText The text to encrypt.
+     * @return The ciphertext, prefixed with the active key's id.
+     * @throws Exception If encryption fails.
+     */
+    public byte[] encrypt(String plainText) throws Exception {
+        return encrypt(plainText.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Encrypts bytes with the active key.
+     *
+     * @param plain The bytes to encrypt.
+     * @return The ciphertext, prefixed with the active key's id.
+     * @throws GeneralSecurityException If encryption fails.
+     */
+    public byte[] encrypt(byte[] plain) throws GeneralSecurityException {
+        int keyId = activeKeyId;
+        byte[] header = newGcmHeader(keyId);
+        return AesGcm.encrypt(recordKey(keys.get(keyId), header), header, plain);
+    }
+
+    /**
+     * Returns a stream that encrypts what is written to it with the active
+     * key, one segment at a time. Closing it completes the record and closes out.
+     *
+     * @param out The stream the record is written to.
+     * @return The encrypting stream.
+     * @throws IOException If the header cannot be written.
+     */
+    public OutputStream encryptingStream(OutputStream out) throws IOException {
+        int keyId = activeKeyId;
+        byte[] header = newGcmHeader(keyId);
+        try {
+            return AesGcm.encryptingStream(recordKey(keys.get(keyId), header), header, out);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Key derivation failed", e);
+        }
+    }
+
+    private static byte[] newGcmHeader(int keyId) {
+        byte[] saltAndPrefix = new byte[AesGcm.SALT_LENGTH + AesGcm.PREFIX_LENGTH];
+        random.nextBytes(saltAndPrefix);
+        return ByteBuffer.allocate(GCM_HEADER_LENGTH)
+                .put(MAGIC).put(FORMAT_GCM_DERIVED).putInt(keyId).put(saltAndPrefix)
+                .array();
+    }
+
+    // Returns the key a GCM record is sealed with: derived from its salt for format 3, the ring key for format 2
+    private static byte[] recordKey(byte[] ringKey, byte[] record) throws GeneralSecurityException {
+        if (record[1] != FORMAT_GCM_DERIVED) {
+            return ringKey;
+        }
+        byte[] salt = Arrays.copyOfRange(record, HEADER_LENGTH, HEADER_LENGTH + AesGcm.SALT_LENGTH);
+        // The magic, format and key id are bound into the derived key
+        return AesGcm.deriveKey(ringKey, salt, Arrays.copyOf(record, HEADER_LENGTH));
+    }
+
+    private static int gcmHeaderLength(int format) {
+        return format == FORMAT_GCM_DERIVED ? GCM_HEADER_LENGTH : GCM_V2_HEADER_LENGTH;
+    }
+
+    /**
+     * Decrypts a ciphertext produced by any key in the ring, or a header-less
+     * ciphertext produced by the legacy key.
+     *
+     * @param data The ciphertext.
+     * @return The decrypted text.
+     * @throws Exception If the key is unknown or decryption fails.
+     */
+    public String decrypt(byte[] data) throws Exception {
+        return new String(decryptBytes(data), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decrypts a ciphertext to bytes. See decrypt(byte[]).
+     *
+     * @param data The ciphertext.
+     * @return The decrypted bytes.
+     * @throws Exception If the key is unknown or decryption fails.
+     */
+    public byte[] decryptBytes(byte[] data) throws Exception {
+        int format = formatOf(data);
+        switch (format) {
+            case FORMAT_GCM:
+            case FORMAT_GCM_DERIVED: {
+                byte[] key = knownKey(keyIdOf(data));
+                if (key != null) {
+                    // A real record always names a known key, so a failure here is final
+                    return AesGcm.decrypt(recordKey(key, data), data, gcmHeaderLength(format));
+                }
+                if (data.length % 16 != 0) {
+                    throw new GeneralSecurityException("Unknown key id " + keyIdOf(data));
+                }
+                // A legacy block that happens to start with the magic bytes; read it as legacy
+                return ecbCipher(Cipher.DECRYPT_MODE, keys.get(LEGACY_KEY_ID)).doFinal(data);
+            }
+            case FORMAT_AES:
+                return ecbCipher(Cipher.DECRYPT_MODE, keyFor(keyIdOf(data))).doFinal(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+            default:
+                return ecbCipher(Cipher.DECRYPT_MODE, keys.get(LEGACY_KEY_ID)).doFinal(data);
+        }
+    }
+
+    /**
+     * Returns a stream of the decrypted bytes of a ciphertext in any format,
+     * decrypting one segment at a time instead of the whole value at once.
+     *
+     * @param data The ciphertext.
+     * @return The decrypting stream.
+     * @throws Exception If the key is unknown.
+     */
+    public InputStream decryptingStream(byte[] data) throws Exception {
+        switch (formatOf(data)) {
+            case FORMAT_GCM:
+            case FORMAT_GCM_DERIVED:
+                if (knownKey(keyIdOf(data)) == null) {
+                    // Not a record of this ring; decryptBytes reads it as legacy or rejects it
+                    return new ByteArrayInputStream(decryptBytes(data));
+                }
+                return decryptingStream(new ByteArrayInputStream(data));
+            case FORMAT_AES:
+                return new CipherInputStream(new ByteArrayInputStream(data, HEADER_LENGTH, data.length - HEADER_LENGTH),
+                        ecbCipher(Cipher.DECRYPT_MODE, keyFor(keyIdOf(data))));
+            default:
+                return new CipherInputStream(new ByteArrayInputStream(data),
+                        ecbCipher(Cipher.DECRYPT_MODE, keys.get(LEGACY_KEY_ID)));
+        }
+    }
+
+    /**
+     * Returns a stream of the decrypted bytes of a record written by
+     * encryptingStream, reading and authenticating it one segment at a time.
+     *
+     * @param in The stream the record is read from.
+     * @return The decrypting stream.
+     * @throws IOException If the header is missing or names an unknown key.
+     */
+    public InputStream decryptingStream(InputStream in) throws IOException {
+        byte[] start = in.readNBytes(HEADER_LENGTH);
+        if (start.length < HEADER_LENGTH || start[0] != MAGIC || (start[1] != FORMAT_GCM && start[1] != FORMAT_GCM_DERIVED)) {
+            throw new IOException("Not an encrypted record");
+        }
+        byte[] header = Arrays.copyOf(start, gcmHeaderLength(start[1]));
+        if (in.readNBytes(header, HEADER_LENGTH, header.length - HEADER_LENGTH) < header.length - HEADER_LENGTH) {
+            throw new IOException("Not an encrypted record");
+        }
+        try {
+            byte[] key = recordKey(keyFor(ByteBuffer.wrap(header, 2, 4).getInt()), header);
+            return AesGcm.decryptingStream(key, header, in);
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    // Returns the key with the given id, reloading the ring once if it is unknown
+    private byte[] keyFor(int keyId) throws IOException, GeneralSecurityException {
+        byte[] key = knownKey(keyId);
+        if (key == null) {
+            throw new GeneralSecurityException("Unknown key id " + keyId);
+        }
+        return key;
+    }
+
+    // Like keyFor, but returns null for an unknown key
+    private byte[] knownKey(int keyId) throws IOException {
+        byte[] key = keys.get(keyId);
+        if (key == null && reload()) {
+            key = keys.get(keyId); // Rotated by another process since we last looked
+        }
+        return key;
+    }
+
+    private static Cipher ecbCipher(int mode, byte[] key) throws GeneralSecurityException {
+        byte[] keyBytes16 = new byte[16];
+        System.arraycopy(key, 0, keyBytes16, 0, Math.min(key.length, 16));
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(mode, new SecretKeySpec(keyBytes16, "AES"));
+        return cipher;
+    }
+
+    /**
+     * Returns the id of the key that produced a ciphertext.
+     */
+    public static int keyIdOf(byte[] data) {
+        return formatOf(data) != 0 ? ByteBuffer.wrap(data, 2, 4).getInt() : LEGACY_KEY_ID;
+    }
+
+    /**
+     * Checks whether a ciphertext was produced by the active key in the
+     * current format.
+     */
+    public boolean isCurrent(byte[] data) {
+        return formatOf(data) == FORMAT_GCM_DERIVED && keyIdOf(data) == activeKeyId;
+    }
+
+    // Returns the record format, or 0 for a header-less legacy ciphertext
+    static int formatOf(byte[] data) {
+        if (data.length < HEADER_LENGTH || data[0] != MAGIC) {
+            return 0;
+        }
+        if (data[1] == FORMAT_GCM_DERIVED && data.length >= GCM_HEADER_LENGTH + AesGcm.TAG_LENGTH) {
+            return FORMAT_GCM_DERIVED;
+        }
+        if (data[1] == FORMAT_GCM && data.length >= GCM_V2_HEADER_LENGTH + AesGcm.TAG_LENGTH) {
+            return FORMAT_GCM;
+        }
+        // Legacy AES output is a whole number of 16-byte blocks, so a 6-byte header can never be mistaken for it
+        if (data[1] == FORMAT_AES && (data.length - HEADER_LENGTH) % 16 == 0) {
+            return FORMAT_AES;
+        }
+        return 0;
+    }
+}
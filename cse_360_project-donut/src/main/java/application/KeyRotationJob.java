@@ -0,0 +1,183 @@
+package application;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-encrypts stored passwords and special access article bodies with the
+ * active keys after a rotation. It runs on a background thread and is
+ * throttled to a fixed number of records per second, so logins and article
+ * reads keep being served while it works; records it has not reached yet are
+ * still readable with their old key.
+ */
+public class KeyRotationJob implements Runnable {
+
+    // Records migrated between checks of the rate limit and the key rings
+    private static final int BATCH_SIZE = 50;
+
+    private final Login login;
+    private final KeyRing passwordKeyRing;
+    private final KeyRing articleKeyRing;
+    private final long nanosPerRecord;
+
+    private final AtomicInteger passwordsMigrated = new AtomicInteger();
+    private final AtomicInteger articlesMigrated = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private volatile Thread thread;
+    private volatile boolean stopped;
+
+    /**
+     * @param login           The login whose users and articles to migrate.
+     * @param passwordKeyRing The ring holding the password keys.
+     * @param articleKeyRing  The ring holding the article keys.
+     * @param maxPerSecond    Maximum number of records re-encrypted per second.
+     */
+    public KeyRotationJob(Login login, KeyRing passwordKeyRing, KeyRing articleKeyRing, int maxPerSecond) {
+        if (maxPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + maxPerSecond);
+        }
+        this.login = login;
+        this.passwordKeyRing = passwordKeyRing;
+        this.articleKeyRing = articleKeyRing;
+        this.nanosPerRecord = TimeUnit.SECONDS.toNanos(1) / maxPerSecond;
+    }
+
+    /**
+     * Starts the job on a background daemon thread.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Key rotation job already started");
+        }
+        thread = new Thread(this, "donut-key-rotation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Asks the job to stop after the record it is working on.
+     */
+    public void stop() {
+        stopped = true;
+        Thread running = thread;
+        if (running != null) {
+            running.interrupt();
+        }
+    }
+
+    /**
+     * Waits for a started job to finish.
+     *
+     * @param timeoutMillis Maximum time to wait.
+     * @return True if the job finished in time.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean await(long timeoutMillis) throws InterruptedException {
+        Thread running = thread;
+        if (running == null) {
+            return true;
+        }
+        running.join(timeoutMillis);
+        return !running.isAlive();
+    }
+
+    public boolean isRunning() {
+        Thread running = thread;
+        return running != null && running.isAlive();
+    }
+
+    public int getPasswordsMigrated() { return passwordsMigrated.get(); }
+    public int getArticlesMigrated() { return articlesMigrated.get(); }
+    public int getFailures() { return failures.get(); }
+
+    /**
+     * Makes one throttled pass over every user's password and articles. Can be
+     * called directly to migrate on the current thread.
+     */
+    @Override
+    public void run() {
+        EventLog.info("key.reencrypt_started", "passwordKey", passwordKeyRing.getActiveKeyId(),
+                "articleKey", articleKeyRing.getActiveKeyId());
+        long nextBatchAt = System.nanoTime();
+        int inBatch = 0;
+
+        for (User user : login.listUsers()) {
+            if (stopped) {
+                break;
+            }
+            if (migratePassword(user)) {
+                inBatch++;
+            }
+            if (inBatch >= BATCH_SIZE) {
+                nextBatchAt = throttle(nextBatchAt, inBatch);
+                inBatch = 0;
+            }
+            for (User.HelpArticle article : user.getAllHelpArticles()) {
+                if (stopped) {
+                    break;
+                }
+                if (migrateArticle(article)) {
+                    inBatch++;
+                }
+                if (inBatch >= BATCH_SIZE) {
+                    nextBatchAt = throttle(nextBatchAt, inBatch);
+                    inBatch = 0;
+                }
+            }
+        }
+
+        EventLog.info("key.reencrypt_finished", "passwords", passwordsMigrated.get(),
+                "articles", articlesMigrated.get());
+        if (failures.get() > 0) {
+            EventLog.warn("key.reencrypt_failures", "count", failures.get());
+        }
+    }
+
+    private boolean migratePassword(User user) {
+        try {
+            if (login.reencryptPassword(user)) {
+                passwordsMigrated.incrementAndGet();
+                return true;
+            }
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            EventLog.error("key.reencrypt_password_failed", "username", user.getUsername(), "error", e.getMessage());
+        }
+        return false;
+    }
+
+    private boolean migrateArticle(User.HelpArticle article) {
+        try {
+            if (article.reencryptBody(articleKeyRing)) {
+                articlesMigrated.incrementAndGet();
+                return true;
+            }
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            EventLog.error("key.reencrypt_article_failed", "id", article.getId(), "error", e.getMessage());
+        }
+        return false;
+    }
+
+    // Sleeps until the batch is within the rate limit and picks up keys rotated meanwhile
+    private long throttle(long batchStartedAt, int records) {
+        long due = batchStartedAt + records * nanosPerRecord;
+        long wait = due - System.nanoTime();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped = true;
+            }
+        }
+        try {
+            passwordKeyRing.reload();
+            articleKeyRing.reload();
+        } catch (Exception e) {
+            EventLog.warn("key.reload_failed", "error", e.getMessage());
+        }
+        return Math.max(due, System.nanoTime()); // Never burst to catch up after a slow batch
+    }
+}
@@ -0,0 +1,155 @@
+package application;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Finds an ASCII keyword in UTF-8 text, ignoring ASCII case, without
+ * allocating. The scan reads eight bytes at a time and, with a few long
+ * operations (SWAR), tests all eight positions at once for the keyword's
+ * first byte and, at the matching offset, its last byte. The whole keyword
+ * is compared only where both match.
+ *
+ * Only ASCII letters are folded. UTF-8 encodes every non-ASCII character
+ * with bytes of 0x80 and above, so a match can never start or end inside
+ * one. Unlike String.toLowerCase, the scanner does not map the few
+ * non-ASCII letters that lower-case to ASCII (such as the Kelvin sign).
+ */
+public final class KeywordScanner {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final long CASE_BITS = 0x2020202020202020L;
+
+    private final byte[] keyword; // Lower-case ASCII
+    private final long firstPattern; // First keyword byte in every lane
+    private final long firstFold; // CASE_BITS if the first byte is a letter, else 0
+    private final long lastPattern; // Last keyword byte in every lane
+    private final long lastFold; // CASE_BITS if the last byte is a letter, else 0
+
+    private KeywordScanner(byte[] keyword) {
+        this.keyword = keyword;
+        this.firstPattern = (keyword[0] & 0xFFL) * ONES;
+        this.firstFold = isLetter(keyword[0]) ? CASE_BITS : 0;
+        byte last = keyword[keyword.length - 1];
+        this.lastPattern = (last & 0xFFL) * ONES;
+        this.lastFold = isLetter(last) ? CASE_BITS : 0;
+    }
+
+    /**
+     * Creates a scanner for a keyword.
+     *
+     * @param keyword The keyword; upper-case ASCII letters are folded.
+     * @return The scanner, or null if the keyword is empty or not ASCII,
+     *         in which case callers should fall back to String comparison.
+     */
+    public static KeywordScanner forKeyword(String keyword) {
+        if (keyword == null || keyword.isEmpty()) {
+            return null;
+        }
+        byte[] bytes = new byte[keyword.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = keyword.charAt(i);
+            if (c >= 0x80) {
+                return null;
+            }
+            bytes[i] = (byte) (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c);
+        }
+        return new KeywordScanner(bytes);
+    }
+
+    /**
+     * Checks whether UTF-8 text contains the keyword, ignoring ASCII case.
+     */
+    public boolean matches(byte[] text) {
+        return indexIn(text, 0, text.length) >= 0;
+    }
+
+    /**
+     * Checks whether a string contains the keyword, ignoring ASCII case.
+     * Allocation-free counterpart of text.toLowerCase().contains(keyword).
+     */
+    public boolean matches(String text) {
+        int last = text.length() - keyword.length;
+        for (int i = 0; i <= last; i++) {
+            if (regionMatches(text, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the first occurrence of the keyword in a range of UTF-8 text.
+     *
+     * @param text The text.
+     * @param from First index to search.
+     * @param to   End of the range, exclusive.
+     * @return The index where the keyword starts, or -1 if it does not occur.
+     */
+    public int indexIn(byte[] text, int from, int to) {
+        int last = to - keyword.length; // Last possible start
+        int lastOffset = keyword.length - 1;
+        int i = from;
+        // Eight candidate positions per step while whole words can be read at both ends of the keyword
+        for (; i + lastOffset + Long.BYTES <= to; i += Long.BYTES) {
+            long candidates = matchingLanes((long) LONGS.get(text, i) | firstFold, firstPattern)
+                    & matchingLanes((long) LONGS.get(text, i + lastOffset) | lastFold, lastPattern);
+            while (candidates != 0) {
+                // Bytes above a real match can be flagged falsely, so every candidate is verified
+                int at = i + (Long.numberOfTrailingZeros(candidates) >>> 3);
+                if (at <= last && regionMatches(text, at)) {
+                    return at;
+                }
+                candidates &= candidates - 1;
+            }
+        }
+        for (; i <= last; i++) {
+            if (regionMatches(text, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Sets the high bit of the lanes equal to the pattern; lanes above a real match may be flagged too
+    private static long matchingLanes(long word, long pattern) {
+        long diff = word ^ pattern;
+        return (diff - ONES) & ~diff & HIGHS;
+    }
+
+    private boolean regionMatches(byte[] text, int at) {
+        for (int k = 0; k < keyword.length; k++) {
+            if (lower(text[at + k]) != keyword[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionMatches(String text, int at) {
+        for (int k = 0; k < keyword.length; k++) {
+            char c = text.charAt(at + k);
+            if ((c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c) != keyword[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private static boolean isLetter(byte b) {
+        return b >= 'a' && b <= 'z';
+    }
+
+    @Override
+    public String toString() {
+        return new String(keyword, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,60 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The content levels of a help article. Articles still store the level text
+ * they were given, so an unrecognised level survives unchanged; of() maps
+ * the text to a Level so level filters and counts compare identities and
+ * index plain arrays by ordinal.
+ */
+public enum Level {
+    BEGINNER("Beginner"),
+    INTERMEDIATE("Intermediate"),
+    ADVANCED("Advanced"),
+    EXPERT("Expert");
+
+    private static final Level[] VALUES = values();
+
+    private final String displayName;
+
+    Level(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Returns the name used in the UI and stored with articles, e.g. "Beginner".
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Looks up a level by name, ignoring case.
+     *
+     * @param name The level name, e.g. "beginner" or "Expert".
+     * @return The level, or null if the name is null or not a known level.
+     */
+    public static Level of(String name) {
+        if (name != null) {
+            for (Level level : VALUES) {
+                if (level.displayName.equalsIgnoreCase(name)) {
+                    return level;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the display names of every level, lowest first.
+     */
+    public static List<String> displayNames() {
+        List<String> names = new ArrayList<>(VALUES.length);
+        for (Level level : VALUES) {
+            names.add(level.displayName);
+        }
+        return names;
+    }
+}
@@ -1,10 +1,19 @@
 package application;
 
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The Login class manages user authentication, registration, deletion,
@@ -13,18 +22,41 @@ import java.util.List;
  */
 public class Login {
 
-    private List<User> users = new ArrayList<>(); // List to store users
-    private List<Group> groups = new ArrayList<>(); // List to store groups
+    // Users and groups; both lists are copy-on-write so concurrent requests can iterate them safely
+    private List<User> users = new CopyOnWriteArrayList<>(); // List to store users
+    private Map<String, User> usersByName = new ConcurrentHashMap<>(); // The same users by username
+    // The same users by registration sequence, a cursor that deletions do not shift
+    private NavigableMap<Long, User> usersBySequence = new ConcurrentSkipListMap<>();
+    private long lastRegistration; // Sequence of the latest registration; guarded by registerUser's lock
+    private List<Group> groups = new CopyOnWriteArrayList<>(); // List to store groups
+    private ArticleRegistry articleRegistry = new ArticleRegistry(); // Index of all registered users' articles
     private static Login instance = null; // Singleton instance
 
-    // Encryption key for user passwords
-    private byte[] passwordEncryptionKey;
+    // Encryption keys for user passwords
+    private KeyRing passwordKeyRing;
 
-    // List to store messages
-    private List<Message> messages = new ArrayList<>();
+    // Messages, kept in bounded per-recipient and per-sender inboxes
+    private MessageStore messageStore = new MessageStore(10000, 1000);
 
     // List to store search queries
     private List<SearchQuery> searchQueries = new ArrayList<>();
+    private long lastSearchQueryId;
+
+    // Subscribers notified of new messages and searches
+    private List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Failed login attempts per username and per source, checked before any password is decrypted
+    private AttemptLimiter userAttempts = new AttemptLimiter(10, 5 * 60 * 1000L, 10);
+    private AttemptLimiter sourceAttempts = new AttemptLimiter(100, 60 * 1000L, 12);
+
+    // Sessions of clients that logged in through a token-based front end
+    private SessionManager sessionManager = new SessionManager(this, 30 * 60 * 1000L, 12 * 60 * 60 * 1000L);
+
+    // Users with a one-time password, expired proactively when their OTP runs out
+    private OtpExpiryScheduler otpScheduler = new OtpExpiryScheduler(this::expireOtp);
+
+    // Deleted article ids keyed by the modification stamp of the deletion, for incremental backups
+    private NavigableMap<Long, Long> articleDeletions = new ConcurrentSkipListMap<>();
 
     // Method to get the singleton instance
     public static Login getInstance() {
@@ -37,9 +69,9 @@ public class Login {
     private Login() {
         // Load or generate the encryption key
         try {
-            passwordEncryptionKey = EncryptionUtil.getPasswordKey();
+            passwordKeyRing = EncryptionUtil.getPasswordKeyRing();
         } catch (IOException e) {
-            System.out.println("Error loading encryption key: " + e.getMessage());
+            EventLog.error("key.load_failed", "key", "password", "error", e.getMessage());
             // Handle error appropriately
         }
     }
@@ -52,35 +84,107 @@ public class Login {
      * @return True if authentication is successful, else false.
      */
     public boolean authenticate(String username, String password) {
-        if (passwordEncryptionKey == null) {
-            System.out.println("Encryption key not available. Cannot authenticate users.");
+        return authenticate(username, password, null);
+    }
+
+    /**
+     * Authenticates a user, rejecting the attempt without checking the
+     * password if the username or the source has failed too often recently.
+     *
+     * @param username The username input.
+     * @param password The password input.
+     * @param source   Where the attempt comes from, e.g. a remote address, or null if unknown.
+     * @return True if authentication is successful, else false.
+     */
+    public boolean authenticate(String username, String password, String source) {
+        if (passwordKeyRing == null) {
+            EventLog.error("auth.key_unavailable");
+            return false;
+        }
+        if (!userAttempts.tryAcquire(username) || !sourceAttempts.tryAcquire(source)) {
+            EventLog.debug("auth.throttled", "user", username, "source", source);
             return false;
         }
+        if (checkPassword(username, password)) {
+            return true;
+        }
+        if (userAttempts.recordFailure(username) == userAttempts.getMaxAttempts()) {
+            EventLog.warn("auth.locked_out", "user", username);
+        }
+        if (sourceAttempts.recordFailure(source) == sourceAttempts.getMaxAttempts()) {
+            EventLog.warn("auth.source_locked_out", "source", source);
+        }
+        return false;
+    }
 
-        for (User user : users) {
-            if (user.getUsername().equals(username)) {
-                // Check for one-time password expiry
-                if (user.isOneTimePassword()) {
-                    if (LocalDateTime.now().isAfter(user.getOtpExpiry())) {
-                        System.out.println("One-time password has expired. Please reset your password.");
-                        return false;
-                    }
-                }
-                // Decrypt the stored password
-                String decryptedPassword;
-                try {
-                    decryptedPassword = EncryptionUtil.decrypt(user.getPassword(), passwordEncryptionKey);
-                } catch (Exception e) {
-                    System.out.println("Error decrypting password: " + e.getMessage());
-                    return false;
-                }
-                // Check if the password matches
-                if (decryptedPassword.equals(password)) {
-                    return true; // Authentication successful
-                }
+    // Compares a password with the stored one
+    private boolean checkPassword(String username, String password) {
+        User user = findUser(username);
+        if (user == null) {
+            return false;
+        }
+        // Check for one-time password expiry
+        if (user.isOneTimePassword()) {
+            if (LocalDateTime.now().isAfter(user.getOtpExpiry())) {
+                EventLog.info("auth.otp_expired", "user", username);
+                return false;
             }
         }
-        return false; // Authentication failed
+        if (user.getPassword() == null) {
+            return false; // An expired one-time password that was already invalidated
+        }
+        // Decrypt the stored password
+        String decryptedPassword;
+        try {
+            decryptedPassword = passwordKeyRing.decrypt(user.getPassword());
+        } catch (Exception e) {
+            EventLog.error("auth.decrypt_failed", "user", username, "error", e.getMessage());
+            return false;
+        }
+        // Check if the password matches
+        return decryptedPassword.equals(password);
+    }
+
+    /**
+     * Lists the users whose one-time password expires before a given time,
+     * soonest first, without scanning every user.
+     *
+     * @param time The end of the period of interest.
+     * @return The users, sorted by OTP expiry.
+     */
+    public List<User> listUsersWithOtpExpiringBefore(LocalDateTime time) {
+        return otpScheduler.expiringBefore(time);
+    }
+
+    // Called by the OTP scheduler when a user's one-time password has expired
+    void expireOtp(User user) {
+        synchronized (user) {
+            if (!user.isOneTimePassword()) {
+                return; // Reset in the meantime
+            }
+            user.setPassword(null); // The expired OTP can never be used again; drop it
+        }
+        sessionManager.logoutUser(user.getUsername());
+        EventLog.info("auth.otp_invalidated", "user", user.getUsername());
+        for (Listener listener : listeners) {
+            try {
+                listener.onOtpExpired(user);
+            } catch (RuntimeException e) {
+                EventLog.error("listener.failed", "event", "otp_expired", "error", e.getMessage());
+            }
+        }
+    }
+
+    public SessionManager getSessionManager() {
+        return sessionManager;
+    }
+
+    public AttemptLimiter getUserAttemptLimiter() {
+        return userAttempts;
+    }
+
+    public AttemptLimiter getSourceAttemptLimiter() {
+        return sourceAttempts;
     }
 
     /**
@@ -93,29 +197,33 @@ public class Login {
      * @param otpExpiry         Expiry time for one-time password.
      * @return The newly registered User object.
      */
-    public User registerUser(String username, String password, String role, boolean isOneTimePassword, LocalDateTime otpExpiry) {
-        if (passwordEncryptionKey == null) {
-            System.out.println("Encryption key not available. Cannot register users.");
+    public synchronized User registerUser(String username, String password, String role, boolean isOneTimePassword, LocalDateTime otpExpiry) {
+        if (passwordKeyRing == null) {
+            EventLog.error("user.register_key_unavailable", "user", username);
             return null;
         }
 
         // Check if username already exists
         if (findUser(username) != null) {
-            System.out.println("Username already exists. Please choose a different username.");
+            EventLog.info("user.register_duplicate", "user", username);
             return null;
         }
 
         User newUser;
         try {
             // Encrypt the password before storing
-            byte[] encryptedPassword = EncryptionUtil.encrypt(password, passwordEncryptionKey);
+            byte[] encryptedPassword = passwordKeyRing.encrypt(password);
             newUser = new User(username, encryptedPassword, role);
             newUser.setOneTimePassword(isOneTimePassword);
             newUser.setOtpExpiry(otpExpiry);
             users.add(newUser); // Add the new user to the list
+            usersByName.put(username, newUser);
+            usersBySequence.put(++lastRegistration, newUser);
+            newUser.attachRegistry(articleRegistry);
+            otpScheduler.track(newUser);
             return newUser;
         } catch (Exception e) {
-            System.out.println("Error encrypting password: " + e.getMessage());
+            EventLog.error("user.register_encrypt_failed", "user", username, "error", e.getMessage());
             return null;
         }
     }
@@ -126,8 +234,24 @@ public class Login {
      * @param usernameToDelete The username of the user to delete.
      * @return True if deletion is successful, else false.
      */
-    public boolean deleteUser(String usernameToDelete) {
-        return users.removeIf(user -> user.getUsername().equals(usernameToDelete));
+    public synchronized boolean deleteUser(String usernameToDelete) {
+        User user = usernameToDelete != null ? usersByName.remove(usernameToDelete) : null;
+        if (user == null) {
+            return false;
+        }
+        users.remove(user);
+        usersBySequence.values().remove(user);
+        user.detachRegistry();
+        // Tombstone the user's articles so replaying incremental backups does not bring them back
+        for (User.HelpArticle article : user.getAllHelpArticles()) {
+            if (articleRegistry.get(article.getId()) == null) { // Unless another user still holds the id
+                recordArticleDeletion(article.getId());
+            }
+        }
+        sessionManager.logoutUser(usernameToDelete);
+        otpScheduler.untrack(user);
+        messageStore.removeUser(usernameToDelete);
+        return true;
     }
 
     /**
@@ -138,8 +262,8 @@ public class Login {
      * @return True if password reset is successful, else false.
      */
     public boolean resetPassword(String usernameToReset, String newPassword) {
-        if (passwordEncryptionKey == null) {
-            System.out.println("Encryption key not available. Cannot reset passwords.");
+        if (passwordKeyRing == null) {
+            EventLog.error("user.reset_key_unavailable", "user", usernameToReset);
             return false;
         }
 
@@ -147,13 +271,18 @@ public class Login {
             if (user.getUsername().equals(usernameToReset)) {
                 try {
                     // Encrypt the new password before storing
-                    byte[] encryptedPassword = EncryptionUtil.encrypt(newPassword, passwordEncryptionKey);
-                    user.setPassword(encryptedPassword);
-                    user.setOneTimePassword(false); // Reset OTP flag
-                    user.setOtpExpiry(null); // Clear OTP expiry
+                    byte[] encryptedPassword = passwordKeyRing.encrypt(newPassword);
+                    // One step as seen by expireOtp, which would otherwise drop the new password
+                    synchronized (user) {
+                        user.setPassword(encryptedPassword);
+                        user.setOneTimePassword(false); // Reset OTP flag
+                        user.setOtpExpiry(null); // Clear OTP expiry
+                        otpScheduler.untrack(user);
+                    }
+                    sessionManager.logoutUser(usernameToReset); // Sessions opened with the old password end
                     return true;
                 } catch (Exception e) {
-                    System.out.println("Error encrypting new password: " + e.getMessage());
+                    EventLog.error("user.reset_encrypt_failed", "user", usernameToReset, "error", e.getMessage());
                     return false;
                 }
             }
@@ -172,6 +301,105 @@ public class Login {
         return new ArrayList<>(users); // Return a copy of the users list
     }
 
+    /**
+     * Lists one page of users in registration order, optionally only those
+     * with a given role. The cursor is a registration sequence number, so
+     * users registered or deleted between pages never shift the next page.
+     *
+     * @param cursor Cursor from the previous page, or 0 for the first page.
+     * @param limit  Maximum number of users on the page.
+     * @param role   Role to filter by (case-insensitive), or null for every role.
+     * @return The page of users; its cursor is the sequence of the last user visited.
+     */
+    public Page<User> listUsers(long cursor, int limit, String role) {
+        List<User> items = new ArrayList<>(Math.min(limit, 1024));
+        long next = cursor;
+        for (Map.Entry<Long, User> entry : usersBySequence.tailMap(cursor, false).entrySet()) {
+            if (items.size() >= limit) {
+                return new Page<>(items, next, true);
+            }
+            if (role == null || role.equalsIgnoreCase(entry.getValue().getRole())) {
+                items.add(entry.getValue());
+            }
+            next = entry.getKey();
+        }
+        return new Page<>(items, next, false);
+    }
+
+    /**
+     * Lists one page of help articles across all users in id order.
+     *
+     * @param afterId Cursor from the previous page, or Long.MIN_VALUE for the first page.
+     * @param limit   Number of articles on the page.
+     * @param group   Group to filter by, or null for every group.
+     * @param author  Author to filter by, or null for every author.
+     * @return The page of articles.
+     */
+    public Page<User.HelpArticle> listArticles(long afterId, int limit, String group, String author) {
+        return articleRegistry.page(afterId, limit, group, author);
+    }
+
+    /**
+     * Rotates the password and article keys and starts re-encrypting stored
+     * passwords and special access bodies with the new keys in the background.
+     * Data encrypted with the old keys stays readable throughout.
+     *
+     * @param maxPerSecond Maximum number of passwords and articles re-encrypted per second.
+     * @return The running re-encryption job.
+     * @throws IOException If a key ring cannot be loaded or saved.
+     */
+    public KeyRotationJob rotateKeys(int maxPerSecond) throws IOException {
+        KeyRing articleKeyRing = EncryptionUtil.getArticleKeyRing();
+        passwordKeyRing.rotate();
+        articleKeyRing.rotate();
+        KeyRotationJob job = new KeyRotationJob(this, passwordKeyRing, articleKeyRing, maxPerSecond);
+        job.start();
+        return job;
+    }
+
+    /**
+     * Re-encrypts a user's password with the active password key if it was
+     * encrypted with an older one.
+     *
+     * @param user The user whose password to migrate.
+     * @return True if the password was re-encrypted.
+     * @throws Exception If the password cannot be decrypted or encrypted.
+     */
+    boolean reencryptPassword(User user) throws Exception {
+        synchronized (user) {
+            byte[] stored = user.getPassword();
+            if (stored == null || passwordKeyRing.isCurrent(stored)) {
+                return false;
+            }
+            user.setPassword(passwordKeyRing.encrypt(passwordKeyRing.decrypt(stored)));
+            return true;
+        }
+    }
+
+    /**
+     * Deletes the help article with the given id from every user holding it.
+     * Owners are found through the article registry, so no user or article
+     * list is scanned, and the registry's group, level and author indexes are
+     * updated as part of the removal.
+     *
+     * @param id The id of the article to delete.
+     * @return True if an article was deleted, else false.
+     */
+    public boolean deleteArticle(long id) {
+        List<User> owners = articleRegistry.getOwners(id);
+        for (User owner : owners) {
+            owner.removeHelpArticle(id);
+        }
+        return !owners.isEmpty();
+    }
+
+    /**
+     * Returns the index of all registered users' help articles.
+     */
+    public ArticleRegistry getArticleRegistry() {
+        return articleRegistry;
+    }
+
     /**
      * Finds a user by their username.
      *
@@ -179,32 +407,92 @@ public class Login {
      * @return The User object if found, else null.
      */
     public User findUser(String username) {
-        for (User user : users) {
-            if (user.getUsername().equals(username)) {
-                return user; // User found
-            }
-        }
-        return null; // User not found
+        return username != null ? usersByName.get(username) : null;
     }
     
     /**
-     * Adds a message to the system.
+     * Adds a message for the staff (instructors and admins) to the system.
      *
      * @param username      The username of the sender.
      * @param messageContent The content of the message.
      */
     public void addMessage(String username, String messageContent) {
-        Message message = new Message(username, messageContent, LocalDateTime.now());
-        messages.add(message);
+        addMessage(username, null, messageContent);
+    }
+
+    /**
+     * Adds a message addressed to a specific user.
+     *
+     * @param username       The username of the sender.
+     * @param recipient      The username of the recipient, or null for the staff.
+     * @param messageContent The content of the message.
+     * @return The stored message.
+     * @throws IllegalArgumentException If the recipient is not a registered user.
+     */
+    public Message addMessage(String username, String recipient, String messageContent) {
+        if (recipient != null && findUser(recipient) == null) {
+            throw new IllegalArgumentException("No user " + recipient);
+        }
+        Message message = messageStore.post(username, recipient, messageContent);
+        for (Listener listener : listeners) {
+            try {
+                listener.onMessage(message);
+            } catch (RuntimeException e) {
+                EventLog.error("listener.failed", "event", "message", "error", e.getMessage());
+            }
+        }
+        return message;
     }
 
     /**
-     * Retrieves all messages.
+     * Retrieves all retained messages.
      *
-     * @return A list of all messages.
+     * @return A list of all messages, oldest first.
      */
     public List<Message> getMessages() {
-        return new ArrayList<>(messages);
+        return messageStore.readAll();
+    }
+
+    /**
+     * Retrieves messages newer than the given id.
+     *
+     * @param afterId The id of the last message already seen (0 for all).
+     * @return The newer messages, oldest first.
+     */
+    public List<Message> getMessagesSince(long afterId) {
+        return messageStore.readSince(afterId);
+    }
+
+    /**
+     * Retrieves messages addressed to a recipient that are newer than the given id.
+     *
+     * @param recipient The recipient's username.
+     * @param afterId   The id of the last message already seen (0 for all).
+     * @return The newer messages, oldest first; never the staff mail.
+     */
+    public List<Message> getMessagesForRecipient(String recipient, long afterId) {
+        return messageStore.readForRecipient(recipient, afterId);
+    }
+
+    /**
+     * Retrieves messages addressed to the staff that are newer than the given id.
+     *
+     * @param afterId The id of the last message already seen (0 for all).
+     * @return The newer messages, oldest first.
+     */
+    public List<Message> getStaffMessages(long afterId) {
+        return messageStore.readForStaff(afterId);
+    }
+
+    /**
+     * Retrieves messages sent by a user that are newer than the given id.
+     *
+     * @param sender  The sender's username.
+     * @param afterId The id of the last message already seen (0 for all).
+     * @return The newer messages, oldest first.
+     */
+    public List<Message> getMessagesFromSender(String sender, long afterId) {
+        return messageStore.readFromSender(sender, afterId);
     }
 
     // Search Query Handling Methods
@@ -216,8 +504,18 @@ public class Login {
      * @param query    The search query.
      */
     public void addSearchQuery(String username, String query) {
-        SearchQuery searchQuery = new SearchQuery(username, query, LocalDateTime.now());
-        searchQueries.add(searchQuery);
+        SearchQuery searchQuery;
+        synchronized (searchQueries) {
+            searchQuery = new SearchQuery(++lastSearchQueryId, username, query, LocalDateTime.now());
+            searchQueries.add(searchQuery);
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.onSearchQuery(searchQuery);
+            } catch (RuntimeException e) {
+                EventLog.error("listener.failed", "event", "search", "error", e.getMessage());
+            }
+        }
     }
 
     /**
@@ -226,38 +524,111 @@ public class Login {
      * @return A list of all search queries.
      */
     public List<SearchQuery> getSearchQueries() {
-        return new ArrayList<>(searchQueries);
+        synchronized (searchQueries) {
+            return new ArrayList<>(searchQueries);
+        }
+    }
+
+    /**
+     * Retrieves search queries newer than the given id.
+     *
+     * @param afterId The id of the last search query already seen (0 for all).
+     * @return The newer search queries, oldest first.
+     */
+    public List<SearchQuery> getSearchQueriesSince(long afterId) {
+        synchronized (searchQueries) {
+            // Binary search for the first query with id > afterId; the list is in id order
+            int low = 0;
+            int high = searchQueries.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (searchQueries.get(mid).getId() <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return new ArrayList<>(searchQueries.subList(low, searchQueries.size()));
+        }
+    }
+
+    // Event Subscription Methods
+
+    /**
+     * Receives new messages and search queries as they are added, and users
+     * whose one-time password expired. Callbacks run on the thread that caused
+     * the event and should return quickly.
+     */
+    public interface Listener {
+        default void onMessage(Message message) { }
+        default void onSearchQuery(SearchQuery query) { }
+        default void onOtpExpired(User user) { }
+    }
+
+    /**
+     * Subscribes a listener to message and search events.
+     *
+     * @param listener The listener to add.
+     */
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously subscribed listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
     }
 
     // Inner class for Message
     public static class Message {
+        private long id;
         private String username;
+        private String recipient;
         private String content;
         private LocalDateTime timestamp;
 
         public Message(String username, String content, LocalDateTime timestamp) {
+            this(0, username, MessageStore.STAFF_RECIPIENT, content, timestamp);
+        }
+
+        public Message(long id, String username, String recipient, String content, LocalDateTime timestamp) {
+            this.id = id;
             this.username = username;
+            this.recipient = recipient;
             this.content = content;
             this.timestamp = timestamp;
         }
 
+        public long getId() { return id; }
         public String getUsername() { return username; }
+        public String getRecipient() { return recipient; }
         public String getContent() { return content; }
         public LocalDateTime getTimestamp() { return timestamp; }
     }
 
     // Inner class for SearchQuery
     public static class SearchQuery {
+        private long id;
         private String username;
         private String query;
         private LocalDateTime timestamp;
 
         public SearchQuery(String username, String query, LocalDateTime timestamp) {
+            this(0, username, query, timestamp);
+        }
+
+        public SearchQuery(long id, String username, String query, LocalDateTime timestamp) {
+            this.id = id;
             this.username = username;
             this.query = query;
             this.timestamp = timestamp;
         }
 
+        public long getId() { return id; }
         public String getUsername() { return username; }
         public String getQuery() { return query; }
         public LocalDateTime getTimestamp() { return timestamp; }
@@ -273,17 +644,17 @@ public class Login {
      * @param isSpecialAccess True if it's a special access group.
      * @return The newly created Group object.
      */
-    public Group createGroup(String groupName, boolean isSpecialAccess) {
+    public synchronized Group createGroup(String groupName, boolean isSpecialAccess) {
         // Check if group already exists
         for (Group group : groups) {
             if (group.getGroupName().equals(groupName)) {
-                System.out.println("Group already exists.");
+                EventLog.info("group.create_duplicate", "group", groupName);
                 return null;
             }
         }
         Group newGroup = new Group(groupName, isSpecialAccess);
         groups.add(newGroup);
-        System.out.println("Group created: " + groupName);
+        EventLog.info("group.created", "group", groupName, "special", isSpecialAccess);
         return newGroup;
     }
     
@@ -299,7 +670,7 @@ public class Login {
         if (group != null) {
             return group.addUser(user);
         } else {
-            System.out.println("Group not found.");
+            EventLog.info("group.not_found", "group", groupName);
             return false;
         }
     }
@@ -316,7 +687,7 @@ public class Login {
         if (group != null) {
             return group.removeUser(user);
         } else {
-            System.out.println("Group not found.");
+            EventLog.info("group.not_found", "group", groupName);
             return false;
         }
     }
@@ -351,25 +722,106 @@ public class Login {
      *
      * @param filename    The name of the file to back up to.
      * @param currentUser The user performing the backup.
+     * @return The checkpoint to pass to the next incremental backup, or -1 on failure.
+     */
+    public long backupHelpArticles(String filename, User currentUser) {
+        // Take the checkpoint first so changes made during the backup land in the next delta
+        long checkpoint = User.HelpArticle.currentModificationStamp();
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
+            List<User.HelpArticle> accessibleArticles = collectAccessibleArticles(currentUser);
+            oos.writeObject(checkpoint); // Header: the checkpoint the first delta must start from
+            oos.writeObject(accessibleArticles); // Serialize the articles list
+            EventLog.info("backup.completed", "file", filename, "articles", accessibleArticles.size());
+            return checkpoint;
+        } catch (IOException e) {
+            EventLog.error("backup.failed", "file", filename, "error", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Backs up help articles the current user has access to in the block-compressed
+     * format (see CompressedBackup). Restore detects the format automatically.
+     *
+     * @param filename    The name of the file to back up to.
+     * @param currentUser The user performing the backup.
+     * @return The checkpoint to pass to the next incremental backup, or -1 on failure.
+     */
+    public long backupHelpArticlesCompressed(String filename, User currentUser) {
+        long checkpoint = User.HelpArticle.currentModificationStamp();
+        try {
+            List<User.HelpArticle> accessibleArticles = collectAccessibleArticles(currentUser);
+            CompressedBackup.write(Paths.get(filename), accessibleArticles,
+                    CompressedBackup.DEFAULT_BLOCK_ARTICLES, checkpoint);
+            EventLog.info("backup.completed", "file", filename, "articles", accessibleArticles.size());
+            return checkpoint;
+        } catch (IOException e) {
+            EventLog.error("backup.failed", "file", filename, "error", e.getMessage());
+            return -1;
+        }
+    }
+
+    // Collects help articles the user has access to
+    private List<User.HelpArticle> collectAccessibleArticles(User currentUser) {
+        List<User.HelpArticle> accessibleArticles = new ArrayList<>();
+        for (User user : users) {
+            for (User.HelpArticle article : user.getAllHelpArticles()) {
+                if (article.userHasAccess(currentUser)) {
+                    accessibleArticles.add(article);
+                }
+            }
+        }
+        return accessibleArticles;
+    }
+
+    /**
+     * Backs up only the accessible help articles created, updated or deleted after
+     * the given checkpoint.
+     *
+     * @param filename         The name of the file to back up to.
+     * @param currentUser      The user performing the backup.
+     * @param sinceCheckpoint  Checkpoint returned by the previous full or incremental backup.
+     * @return The checkpoint to pass to the next incremental backup, or -1 on failure.
      */
-    public void backupHelpArticles(String filename, User currentUser) {
+    public long backupHelpArticlesIncremental(String filename, User currentUser, long sinceCheckpoint) {
+        long checkpoint = User.HelpArticle.currentModificationStamp();
         try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            List<User.HelpArticle> accessibleArticles = new ArrayList<>();
-            // Collect help articles the user has access to
+            List<User.HelpArticle> changedArticles = new ArrayList<>();
             for (User user : users) {
                 for (User.HelpArticle article : user.getAllHelpArticles()) {
-                    if (article.userHasAccess(currentUser)) {
-                        accessibleArticles.add(article);
+                    if (article.getLastModified() > sinceCheckpoint && article.userHasAccess(currentUser)) {
+                        changedArticles.add(article);
                     }
                 }
             }
-            oos.writeObject(accessibleArticles); // Serialize the articles list
-            System.out.println("Backup completed successfully.");
+            // Ids deleted since the checkpoint, unless an article with that id exists again
+            Set<Long> changedIds = new HashSet<>();
+            for (User.HelpArticle article : changedArticles) {
+                changedIds.add(article.getId());
+            }
+            long[] deletedIds = articleDeletions.tailMap(sinceCheckpoint, false).values().stream()
+                    .filter(id -> !changedIds.contains(id))
+                    .mapToLong(Long::longValue)
+                    .distinct()
+                    .toArray();
+            oos.writeObject(new BackupDelta(sinceCheckpoint, checkpoint, changedArticles, deletedIds));
+            EventLog.info("backup.incremental_completed", "file", filename, "changed", changedArticles.size());
+            return checkpoint;
         } catch (IOException e) {
-            System.out.println("Error during backup: " + e.getMessage());
+            EventLog.error("backup.failed", "file", filename, "error", e.getMessage());
+            return -1;
         }
     }
 
+    /**
+     * Records that an article was deleted so the next incremental backup carries it.
+     *
+     * @param id The id of the deleted article.
+     */
+    public void recordArticleDeletion(long id) {
+        articleDeletions.put(User.HelpArticle.nextModificationStamp(), id);
+    }
+
     /**
      * Restores help articles from a specified file, considering access rights.
      *
@@ -378,53 +830,125 @@ public class Login {
      * @param currentUser The user performing the restore.
      */
     public void restoreHelpArticles(String filename, boolean merge, User currentUser) {
+        restoreHelpArticles(filename, merge ? ArticleMerger.ConflictPolicy.KEEP_EXISTING : null, currentUser);
+    }
+
+    /**
+     * Restores help articles from a specified file, resolving id conflicts with
+     * the given policy.
+     *
+     * @param filename    The name of the file to restore from.
+     * @param policy      How to resolve id conflicts, or null to replace existing articles.
+     * @param currentUser The user performing the restore.
+     * @return Counts of what the restore did, or null if it failed.
+     */
+    public ArticleMerger.MergeResult restoreHelpArticles(String filename, ArticleMerger.ConflictPolicy policy, User currentUser) {
+        try {
+            List<User.HelpArticle> restoredArticles = readFullBackup(filename).articles;
+            return applyRestoredArticles(restoredArticles, policy, currentUser, filename);
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            EventLog.error("restore.failed", "file", filename, "error", e.getMessage());
+            return null;
+        }
+    }
+
+    // The articles of a full backup and the checkpoint it was taken at
+    private static final class FullBackup {
+        final List<User.HelpArticle> articles;
+        final long checkpoint; // -1 for backups written before checkpoints were recorded
+
+        FullBackup(List<User.HelpArticle> articles, long checkpoint) {
+            this.articles = articles;
+            this.checkpoint = checkpoint;
+        }
+    }
+
+    // Reads a full backup in either the serialized-list or the block-compressed format
+    @SuppressWarnings("unchecked")
+    private FullBackup readFullBackup(String filename) throws IOException, ClassNotFoundException {
+        Path path = Paths.get(filename);
+        if (CompressedBackup.isCompressedBackup(path)) {
+            return new FullBackup(CompressedBackup.read(path), CompressedBackup.readCheckpoint(path));
+        }
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
-            List<User.HelpArticle> restoredArticles = (List<User.HelpArticle>) ois.readObject();
-            if (currentUser == null) {
-                System.out.println("No user is currently logged in.");
-                return;
+            Object first = ois.readObject();
+            if (first instanceof Long) {
+                return new FullBackup((List<User.HelpArticle>) ois.readObject(), (Long) first);
             }
+            return new FullBackup((List<User.HelpArticle>) first, -1); // Older backups hold only the list
+        }
+    }
 
-            if (!currentUser.isAdmin() && !currentUser.isInstructor()) {
-                System.out.println("You do not have permission to restore articles.");
-                return;
+    /**
+     * Restores help articles from a full backup followed by a chain of incremental
+     * backups, replaying each delta's updates and deletions in order.
+     *
+     * @param baseFilename   The full backup file.
+     * @param deltaFilenames The incremental backup files, oldest first.
+     * @param merge          If true, merge with existing articles; else, replace existing articles.
+     * @param currentUser    The user performing the restore.
+     * @return True if the whole chain was replayed and applied.
+     */
+    public boolean restoreHelpArticles(String baseFilename, List<String> deltaFilenames, boolean merge, User currentUser) {
+        Map<Long, User.HelpArticle> replayed = new LinkedHashMap<>();
+        String current = baseFilename;
+        try {
+            FullBackup base = readFullBackup(baseFilename);
+            for (User.HelpArticle article : base.articles) {
+                replayed.put(article.getId(), article);
             }
-
-            if (merge) {
-                // Merge articles without duplicates
-                for (User.HelpArticle article : restoredArticles) {
-                    boolean exists = currentUser.getAllHelpArticles().stream()
-                            .anyMatch(existingArticle -> existingArticle.getId() == article.getId());
-                    if (!exists && article.userHasAccess(currentUser)) {
-                        currentUser.addHelpArticle(article);
-                    }
+            // The first delta must start at the base's checkpoint, unless the base predates recording it
+            long previousCheckpoint = base.checkpoint;
+            for (String deltaFilename : deltaFilenames) {
+                current = deltaFilename;
+                BackupDelta delta;
+                try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(deltaFilename))) {
+                    delta = (BackupDelta) ois.readObject();
                 }
-            } else {
-                // Replace existing articles with restored ones
-                currentUser.getAllHelpArticles().clear();
-                for (User.HelpArticle article : restoredArticles) {
-                    if (article.userHasAccess(currentUser)) {
-                        currentUser.addHelpArticle(article);
-                    }
+                // Each delta must start where the previous one ended
+                if (previousCheckpoint != -1 && delta.getBaseCheckpoint() != previousCheckpoint) {
+                    EventLog.error("restore.chain_broken", "file", deltaFilename, "expected", previousCheckpoint);
+                    return false;
+                }
+                previousCheckpoint = delta.getCheckpoint();
+                for (User.HelpArticle article : delta.getChangedArticles()) {
+                    replayed.put(article.getId(), article);
+                }
+                for (long id : delta.getDeletedIds()) {
+                    replayed.remove(id);
                 }
             }
-            System.out.println("Restore completed successfully.");
-        } catch (IOException | ClassNotFoundException e) {
-            System.out.println("Error during restore: " + e.getMessage());
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            EventLog.error("restore.failed", "file", current, "error", e.getMessage());
+            return false;
+        }
+        return applyRestoredArticles(new ArrayList<>(replayed.values()),
+                merge ? ArticleMerger.ConflictPolicy.KEEP_EXISTING : null, currentUser, baseFilename) != null;
+    }
+
+    // Merges restored articles into the current user's list, honouring access rights
+    private ArticleMerger.MergeResult applyRestoredArticles(List<User.HelpArticle> restoredArticles,
+            ArticleMerger.ConflictPolicy policy, User currentUser, String filename) {
+        if (currentUser == null) {
+            EventLog.warn("restore.no_user", "file", filename);
+            return null;
+        }
+
+        if (!currentUser.isAdmin() && !currentUser.isInstructor()) {
+            EventLog.warn("restore.denied", "user", currentUser.getUsername());
+            return null;
         }
+
+        ArticleMerger.MergeResult result = policy != null
+                ? ArticleMerger.merge(currentUser, restoredArticles, policy)
+                : ArticleMerger.replace(currentUser, restoredArticles);
+        EventLog.info("restore.completed", "file", filename, "result", result);
+        return result;
     }
     
  // In Login.java
     public boolean deleteGroup(String groupName) {
-        Iterator<Group> iterator = groups.iterator();
-        while (iterator.hasNext()) {
-            Group group = iterator.next();
-            if (group.getGroupName().equals(groupName)) {
-                iterator.remove();
-                return true;
-            }
-        }
-        return false;
+        return groups.removeIf(group -> group.getGroupName().equals(groupName));
     }
 
 }
@@ -0,0 +1,167 @@
+package application;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores messages in bounded inboxes: one for all messages, one for the staff,
+ * one per recipient and one per sender. Message ids increase monotonically, so
+ * a reader keeps the last id it has seen and asks only for newer messages;
+ * such reads cost O(log n + new messages) instead of copying the whole history.
+ *
+ * Staff mail has its own inbox rather than a recipient key, so no username,
+ * not even one equal to STAFF_RECIPIENT, can read it as its own mail.
+ */
+public class MessageStore {
+
+    /** Recipient shown on messages addressed to all instructors and admins. */
+    public static final String STAFF_RECIPIENT = "staff";
+
+    private final int inboxCapacity;
+    private final MessageInbox allMessages;
+    private final MessageInbox staffMessages;
+    private final Map<String, MessageInbox> byRecipient = new ConcurrentHashMap<>();
+    private final Map<String, MessageInbox> bySender = new ConcurrentHashMap<>();
+    private long lastId;
+
+    /**
+     * @param totalCapacity Number of messages kept in the all-messages inbox.
+     * @param inboxCapacity Number of messages kept per recipient and per sender.
+     */
+    public MessageStore(int totalCapacity, int inboxCapacity) {
+        this.allMessages = new MessageInbox(totalCapacity);
+        this.staffMessages = new MessageInbox(inboxCapacity);
+        this.inboxCapacity = inboxCapacity;
+    }
+
+    /**
+     * Stores a new message. Posting is serialized so every inbox receives
+     * messages in id order.
+     *
+     * @param sender    The username of the sender.
+     * @param recipient The recipient's username, or null for the staff inbox.
+     * @param content   The content of the message.
+     * @return The stored message with its id.
+     */
+    public synchronized Login.Message post(String sender, String recipient, String content) {
+        String to = recipient != null ? recipient : STAFF_RECIPIENT;
+        Login.Message message = new Login.Message(++lastId, sender, to, content, LocalDateTime.now());
+        allMessages.add(message);
+        if (recipient != null) {
+            byRecipient.computeIfAbsent(recipient, k -> new MessageInbox(inboxCapacity)).add(message);
+        } else {
+            staffMessages.add(message);
+        }
+        bySender.computeIfAbsent(sender, k -> new MessageInbox(inboxCapacity)).add(message);
+        return message;
+    }
+
+    public synchronized long getLatestId() {
+        return lastId;
+    }
+
+    /**
+     * Returns all retained messages, oldest first.
+     */
+    public List<Login.Message> readAll() {
+        return allMessages.readSince(0);
+    }
+
+    /**
+     * Returns retained messages with an id greater than afterId, oldest first.
+     */
+    public List<Login.Message> readSince(long afterId) {
+        return allMessages.readSince(afterId);
+    }
+
+    /**
+     * Returns retained messages addressed to the staff with an id greater than afterId.
+     */
+    public List<Login.Message> readForStaff(long afterId) {
+        return staffMessages.readSince(afterId);
+    }
+
+    /**
+     * Returns retained messages addressed to a user with an id greater than
+     * afterId. Staff mail is never included; see readForStaff.
+     */
+    public List<Login.Message> readForRecipient(String recipient, long afterId) {
+        MessageInbox inbox = byRecipient.get(recipient);
+        return inbox != null ? inbox.readSince(afterId) : new ArrayList<>();
+    }
+
+    public List<Login.Message> readFromSender(String sender, long afterId) {
+        MessageInbox inbox = bySender.get(sender);
+        return inbox != null ? inbox.readSince(afterId) : new ArrayList<>();
+    }
+
+    /**
+     * Drops the inboxes of a user, so a user later registered under the same
+     * name does not inherit them. Their messages stay in the all-messages inbox.
+     */
+    public synchronized void removeUser(String username) {
+        byRecipient.remove(username);
+        bySender.remove(username);
+    }
+
+    // Bounded ring of messages in id order; the oldest message is dropped when full.
+    // The array starts small and doubles up to the capacity, so quiet users cost little.
+    private static class MessageInbox {
+        private static final int INITIAL_SIZE = 16;
+
+        private final int capacity;
+        private Login.Message[] ring;
+        private int start;
+        private int size;
+
+        MessageInbox(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            this.ring = new Login.Message[Math.min(this.capacity, INITIAL_SIZE)];
+        }
+
+        synchronized void add(Login.Message message) {
+            if (size == ring.length && ring.length < capacity) {
+                grow();
+            }
+            if (size == ring.length) {
+                ring[start] = message;
+                start = (start + 1) % ring.length;
+            } else {
+                ring[(start + size) % ring.length] = message;
+                size++;
+            }
+        }
+
+        // Copies the messages oldest first into a larger array, so start goes back to 0
+        private void grow() {
+            Login.Message[] larger = new Login.Message[(int) Math.min((long) ring.length * 2, capacity)];
+            for (int i = 0; i < size; i++) {
+                larger[i] = ring[(start + i) % ring.length];
+            }
+            ring = larger;
+            start = 0;
+        }
+
+        synchronized List<Login.Message> readSince(long afterId) {
+            // Binary search for the first message with id > afterId
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ring[(start + mid) % ring.length].getId() <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            List<Login.Message> result = new ArrayList<>(size - low);
+            for (int i = low; i < size; i++) {
+                result.add(ring[(start + i) % ring.length]);
+            }
+            return result;
+        }
+    }
+}
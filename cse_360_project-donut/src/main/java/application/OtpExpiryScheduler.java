@@ -0,0 +1,142 @@
+package application;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * Tracks users with a one-time password and expires them when their OTP
+ * expiry passes, instead of waiting for the next login attempt to notice.
+ * Expiry is driven by a timer wheel; the tracked users are also kept sorted
+ * by expiry so the accounts expiring soonest can be listed without scanning
+ * every user.
+ */
+public class OtpExpiryScheduler {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 1024;
+
+    private static final Comparator<Tracked> BY_EXPIRY =
+            Comparator.comparingLong((Tracked t) -> t.expiresAt).thenComparing(t -> t.user.getUsername());
+
+    private final TimerWheel<Tracked> wheel;
+    private final Consumer<User> onExpired;
+    private final boolean backgroundSweep;
+
+    // Tracked users by username, and the same entries sorted by expiry
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+    private final NavigableSet<Tracked> byExpiry = new ConcurrentSkipListSet<>(BY_EXPIRY);
+
+    private static final class Tracked {
+        final User user;
+        final long expiresAt;
+
+        Tracked(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * @param onExpired Called with each user whose one-time password expired.
+     */
+    public OtpExpiryScheduler(Consumer<User> onExpired) {
+        this(onExpired, true);
+    }
+
+    // Constructor for tests, which drive expiry through sweep(now)
+    OtpExpiryScheduler(Consumer<User> onExpired, boolean backgroundSweep) {
+        this.onExpired = onExpired;
+        this.backgroundSweep = backgroundSweep;
+        this.wheel = new TimerWheel<>(TICK_MILLIS, WHEEL_SIZE, this::fire);
+    }
+
+    /**
+     * Starts tracking a user's OTP expiry, replacing any earlier expiry, or
+     * stops tracking the user if they no longer have a one-time password.
+     *
+     * @param user The user.
+     */
+    public void track(User user) {
+        if (!user.isOneTimePassword() || user.getOtpExpiry() == null) {
+            untrack(user);
+            return;
+        }
+        Tracked entry = new Tracked(user, toMillis(user.getOtpExpiry()));
+        Tracked previous = tracked.put(user.getUsername(), entry);
+        if (previous != null) {
+            byExpiry.remove(previous);
+        }
+        byExpiry.add(entry);
+        wheel.schedule(entry, entry.expiresAt);
+        if (backgroundSweep) {
+            wheel.start("donut-otp-expiry"); // No-op once started
+        }
+    }
+
+    /**
+     * Stops tracking a user, e.g. after their password was reset.
+     *
+     * @param user The user.
+     */
+    public void untrack(User user) {
+        Tracked previous = tracked.remove(user.getUsername());
+        if (previous != null) {
+            byExpiry.remove(previous);
+        }
+    }
+
+    /**
+     * Lists the tracked users whose one-time password expires before a time,
+     * soonest first.
+     *
+     * @param time The end of the period of interest.
+     * @return The users, sorted by OTP expiry.
+     */
+    public List<User> expiringBefore(LocalDateTime time) {
+        List<User> users = new ArrayList<>();
+        long limit = toMillis(time);
+        for (Tracked entry : byExpiry) {
+            if (entry.expiresAt >= limit) {
+                break;
+            }
+            users.add(entry.user);
+        }
+        return users;
+    }
+
+    public int size() {
+        return tracked.size();
+    }
+
+    /**
+     * Expires the one-time passwords that expired by now. The background
+     * sweeper calls this every second.
+     *
+     * @param now The current time in epoch milliseconds.
+     * @return The number of timeouts handled.
+     */
+    int sweep(long now) {
+        return wheel.advance(now);
+    }
+
+    // Called by the wheel once an entry's expiry has passed
+    private void fire(Tracked entry) {
+        // Skip entries replaced or removed since they were scheduled
+        if (tracked.remove(entry.user.getUsername(), entry)) {
+            byExpiry.remove(entry);
+            onExpired.accept(entry.user);
+        }
+    }
+
+    static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,28 @@
+package application;
+
+import java.util.List;
+
+/**
+ * One page of a paged listing. The cursor is passed back to fetch the next
+ * page; its meaning (an article id, a registration sequence) depends on the listing.
+ *
+ * @param <T> The type of item listed.
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final long nextCursor;
+    private final boolean hasMore;
+
+    public Page(List<T> items, long nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<T> getItems() { return items; }
+
+    public long getNextCursor() { return nextCursor; }
+
+    public boolean hasMore() { return hasMore; }
+}
@@ -0,0 +1,165 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs service requests and the subtasks they fan out to. In VIRTUAL mode
+ * (the default) every request and subtask gets its own virtual thread, so a
+ * request blocked on key files, backups or body reads does not hold a
+ * platform thread. PLATFORM mode runs them on fixed pools of platform
+ * threads instead, for comparison benchmarks.
+ *
+ * The mode is read from the donut.executor system property ("virtual" or
+ * "platform") and the platform pool size from donut.executor.threads.
+ */
+public class RequestExecutor implements AutoCloseable {
+
+    public enum Mode { VIRTUAL, PLATFORM }
+
+    private final Mode mode;
+    private final ExecutorService requests;
+    private final ExecutorService subtasks;
+
+    /**
+     * @param mode            Whether to use virtual or platform threads.
+     * @param platformThreads Size of each platform pool; ignored in VIRTUAL mode.
+     */
+    public RequestExecutor(Mode mode, int platformThreads) {
+        this.mode = mode;
+        if (mode == Mode.VIRTUAL) {
+            this.requests = Executors.newVirtualThreadPerTaskExecutor();
+            this.subtasks = requests;
+        } else {
+            // Separate pools, so requests waiting on their subtasks cannot starve them of threads
+            this.requests = Executors.newFixedThreadPool(platformThreads, daemonThreads("donut-request-"));
+            this.subtasks = Executors.newFixedThreadPool(platformThreads, daemonThreads("donut-subtask-"));
+        }
+    }
+
+    /**
+     * Creates an executor configured by the donut.executor and
+     * donut.executor.threads system properties.
+     */
+    public static RequestExecutor fromSystemProperties() {
+        Mode mode = Mode.valueOf(System.getProperty("donut.executor", "virtual").toUpperCase());
+        int threads = Integer.getInteger("donut.executor.threads", Runtime.getRuntime().availableProcessors() * 4);
+        return new RequestExecutor(mode, threads);
+    }
+
+    public Mode getMode() { return mode; }
+
+    /**
+     * Returns the executor that requests run on.
+     */
+    public ExecutorService requests() {
+        return requests;
+    }
+
+    /**
+     * Runs tasks concurrently and returns their results in task order. The
+     * call is structured: the tasks do not outlive it. It returns once every
+     * task has finished; if one task fails or the caller is interrupted, the
+     * remaining tasks are cancelled (interrupted), the call waits until each
+     * of them has stopped or was skipped, and the failure is thrown.
+     *
+     * @param tasks The tasks to run.
+     * @return The results, in the order of the tasks.
+     * @throws Exception The first exception thrown by a task.
+     */
+    public <T> List<T> fanOut(List<? extends Callable<T>> tasks) throws Exception {
+        if (tasks.size() == 1) {
+            List<T> single = new ArrayList<>(1);
+            single.add(tasks.get(0).call()); // Nothing to overlap with
+            return single;
+        }
+        CompletionService<T> completion = new ExecutorCompletionService<>(subtasks);
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        // A task is claimed by its thread when it starts, or by the caller to skip it after a failure;
+        // either way it counts down once, so the caller can wait for all of them
+        AtomicBoolean[] claimed = new AtomicBoolean[tasks.size()];
+        CountDownLatch ended = new CountDownLatch(tasks.size());
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                Callable<T> task = tasks.get(i);
+                AtomicBoolean claim = claimed[i] = new AtomicBoolean();
+                futures.add(completion.submit(() -> {
+                    if (!claim.compareAndSet(false, true)) {
+                        return null; // Skipped: the call already failed
+                    }
+                    try {
+                        return task.call();
+                    } finally {
+                        ended.countDown();
+                    }
+                }));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                completion.take().get(); // Fails fast on the first task to fail
+            }
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true); // No-op for finished tasks; interrupts the rest after a failure
+            }
+            for (AtomicBoolean claim : claimed) {
+                if (claim == null || claim.compareAndSet(false, true)) {
+                    ended.countDown(); // Never submitted, or not started; it will not run
+                }
+            }
+            awaitUninterruptibly(ended);
+        }
+    }
+
+    // Waits for the latch, keeping the caller's interrupt for later
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        requests.shutdown();
+        subtasks.shutdown();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger number = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package application;
+
+/**
+ * The roles a user can have. Users still store the role text they were
+ * given, so an unrecognised role survives unchanged; of() maps the text to
+ * a Role so checks like isAdmin() are identity comparisons.
+ */
+public enum Role {
+    ADMIN("Admin"),
+    INSTRUCTOR("Instructor"),
+    STUDENT("Student");
+
+    private final String displayName;
+
+    Role(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Returns the name used in the UI and stored with users, e.g. "Admin".
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Looks up a role by name, ignoring case.
+     *
+     * @param name The role name, e.g. "admin" or "Instructor".
+     * @return The role, or null if the name is null or not a known role.
+     */
+    public static Role of(String name) {
+        if (name != null) {
+            for (Role role : values()) {
+                if (role.displayName.equalsIgnoreCase(name)) {
+                    return role;
+                }
+            }
+        }
+        return null;
+    }
+}
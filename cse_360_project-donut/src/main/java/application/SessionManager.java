@@ -0,0 +1,208 @@
+package application;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Issues opaque session tokens after a successful login and resolves them
+ * back to the user, so a front end serving many clients checks the password
+ * once per session instead of on every request. Resolving a token is a single
+ * hash lookup.
+ *
+ * A session ends after idleTimeoutMillis without use or absoluteTimeoutMillis
+ * after it was created, whichever comes first. Expired sessions are refused
+ * as soon as they expire and removed by a timer wheel sweep.
+ */
+public class SessionManager {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512;
+
+    private final Login login;
+    private final long idleTimeoutMillis;
+    private final long absoluteTimeoutMillis;
+    private final LongSupplier clock;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final TimerWheel<String> expiryWheel;
+    private final SecureRandom random = new SecureRandom();
+    private final boolean backgroundSweep;
+
+    /**
+     * A logged-in session.
+     */
+    public static class Session {
+        private final String token;
+        private final User user;
+        private final long createdAt;
+        private volatile long lastAccess;
+
+        Session(String token, User user, long createdAt) {
+            this.token = token;
+            this.user = user;
+            this.createdAt = createdAt;
+            this.lastAccess = createdAt;
+        }
+
+        public String getToken() { return token; }
+        public User getUser() { return user; }
+        public long getCreatedAt() { return createdAt; }
+        public long getLastAccess() { return lastAccess; }
+    }
+
+    /**
+     * @param login                 The login used to check credentials.
+     * @param idleTimeoutMillis     How long a session may go unused.
+     * @param absoluteTimeoutMillis How long a session may last in total.
+     */
+    public SessionManager(Login login, long idleTimeoutMillis, long absoluteTimeoutMillis) {
+        this(login, idleTimeoutMillis, absoluteTimeoutMillis, System::currentTimeMillis, true);
+    }
+
+    // Constructor with a replaceable clock, for tests, which drive the sweep through sweep(now)
+    SessionManager(Login login, long idleTimeoutMillis, long absoluteTimeoutMillis, LongSupplier clock, boolean backgroundSweep) {
+        this.login = login;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.absoluteTimeoutMillis = absoluteTimeoutMillis;
+        this.clock = clock;
+        this.backgroundSweep = backgroundSweep;
+        this.expiryWheel = new TimerWheel<>(TICK_MILLIS, WHEEL_SIZE, this::expire);
+    }
+
+    /**
+     * Checks a username and password and opens a session if they are correct.
+     *
+     * @param username The username.
+     * @param password The password.
+     * @param source   Where the login comes from, for rate limiting, or null.
+     * @return The new session's token, or null if the login failed.
+     */
+    public String login(String username, String password, String source) {
+        if (!login.authenticate(username, password, source)) {
+            return null;
+        }
+        User user = login.findUser(username);
+        return user != null ? createSession(user) : null;
+    }
+
+    /**
+     * Opens a session for a user who has already been authenticated.
+     *
+     * @param user The user.
+     * @return The new session's token.
+     */
+    public String createSession(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        long now = clock.getAsLong();
+        Session session = new Session(token, user, now);
+        sessions.put(token, session);
+        expiryWheel.schedule(token, expiresAt(session));
+        if (backgroundSweep) {
+            expiryWheel.start("donut-session-sweeper"); // No-op once started
+        }
+        EventLog.debug("session.created", "user", user.getUsername());
+        return token;
+    }
+
+    /**
+     * Returns the user a token belongs to and marks the session as used.
+     *
+     * @param token The session token.
+     * @return The user, or null if the token is unknown or its session expired.
+     */
+    public User resolve(String token) {
+        Session session = token != null ? sessions.get(token) : null;
+        if (session == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (now >= expiresAt(session)) {
+            end(session, "session.expired");
+            return null;
+        }
+        session.lastAccess = now;
+        return session.user;
+    }
+
+    /**
+     * Returns the session for a token without marking it as used.
+     */
+    public Session getSession(String token) {
+        return token != null ? sessions.get(token) : null;
+    }
+
+    /**
+     * Ends a session.
+     *
+     * @param token The session token.
+     * @return True if the session existed.
+     */
+    public boolean logout(String token) {
+        Session session = token != null ? sessions.get(token) : null;
+        return session != null && end(session, "session.logout");
+    }
+
+    /**
+     * Ends every session of a user, e.g. after the user was deleted or their
+     * password was reset. Scans all sessions.
+     *
+     * @param username The user's username.
+     * @return The number of sessions ended.
+     */
+    public int logoutUser(String username) {
+        int ended = 0;
+        for (Session session : sessions.values()) {
+            if (session.user.getUsername().equals(username) && end(session, "session.revoked")) {
+                ended++;
+            }
+        }
+        return ended;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes the sessions that expired by now. The background sweeper calls
+     * this every second.
+     *
+     * @param now The current time in epoch milliseconds.
+     * @return The number of timeouts the sweep handled.
+     */
+    int sweep(long now) {
+        return expiryWheel.advance(now);
+    }
+
+    // Called by the wheel when a session's deadline as of scheduling has passed
+    private void expire(String token) {
+        Session session = sessions.get(token);
+        if (session == null) {
+            return; // Already logged out
+        }
+        long deadline = expiresAt(session);
+        if (clock.getAsLong() >= deadline) {
+            end(session, "session.expired");
+        } else {
+            expiryWheel.schedule(token, deadline); // Used since it was scheduled
+        }
+    }
+
+    private long expiresAt(Session session) {
+        return Math.min(session.lastAccess + idleTimeoutMillis, session.createdAt + absoluteTimeoutMillis);
+    }
+
+    private boolean end(Session session, String event) {
+        if (sessions.remove(session.token, session)) {
+            EventLog.debug(event, "user", session.user.getUsername());
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,175 @@
+package application;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the small vocabularies that repeat across articles and users
+ * (group names, levels, roles) as int ids, so each distinct string is held
+ * once and articles and users store compact int arrays. Comparing two
+ * symbols is an int comparison.
+ *
+ * Ids are dense, start at 0 and are only meaningful within this process;
+ * anything written to disk stores the strings. Symbols are never removed,
+ * which suits vocabularies that stay in the hundreds or thousands. Free text
+ * such as keywords and author names must not be interned here, since every
+ * distinct value would stay for the life of the process.
+ * Lookups are lock-free; only interning a new string takes a lock.
+ */
+public final class SymbolTable {
+
+    /** Id standing for a null string. */
+    public static final int NONE = -1;
+
+    private static final int[] EMPTY = new int[0];
+    private static final SymbolTable DEFAULT = new SymbolTable();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // Names by id; replaced by a larger copy when full, so readers never see a partly written array
+    private volatile String[] names = new String[256];
+    private volatile int size;
+
+    public static SymbolTable getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the id of a string, adding it to the table if it is new.
+     *
+     * @param name The string, or null.
+     * @return The id, or NONE for null.
+     */
+    public int intern(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        Integer id = ids.get(name);
+        return id != null ? id : add(name);
+    }
+
+    private synchronized int add(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id; // Added by another thread meanwhile
+        }
+        int next = size;
+        String[] current = names;
+        if (next == current.length) {
+            current = Arrays.copyOf(current, next * 2);
+        }
+        current[next] = name;
+        names = current;
+        size = next + 1; // Publish the name before its id can be looked up
+        ids.put(name, next);
+        return next;
+    }
+
+    /**
+     * Returns the id of a string without adding it.
+     *
+     * @param name The string, or null.
+     * @return The id, or NONE if the string is null or not in the table.
+     */
+    public int idOf(String name) {
+        Integer id = name != null ? ids.get(name) : null;
+        return id != null ? id : NONE;
+    }
+
+    /**
+     * Returns the string for an id.
+     *
+     * @param id An id returned by intern, or NONE.
+     * @return The string, or null for NONE.
+     */
+    public String name(int id) {
+        if (id == NONE) {
+            return null;
+        }
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown symbol " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * Interns every string of a list.
+     *
+     * @param names The strings, or null.
+     * @return Their ids in list order, or null for a null list.
+     */
+    public int[] internAll(List<String> names) {
+        if (names == null) {
+            return null;
+        }
+        if (names.isEmpty()) {
+            return EMPTY;
+        }
+        int[] result = new int[names.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = intern(names.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a read-only list of the strings for some ids. The list reads
+     * through to the array, which the caller must not change afterwards.
+     *
+     * @param ids The ids, or null.
+     * @return The strings, or null for null ids.
+     */
+    public List<String> names(int[] ids) {
+        return ids != null ? new Names(this, ids) : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether a sorted id array contains an id.
+     */
+    static boolean containsSorted(int[] sortedIds, int id) {
+        return id != NONE && Arrays.binarySearch(sortedIds, id) >= 0;
+    }
+
+    // List view of interned ids
+    private static final class Names extends AbstractList<String> implements RandomAccess {
+        private final SymbolTable table;
+        private final int[] ids;
+
+        Names(SymbolTable table, int[] ids) {
+            this.table = table;
+            this.ids = ids;
+        }
+
+        @Override
+        public String get(int index) {
+            return table.name(ids[index]);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            // Compare ids instead of strings; a string not in the table cannot be in the list
+            int id = o instanceof String ? table.idOf((String) o) : NONE;
+            if (id == NONE) {
+                return o == null && indexOf(null) >= 0;
+            }
+            for (int candidate : ids) {
+                if (candidate == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * A hashed timer wheel. Timeouts are dropped into the slot for their
+ * deadline's tick, so scheduling is O(1) and each tick only looks at one
+ * slot instead of every pending timeout. Timeouts more than one revolution
+ * away stay in their slot and are passed over until they are due.
+ *
+ * Timeouts cannot be cancelled; the handler is expected to check whether the
+ * item still needs to expire (and schedule it again if its deadline moved),
+ * which keeps extending a deadline as cheap as a field write.
+ *
+ * @param <T> The type of item that times out.
+ */
+public class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Timeout<T>>[] slots;
+    private final Consumer<T> handler;
+
+    private volatile long lastTick = -1; // Last tick processed or being processed
+    private Thread thread;
+
+    private static final class Timeout<T> {
+        final T item;
+        final long deadline;
+
+        Timeout(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * @param tickMillis Resolution of the wheel.
+     * @param wheelSize  Number of slots, rounded up to a power of two.
+     * @param handler    Called with each item whose deadline has passed.
+     */
+    public TimerWheel(long tickMillis, int wheelSize, Consumer<T> handler) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Invalid timer wheel: " + wheelSize + " slots of " + tickMillis + " ms");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        // Generic arrays cannot be created directly; every element is filled in below
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ConcurrentLinkedQueue<Timeout<T>>[] created = new ConcurrentLinkedQueue[size];
+        for (int i = 0; i < size; i++) {
+            created[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.slots = created;
+        this.handler = handler;
+    }
+
+    /**
+     * Schedules an item to time out at a deadline. Safe to call from any
+     * thread, including from the handler.
+     *
+     * @param item     The item.
+     * @param deadline The deadline in epoch milliseconds.
+     */
+    public void schedule(T item, long deadline) {
+        // A deadline in a tick already processed goes into the next one, not a revolution later
+        long tick = Math.max(deadline / tickMillis, lastTick + 1);
+        slots[(int) tick & mask].add(new Timeout<>(item, deadline));
+    }
+
+    /**
+     * Hands every item whose deadline is at or before now to the handler.
+     *
+     * @param now The current time in epoch milliseconds.
+     * @return The number of items handed to the handler.
+     */
+    public synchronized int advance(long now) {
+        long tick = now / tickMillis;
+        if (tick <= lastTick) {
+            return 0;
+        }
+        long from = lastTick < 0 || tick - lastTick > mask ? tick - mask : lastTick + 1;
+        lastTick = tick; // Set first so timeouts scheduled meanwhile land in a later tick
+        int fired = 0;
+        for (long t = from; t <= tick; t++) {
+            fired += expire(slots[(int) t & mask], now);
+        }
+        return fired;
+    }
+
+    private int expire(ConcurrentLinkedQueue<Timeout<T>> slot, long now) {
+        List<Timeout<T>> notDue = null;
+        List<T> due = new ArrayList<>();
+        Timeout<T> timeout;
+        while ((timeout = slot.poll()) != null) {
+            if (timeout.deadline <= now) {
+                due.add(timeout.item);
+            } else {
+                if (notDue == null) {
+                    notDue = new ArrayList<>();
+                }
+                notDue.add(timeout); // A later revolution
+            }
+        }
+        if (notDue != null) {
+            slot.addAll(notDue);
+        }
+        for (T item : due) {
+            try {
+                handler.accept(item);
+            } catch (RuntimeException e) {
+                EventLog.error("timer.handler_failed", "error", e.getMessage());
+            }
+        }
+        return due.size();
+    }
+
+    /**
+     * Returns the number of pending timeouts. Counts every slot, so it is
+     * meant for tests and diagnostics.
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentLinkedQueue<Timeout<T>> slot : slots) {
+            size += slot.size();
+        }
+        return size;
+    }
+
+    /**
+     * Starts a daemon thread that advances the wheel every tick.
+     *
+     * @param name The thread name.
+     */
+    public synchronized void start(String name) {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    advance(System.currentTimeMillis());
+                    Thread.sleep(tickMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the thread started by start, if any.
+     */
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package application;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The User class represents a user in the system and includes methods for managing
@@ -13,9 +21,31 @@ public class User implements Serializable {
 
     private static final long serialVersionUID = 1L; // Serialization ID
 
+    // The serialized form still holds the role and group names as strings, so older streams stay readable
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("username", String.class),
+        new ObjectStreamField("password", byte[].class),
+        new ObjectStreamField("role", String.class),
+        new ObjectStreamField("email", String.class),
+        new ObjectStreamField("firstName", String.class),
+        new ObjectStreamField("middleName", String.class),
+        new ObjectStreamField("lastName", String.class),
+        new ObjectStreamField("preferredName", String.class),
+        new ObjectStreamField("isOneTimePassword", boolean.class),
+        new ObjectStreamField("otpExpiry", LocalDateTime.class),
+        new ObjectStreamField("isAccountSetupComplete", boolean.class),
+        new ObjectStreamField("topics", Map.class),
+        new ObjectStreamField("helpArticles", Map.class),
+        new ObjectStreamField("groupNames", Set.class),
+        new ObjectStreamField("messages", List.class),
+    };
+
+    private static final SymbolTable SYMBOLS = SymbolTable.getDefault();
+
     private String username;
     private byte[] password; // Encrypted password stored as bytes
-    private String role;
+    private int role; // Role text as given, interned in SymbolTable
+    private transient Role roleType; // The role, or null if the text is not a known role
     private String email;
     private String firstName;
     private String middleName;
@@ -27,22 +57,22 @@ public class User implements Serializable {
 
     private Map<String, String> topics = new HashMap<>(); // Map of topics and proficiency levels
 
-    private List<HelpArticle> helpArticles = new ArrayList<>(); // List of help articles
+    private Map<Long, HelpArticle> helpArticles = new LinkedHashMap<>(); // Help articles by id, in insertion order; guarded by this
+
+    // Global article index this user reports changes to; set while the user is registered
+    private transient ArticleRegistry registry;
 
-    // Group memberships
-    private Set<String> groupNames = new HashSet<>(); // Names of groups the user belongs to
+    // Group memberships: sorted interned group names, replaced whole on change; guarded by this for writers
+    private volatile int[] groupIds = new int[0];
 
     // Messages sent by the student
     private List<String> messages = new ArrayList<>();
 
-    // Encryption key for help articles
-    private static byte[] articleEncryptionKey;
-
     // Constructor to create a new user
     public User(String username, byte[] password, String role) {
         this.username = username;
         this.password = password;
-        this.role = role;
+        assignRole(role);
         this.isOneTimePassword = false; // Default value
         this.otpExpiry = null; // No expiry by default
 
@@ -51,15 +81,8 @@ public class User implements Serializable {
         topics.put("Topic 2", "Intermediate");
         topics.put("Topic 3", "Intermediate");
 
-        // Load or generate the article encryption key
-        if (articleEncryptionKey == null) {
-            try {
-                articleEncryptionKey = EncryptionUtil.getArticleKey();
-            } catch (IOException e) {
-                System.out.println("Error loading article encryption key: " + e.getMessage());
-                // Handle error appropriately
-            }
-        }
+        // Load or generate the article encryption keys
+        HelpArticle.loadArticleKey();
     }
 
     // Getters and Setters for user attributes
@@ -72,9 +95,19 @@ public class User implements Serializable {
 
     public void setPassword(byte[] password) { this.password = password; }
 
-    public String getRole() { return role; }
+    public String getRole() { return SYMBOLS.name(role); }
+
+    public void setRole(String role) { assignRole(role); }
+
+    /**
+     * Returns the user's role, or null if the role text is not a known role.
+     */
+    public Role getRoleType() { return roleType; }
 
-    public void setRole(String role) { this.role = role; }
+    private void assignRole(String role) {
+        this.role = SYMBOLS.intern(role);
+        this.roleType = Role.of(role);
+    }
 
     public String getEmail() { return email; }
 
@@ -97,16 +130,44 @@ public class User implements Serializable {
     public void setPreferredName(String preferredName) { this.preferredName = preferredName; }
 
     // Methods for group memberships
+
+    // Returns a snapshot of the names of the groups the user belongs to
     public Set<String> getGroupNames() {
-        return groupNames;
+        return new HashSet<>(SYMBOLS.names(groupIds));
     }
 
-    public void addGroupName(String groupName) {
-        groupNames.add(groupName);
+    public boolean isInGroup(String groupName) {
+        return SymbolTable.containsSorted(groupIds, SYMBOLS.idOf(groupName));
     }
 
-    public void removeGroupName(String groupName) {
-        groupNames.remove(groupName);
+    // Checks membership by interned group name
+    boolean isInGroup(int groupId) {
+        return SymbolTable.containsSorted(groupIds, groupId);
+    }
+
+    public synchronized void addGroupName(String groupName) {
+        int id = SYMBOLS.intern(groupName);
+        int[] current = groupIds;
+        int at = Arrays.binarySearch(current, id);
+        if (at < 0) {
+            int insert = -at - 1;
+            int[] updated = new int[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, insert);
+            updated[insert] = id;
+            System.arraycopy(current, insert, updated, insert + 1, current.length - insert);
+            groupIds = updated;
+        }
+    }
+
+    public synchronized void removeGroupName(String groupName) {
+        int[] current = groupIds;
+        int at = Arrays.binarySearch(current, SYMBOLS.idOf(groupName)); // Ids are never negative, so NONE is not found
+        if (at >= 0) {
+            int[] updated = new int[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, at);
+            System.arraycopy(current, at + 1, updated, at, updated.length - at);
+            groupIds = updated;
+        }
     }
 
     // Methods related to one-time password
@@ -137,19 +198,43 @@ public class User implements Serializable {
     public static class HelpArticle implements Serializable {
         private static final long serialVersionUID = 1L;
 
+        // The serialized form keeps groups and level as strings, so backups stay compatible
+        private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("id", long.class),
+            new ObjectStreamField("title", String.class),
+            new ObjectStreamField("description", String.class),
+            new ObjectStreamField("keywords", List.class),
+            new ObjectStreamField("encryptedBody", byte[].class),
+            new ObjectStreamField("links", List.class),
+            new ObjectStreamField("groups", List.class),
+            new ObjectStreamField("level", String.class),
+            new ObjectStreamField("author", String.class),
+            new ObjectStreamField("isSpecialAccess", boolean.class),
+            new ObjectStreamField("lastModified", long.class),
+        };
+
         private long id; // Unique identifier
         private String title;
         private String description; // This serves as the abstract
+        // Keywords are free text and stay strings; groups and level are interned in SymbolTable
         private List<String> keywords;
-        private byte[] encryptedBody; // Encrypted body
+        private volatile byte[] encryptedBody; // Encrypted body, replaced whole when re-encrypted
         private List<String> links;
-        private List<String> groups; // Groups that have access to this article
-        private String level;
+        private int[] groups; // Groups that have access to this article
+        private int level;
+        private transient Level levelType; // The level, or null if the level text is not a known level
         private String author;
         private boolean isSpecialAccess;
+        private long lastModified; // Modification stamp, see nextModificationStamp()
 
-        // Encryption key for articles
-        private static byte[] articleEncryptionKey;
+        // Registry indexing this article; told when the groups, level or author change
+        private transient ArticleRegistry registry;
+
+        // Key ring for special access bodies; each ciphertext records the key that produced it
+        private static KeyRing articleKeyRing;
+
+        // Last stamp handed out; stamps follow wall-clock millis but never repeat or go backwards
+        private static final AtomicLong MODIFICATION_CLOCK = new AtomicLong();
 
         // Constructor to create a new help article
         public HelpArticle(long id, String title, String description, List<String> keywords, String body,
@@ -159,70 +244,225 @@ public class User implements Serializable {
             this.description = description;
             this.keywords = keywords;
             this.links = links;
-            this.groups = groups;
-            this.level = level;
+            this.groups = SYMBOLS.internAll(groups);
+            assignLevel(level);
             this.author = author;
 
-            // Load or generate the article encryption key
-            if (articleEncryptionKey == null) {
-                try {
-                    articleEncryptionKey = EncryptionUtil.getArticleKey();
-                } catch (IOException e) {
-                    System.out.println("Error loading article encryption key: " + e.getMessage());
-                    // Handle error appropriately
-                }
+            // Load or generate the article encryption keys
+            if (articleKeyRing == null) {
+                loadArticleKey();
             }
 
             // Determine if the article is in a special access group
             this.isSpecialAccess = isInSpecialAccessGroup(groups);
 
             // Encrypt the body
-            setBody(body); // Use the setBody method to handle encryption
+            setBody(body); // Use the setBody method to handle encryption (also stamps the article)
+        }
+
+        // Copy constructor used to give an article a new id; the stored body is shared as-is
+        private HelpArticle(HelpArticle source, long newId) {
+            this.id = newId;
+            this.title = source.title;
+            this.description = source.description;
+            this.keywords = source.keywords;
+            this.encryptedBody = source.encryptedBody;
+            this.links = source.links;
+            this.groups = source.groups;
+            this.level = source.level;
+            this.levelType = source.levelType;
+            this.author = source.author;
+            this.isSpecialAccess = source.isSpecialAccess;
+            touch();
+        }
+
+        // Constructor for decoders that already hold the stored (possibly encrypted) body
+        private HelpArticle(long id, String title, String description, List<String> keywords, byte[] storedBody,
+                            List<String> links, List<String> groups, String level, String author, long lastModified) {
+            this.id = id;
+            this.title = title;
+            this.description = description;
+            this.keywords = keywords;
+            this.encryptedBody = storedBody;
+            this.links = links;
+            this.groups = SYMBOLS.internAll(groups);
+            assignLevel(level);
+            this.author = author;
+            this.isSpecialAccess = isInSpecialAccessGroup(groups);
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Rebuilds an article from its stored form without re-encrypting the body.
+         *
+         * @param storedBody   The body exactly as returned by getStoredBody().
+         * @param lastModified The article's modification stamp.
+         * @return The rebuilt article.
+         */
+        static HelpArticle fromStored(long id, String title, String description, List<String> keywords, byte[] storedBody,
+                                      List<String> links, List<String> groups, String level, String author, long lastModified) {
+            return new HelpArticle(id, title, description, keywords, storedBody, links, groups, level, author, lastModified);
+        }
+
+        // Returns the body as stored: ciphertext for special access articles, UTF-8 otherwise
+        byte[] getStoredBody() { return encryptedBody; }
+
+        /**
+         * Creates a copy of this article under another id without re-encrypting the body.
+         *
+         * @param newId The id of the copy.
+         * @return The copy.
+         */
+        HelpArticle withId(long newId) {
+            return new HelpArticle(this, newId);
+        }
+
+        /**
+         * Returns a new modification stamp. Stamps are strictly increasing within the
+         * process and track wall-clock milliseconds, so they stay comparable across restarts.
+         *
+         * @return The next modification stamp.
+         */
+        static long nextModificationStamp() {
+            long now = System.currentTimeMillis();
+            return MODIFICATION_CLOCK.updateAndGet(prev -> Math.max(now, prev + 1));
+        }
+
+        /**
+         * Returns the latest stamp handed out. Every change made after this call
+         * receives a larger stamp, which makes it usable as a backup checkpoint.
+         *
+         * @return The current modification stamp.
+         */
+        static long currentModificationStamp() {
+            return MODIFICATION_CLOCK.updateAndGet(prev -> Math.max(System.currentTimeMillis(), prev));
+        }
+
+        // Records that the article has changed
+        private void touch() {
+            lastModified = nextModificationStamp();
+        }
+
+        // Stamps the article as changed now, so the next incremental backup carries it
+        void markModified() {
+            touch();
+        }
+
+        void setRegistry(ArticleRegistry registry) {
+            this.registry = registry;
+        }
+
+        // Re-files the article in the registry after an indexed field changed
+        private void reindex() {
+            if (registry != null) {
+                registry.reindex(this);
+            }
         }
 
         // Getters and Setters for help article attributes
 
         public long getId() { return id; }
 
+        public long getLastModified() { return lastModified; }
+
         public String getTitle() { return title; }
 
-        public void setTitle(String title) { this.title = title; }
+        public void setTitle(String title) {
+            this.title = title;
+            touch();
+        }
 
         public String getDescription() { return description; }
 
-        public void setDescription(String description) { this.description = description; }
+        public void setDescription(String description) {
+            this.description = description;
+            touch();
+        }
 
         public List<String> getKeywords() { return keywords; }
 
-        public void setKeywords(List<String> keywords) { this.keywords = keywords; }
+        public void setKeywords(List<String> keywords) {
+            this.keywords = keywords;
+            touch();
+        }
 
         public List<String> getLinks() { return links; }
 
-        public void setLinks(List<String> links) { this.links = links; }
+        public void setLinks(List<String> links) {
+            this.links = links;
+            touch();
+        }
 
-        public List<String> getGroups() { return groups; }
+        public List<String> getGroups() { return SYMBOLS.names(groups); }
 
         public void setGroups(List<String> groups) {
-            this.groups = groups;
+            this.groups = SYMBOLS.internAll(groups);
             this.isSpecialAccess = isInSpecialAccessGroup(groups); // Update isSpecialAccess flag
+            touch();
+            reindex();
         }
 
-        public String getLevel() { return level; }
+        public String getLevel() { return SYMBOLS.name(level); }
+
+        /**
+         * Returns the article's level, or null if the level text is not a known level.
+         */
+        public Level getLevelType() { return levelType; }
 
-        public void setLevel(String level) { this.level = level; }
+        private void assignLevel(String level) {
+            this.level = SYMBOLS.intern(level);
+            this.levelType = Level.of(level);
+        }
+
+        public void setLevel(String level) {
+            assignLevel(level);
+            touch();
+            reindex();
+        }
 
         public String getAuthor() { return author; }
 
-        public void setAuthor(String author) { this.author = author; }
+        public void setAuthor(String author) {
+            this.author = author;
+            touch();
+            reindex();
+        }
 
         // Method to determine if the article is in a special access group
         private boolean isInSpecialAccessGroup(List<String> groups) {
-            for (String group : groups) {
-                if (group.startsWith("special_")) {
-                    return true;
-                }
-            }
-            return false;
+            return groups != null && isSpecialAccessGroups(groups);
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            ObjectOutputStream.PutField fields = out.putFields();
+            fields.put("id", id);
+            fields.put("title", title);
+            fields.put("description", description);
+            fields.put("keywords", keywords);
+            fields.put("encryptedBody", encryptedBody);
+            fields.put("links", links);
+            fields.put("groups", groups != null ? new ArrayList<>(getGroups()) : null);
+            fields.put("level", getLevel());
+            fields.put("author", author);
+            fields.put("isSpecialAccess", isSpecialAccess);
+            fields.put("lastModified", lastModified);
+            out.writeFields();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            ObjectInputStream.GetField fields = in.readFields();
+            id = fields.get("id", 0L);
+            title = (String) fields.get("title", null);
+            description = (String) fields.get("description", null);
+            keywords = (List<String>) fields.get("keywords", null);
+            encryptedBody = (byte[]) fields.get("encryptedBody", null);
+            links = (List<String>) fields.get("links", null);
+            groups = SYMBOLS.internAll((List<String>) fields.get("groups", null));
+            assignLevel((String) fields.get("level", null));
+            author = (String) fields.get("author", null);
+            isSpecialAccess = fields.get("isSpecialAccess", false);
+            lastModified = fields.get("lastModified", 0L);
         }
 
         // Method to check if the article belongs to a special access group
@@ -237,8 +477,8 @@ public class User implements Serializable {
                 return true;
             }
             // Check if the user is a member of any group associated with the article
-            for (String groupName : this.getGroups()) {
-                if (user.getGroupNames().contains(groupName)) {
+            for (int group : groups) {
+                if (user.isInGroup(group)) {
                     return true;
                 }
             }
@@ -253,84 +493,353 @@ public class User implements Serializable {
             }
             if (isSpecialAccessGroup()) {
                 try {
-                    if (articleEncryptionKey == null) {
+                    if (articleKeyRing == null) {
                         return "Encryption key not available. Cannot decrypt article body.";
                     }
-                    return EncryptionUtil.decrypt(encryptedBody, articleEncryptionKey);
+                    return articleKeyRing.decrypt(encryptedBody);
                 } catch (Exception e) {
-                    System.out.println("Error decrypting article body: " + e.getMessage());
+                    EventLog.error("article.decrypt_failed", "id", id, "error", e.getMessage());
                     return "Error decrypting article body.";
                 }
             } else {
                 try {
                     return new String(encryptedBody, "UTF-8");
                 } catch (Exception e) {
-                    System.out.println("Error reading article body: " + e.getMessage());
+                    EventLog.error("article.read_failed", "id", id, "error", e.getMessage());
                     return "Error reading article body.";
                 }
             }
         }
 
-        // Method to set the body of the article, encrypting if necessary
-        public void setBody(String body) {
+        /**
+         * Applies the fields of a patch that differ from the current values.
+         * The body is re-encoded only if it changed or the article moved into
+         * or out of a special access group, and the registry is told only if
+         * the groups or level changed. The article is stamped once.
+         *
+         * @param patch The changes to apply.
+         * @return The bit set of ArticlePatch fields that changed.
+         */
+        synchronized int applyPatch(ArticlePatch patch) {
+            int changed = 0;
+            if (patch.isSet(ArticlePatch.TITLE) && !Objects.equals(title, patch.getTitle())) {
+                title = patch.getTitle();
+                changed |= ArticlePatch.TITLE;
+            }
+            if (patch.isSet(ArticlePatch.DESCRIPTION) && !Objects.equals(description, patch.getDescription())) {
+                description = patch.getDescription();
+                changed |= ArticlePatch.DESCRIPTION;
+            }
+            if (patch.isSet(ArticlePatch.KEYWORDS) && !Objects.equals(keywords, patch.getKeywords())) {
+                keywords = patch.getKeywords();
+                changed |= ArticlePatch.KEYWORDS;
+            }
+            if (patch.isSet(ArticlePatch.LINKS) && !Objects.equals(links, patch.getLinks())) {
+                links = patch.getLinks();
+                changed |= ArticlePatch.LINKS;
+            }
+            if (patch.isSet(ArticlePatch.LEVEL) && level != SYMBOLS.intern(patch.getLevel())) {
+                assignLevel(patch.getLevel());
+                changed |= ArticlePatch.LEVEL;
+            }
+
+            boolean wasSpecial = isSpecialAccess;
+            // Read the stored body while isSpecialAccess still says how it was encoded
+            String current = patch.isSet(ArticlePatch.BODY) ? decodeBody() : null;
+            String plainBody = null;
+            int[] patchedGroups = patch.isSet(ArticlePatch.GROUPS) ? SYMBOLS.internAll(patch.getGroups()) : groups;
+            if (!Arrays.equals(groups, patchedGroups)) {
+                boolean special = isInSpecialAccessGroup(patch.getGroups());
+                if (special != wasSpecial && current == null) {
+                    plainBody = decodeBody(); // Stored form changes; re-encode the unchanged body
+                }
+                groups = patchedGroups;
+                isSpecialAccess = special;
+                changed |= ArticlePatch.GROUPS;
+            }
+            if (patch.isSet(ArticlePatch.BODY)) {
+                if (!Objects.equals(current, patch.getBody())) {
+                    plainBody = patch.getBody();
+                    changed |= ArticlePatch.BODY;
+                } else if (isSpecialAccess != wasSpecial) {
+                    plainBody = current; // Same body, stored the other way now
+                }
+            }
+            if (plainBody != null) {
+                encryptedBody = encodeBody(id, plainBody, isSpecialAccess);
+            }
+
+            if (changed != 0) {
+                touch();
+                if ((changed & (ArticlePatch.GROUPS | ArticlePatch.LEVEL)) != 0) {
+                    reindex();
+                }
+            }
+            return changed;
+        }
+
+        /**
+         * Opens the body for reading. Special access bodies are decrypted one
+         * segment at a time as the stream is read, so large bodies never need
+         * a second full-size copy.
+         *
+         * @param user The user reading the article.
+         * @return A stream of the body's UTF-8 bytes.
+         * @throws IOException If the user has no access or the body cannot be decrypted.
+         */
+        public InputStream openBody(User user) throws IOException {
+            if (!userHasAccess(user)) {
+                throw new IOException("You do not have access to view this article.");
+            }
+            byte[] stored = encryptedBody;
+            if (!isSpecialAccessGroup()) {
+                return new ByteArrayInputStream(stored);
+            }
+            if (articleKeyRing == null) {
+                throw new IOException("Encryption key not available. Cannot decrypt article body.");
+            }
+            try {
+                return articleKeyRing.decryptingStream(stored);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Error decrypting article body: " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Replaces the body with the UTF-8 text read from a stream. Special
+         * access bodies are encrypted segment by segment as they are read,
+         * so the plain text is never held in memory as a whole.
+         *
+         * @param body The stream to read the new body from; it is not closed.
+         * @throws IOException If the stream cannot be read or encryption fails.
+         */
+        public synchronized void setBody(InputStream body) throws IOException {
+            ByteArrayOutputStream stored = new ByteArrayOutputStream();
             if (isSpecialAccessGroup()) {
+                if (articleKeyRing == null) {
+                    throw new IOException("Encryption key not available. Cannot encrypt article body.");
+                }
+                try (OutputStream out = articleKeyRing.encryptingStream(stored)) {
+                    body.transferTo(out);
+                }
+            } else {
+                body.transferTo(stored);
+            }
+            this.encryptedBody = stored.toByteArray();
+            touch();
+        }
+
+        /**
+         * Returns the body as UTF-8 bytes for scanning. Plain bodies are
+         * returned as stored, without a copy, so the caller must not change
+         * the array; special access bodies are decrypted into a new array.
+         *
+         * @param user The user reading the article.
+         * @return The body bytes, or null if the user has no access or the body cannot be read.
+         */
+        byte[] readBodyBytes(User user) {
+            if (!userHasAccess(user)) {
+                return null;
+            }
+            byte[] stored = encryptedBody;
+            if (stored == null || !isSpecialAccessGroup()) {
+                return stored;
+            }
+            try {
+                return articleKeyRing != null ? articleKeyRing.decryptBytes(stored) : null;
+            } catch (Exception e) {
+                EventLog.error("article.decrypt_failed", "id", id, "error", e.getMessage());
+                return null;
+            }
+        }
+
+        // Returns the plain-text body without an access check, or null if it cannot be read
+        private String decodeBody() {
+            if (encryptedBody == null) {
+                return null;
+            }
+            try {
+                if (isSpecialAccess) {
+                    return articleKeyRing != null ? articleKeyRing.decrypt(encryptedBody) : null;
+                }
+                return new String(encryptedBody, "UTF-8");
+            } catch (Exception e) {
+                EventLog.error("article.decrypt_failed", "id", id, "error", e.getMessage());
+                return null;
+            }
+        }
+
+        // Method to set the body of the article, encrypting if necessary
+        public synchronized void setBody(String body) {
+            this.encryptedBody = encodeBody(id, body, isSpecialAccessGroup());
+            touch();
+        }
+
+        /**
+         * Re-encrypts a special access body that was encrypted with an older
+         * key. Readers keep seeing either the old or the new ciphertext, both
+         * of which decrypt. The modification stamp is not changed because the
+         * content is the same.
+         *
+         * @param ring The key ring whose active key should be used.
+         * @return True if the body was re-encrypted.
+         * @throws Exception If the body cannot be decrypted or encrypted.
+         */
+        synchronized boolean reencryptBody(KeyRing ring) throws Exception {
+            byte[] stored = encryptedBody;
+            if (!isSpecialAccess || stored == null || ring.isCurrent(stored)) {
+                return false;
+            }
+            encryptedBody = ring.encrypt(ring.decrypt(stored));
+            return true;
+        }
+
+        /**
+         * Converts a body to its stored form: encrypted for special access
+         * articles, UTF-8 otherwise. Safe to call from several threads once
+         * loadArticleKey() has run.
+         *
+         * @param id      The article id, for error reporting.
+         * @param body    The plain-text body.
+         * @param special Whether the article is in a special access group.
+         * @return The stored body, or null if it could not be encoded.
+         */
+        static byte[] encodeBody(long id, String body, boolean special) {
+            if (special) {
                 try {
-                    if (articleEncryptionKey == null) {
-                        System.out.println("Encryption key not available. Cannot encrypt article body.");
-                        this.encryptedBody = null;
-                    } else {
-                        this.encryptedBody = EncryptionUtil.encrypt(body, articleEncryptionKey);
+                    if (articleKeyRing == null) {
+                        EventLog.error("article.key_unavailable", "id", id);
+                        return null;
                     }
+                    return articleKeyRing.encrypt(body);
                 } catch (Exception e) {
-                    System.out.println("Error encrypting article body: " + e.getMessage());
-                    this.encryptedBody = null;
+                    EventLog.error("article.encrypt_failed", "id", id, "error", e.getMessage());
+                    return null;
                 }
-            } else {
+            }
+            try {
+                return body.getBytes("UTF-8");
+            } catch (Exception e) {
+                EventLog.error("article.encode_failed", "id", id, "error", e.getMessage());
+                return null;
+            }
+        }
+
+        /**
+         * Loads the article encryption key if it is not loaded yet, so that
+         * later encodeBody calls from worker threads do not race to create it.
+         */
+        static synchronized void loadArticleKey() {
+            if (articleKeyRing == null) {
                 try {
-                    this.encryptedBody = body.getBytes("UTF-8");
-                } catch (Exception e) {
-                    System.out.println("Error setting article body: " + e.getMessage());
-                    this.encryptedBody = null;
+                    articleKeyRing = EncryptionUtil.getArticleKeyRing();
+                } catch (IOException e) {
+                    EventLog.error("key.load_failed", "key", "article", "error", e.getMessage());
                 }
             }
         }
+
+        /**
+         * Checks whether any of the groups is a special access group.
+         */
+        static boolean isSpecialAccessGroups(List<String> groups) {
+            for (String group : groups) {
+                if (group.startsWith("special_")) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 
     // Methods for managing help articles
 
-    // Add a help article to the user's list
-    public void addHelpArticle(HelpArticle article) {
-        helpArticles.add(article);
+    // Add a help article to the user's list; an article with the same ID is replaced
+    public synchronized void addHelpArticle(HelpArticle article) {
+        HelpArticle previous = helpArticles.put(article.getId(), article);
+        if (registry != null) {
+            if (previous != null) {
+                registry.remove(this, previous.getId());
+            }
+            registry.add(this, article);
+        }
+    }
+
+    // Add many help articles at once, registering the batch with a single registry update
+    public synchronized void addHelpArticles(Collection<HelpArticle> articles) {
+        for (HelpArticle article : articles) {
+            HelpArticle previous = helpArticles.put(article.getId(), article);
+            if (previous != null && registry != null) {
+                registry.remove(this, previous.getId());
+            }
+        }
+        if (registry != null) {
+            registry.addAll(this, articles);
+        }
     }
 
     // Remove a help article by its ID
-    public void removeHelpArticle(long id) {
-        helpArticles.removeIf(article -> article.getId() == id);
+    public synchronized void removeHelpArticle(long id) {
+        if (helpArticles.remove(id) != null) {
+            if (registry != null) {
+                registry.remove(this, id);
+            }
+            // Remember the deletion so incremental backups can carry it
+            Login.getInstance().recordArticleDeletion(id);
+        }
     }
 
-    // Update an existing help article
+    // Update an existing help article; fields equal to the current values are left untouched
     public void updateHelpArticle(long id, String title, String description, List<String> keywords, String body,
                                   List<String> links, List<String> groups, String level) {
-        for (HelpArticle article : helpArticles) {
-            if (article.getId() == id) {
-                article.setTitle(title);
-                article.setDescription(description);
-                article.setKeywords(keywords);
-                article.setBody(body);
-                article.setLinks(links);
-                article.setGroups(groups);
-                article.setLevel(level);
+        ArticlePatch patch = new ArticlePatch(id);
+        patch.setTitle(title);
+        patch.setDescription(description);
+        patch.setKeywords(keywords);
+        patch.setBody(body);
+        patch.setLinks(links);
+        patch.setGroups(groups);
+        patch.setLevel(level);
+        applyPatch(patch);
+    }
+
+    /**
+     * Applies a patch to one of this user's articles.
+     *
+     * @param patch The changes to apply.
+     * @return The bit set of ArticlePatch fields that changed, or -1 if the user has no article with the patch's id.
+     */
+    public synchronized int applyPatch(ArticlePatch patch) {
+        HelpArticle article = helpArticles.get(patch.getId());
+        return article != null ? article.applyPatch(patch) : -1;
+    }
+
+    /**
+     * Applies a batch of patches, e.g. relabeling the level of many articles.
+     * Each article is looked up by id, and only changed fields are written.
+     *
+     * @param patches The changes to apply.
+     * @return The number of articles that changed.
+     */
+    public int applyPatches(Collection<ArticlePatch> patches) {
+        int changedArticles = 0;
+        for (ArticlePatch patch : patches) {
+            if (applyPatch(patch) > 0) {
+                changedArticles++;
             }
         }
+        return changedArticles;
     }
 
     // Get help articles by group
-    public List<HelpArticle> getHelpArticlesByGroup(String group) {
+    public synchronized List<HelpArticle> getHelpArticlesByGroup(String group) {
         if ("all".equalsIgnoreCase(group)) {
-            return new ArrayList<>(helpArticles);
+            return new ArrayList<>(helpArticles.values());
         }
         List<HelpArticle> filteredArticles = new ArrayList<>();
-        for (HelpArticle article : helpArticles) {
+        for (HelpArticle article : helpArticles.values()) {
             if (article.getGroups().contains(group)) {
                 filteredArticles.add(article);
             }
@@ -339,17 +848,58 @@ public class User implements Serializable {
     }
 
     // Get all help articles
-    public List<HelpArticle> getAllHelpArticles() {
-        return new ArrayList<>(helpArticles);
+    public synchronized List<HelpArticle> getAllHelpArticles() {
+        return new ArrayList<>(helpArticles.values());
+    }
+
+    // Get a help article by its ID, or null if the user has none
+    public synchronized HelpArticle getHelpArticle(long id) {
+        return helpArticles.get(id);
+    }
+
+    // Messages recorded on the user object itself (used by codecs)
+    List<String> getSentMessages() { return messages; }
+
+    // Replace the whole article list in one step (used by bulk restore)
+    synchronized void replaceAllHelpArticles(List<HelpArticle> articles) {
+        if (registry != null) {
+            registry.removeAll(this, helpArticles.values());
+        }
+        helpArticles = new LinkedHashMap<>();
+        for (HelpArticle article : articles) {
+            helpArticles.put(article.getId(), article);
+        }
+        if (registry != null) {
+            for (HelpArticle article : helpArticles.values()) {
+                registry.add(this, article);
+            }
+        }
+    }
+
+    // Start reporting article changes to the registry, indexing the current articles
+    synchronized void attachRegistry(ArticleRegistry registry) {
+        detachRegistry();
+        this.registry = registry;
+        for (HelpArticle article : helpArticles.values()) {
+            registry.add(this, article);
+        }
+    }
+
+    // Stop reporting article changes and drop this user's articles from the registry
+    synchronized void detachRegistry() {
+        if (registry != null) {
+            registry.removeAll(this, helpArticles.values());
+            registry = null;
+        }
     }
 
     // Search help articles by keyword in title or keywords
-    public List<HelpArticle> searchHelpArticles(String keyword) {
+    public synchronized List<HelpArticle> searchHelpArticles(String keyword) {
         // Record the search query
         Login.getInstance().addSearchQuery(this.username, keyword);
 
         List<HelpArticle> results = new ArrayList<>();
-        for (HelpArticle article : helpArticles) {
+        for (HelpArticle article : helpArticles.values()) {
             if (article.getKeywords().contains(keyword) || article.getTitle().contains(keyword)) {
                 results.add(article);
             }
@@ -359,11 +909,62 @@ public class User implements Serializable {
 
     // Method to determine if the user is an admin
     public boolean isAdmin() {
-        return "Admin".equalsIgnoreCase(this.role);
+        return roleType == Role.ADMIN;
     }
 
     public boolean isInstructor() {
-        return "Instructor".equalsIgnoreCase(this.role);
+        return roleType == Role.INSTRUCTOR;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("username", username);
+        fields.put("password", password);
+        fields.put("role", getRole());
+        fields.put("email", email);
+        fields.put("firstName", firstName);
+        fields.put("middleName", middleName);
+        fields.put("lastName", lastName);
+        fields.put("preferredName", preferredName);
+        fields.put("isOneTimePassword", isOneTimePassword);
+        fields.put("otpExpiry", otpExpiry);
+        fields.put("isAccountSetupComplete", isAccountSetupComplete);
+        fields.put("topics", topics);
+        synchronized (this) {
+            fields.put("helpArticles", helpArticles);
+            fields.put("groupNames", getGroupNames());
+            fields.put("messages", messages);
+            out.writeFields();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        username = (String) fields.get("username", null);
+        password = (byte[]) fields.get("password", null);
+        assignRole((String) fields.get("role", null));
+        email = (String) fields.get("email", null);
+        firstName = (String) fields.get("firstName", null);
+        middleName = (String) fields.get("middleName", null);
+        lastName = (String) fields.get("lastName", null);
+        preferredName = (String) fields.get("preferredName", null);
+        isOneTimePassword = fields.get("isOneTimePassword", false);
+        otpExpiry = (LocalDateTime) fields.get("otpExpiry", null);
+        isAccountSetupComplete = fields.get("isAccountSetupComplete", false);
+        topics = (Map<String, String>) fields.get("topics", null);
+        helpArticles = (Map<Long, HelpArticle>) fields.get("helpArticles", null);
+        messages = (List<String>) fields.get("messages", null);
+        Set<String> names = (Set<String>) fields.get("groupNames", null);
+        int[] ids = new int[names != null ? names.size() : 0];
+        int i = 0;
+        if (names != null) {
+            for (String name : names) {
+                ids[i++] = SYMBOLS.intern(name);
+            }
+        }
+        Arrays.sort(ids);
+        groupIds = ids;
     }
 
     // Message Handling
@@ -371,6 +972,6 @@ public class User implements Serializable {
     // Method for student to send a message
     public void sendMessage(String messageContent) {
         Login.getInstance().addMessage(this.username, messageContent);
-        System.out.println("Message sent.");
+        EventLog.debug("message.sent", "user", username);
     }
 }
@@ -1,6 +1,7 @@
 package application;
 
 // Import necessary JavaFX and utility classes
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
@@ -11,9 +12,11 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class UserInterface extends Application {
 
@@ -23,6 +26,9 @@ public class UserInterface extends Application {
     private String currentGroup = "all"; // Current active group
     private String currentLevel = "All"; // Current content level
 
+    private static final int LISTING_PAGE_SIZE = 100; // Rows fetched per page by the admin listings
+    private static final int KEY_ROTATION_RATE = 500; // Records re-encrypted per second after a key rotation
+
     @Override
     public void start(Stage primaryStage) {
         window = primaryStage;
@@ -219,10 +225,9 @@ public class UserInterface extends Application {
         Label activeGroupLabel = new Label("Active Group: all");
         Label articleCountLabel = new Label("Articles Matching Levels:");
 
-        ListView<String> articlesListView = new ListView<>(); // ListView to display article titles
-
-        // Map to associate sequence numbers with articles
-        Map<Integer, User.HelpArticle> sequenceToArticleMap = new HashMap<>();
+        ListView<Long> articlesListView = new ListView<>(); // ListView of article ids; rows are rendered by ArticleListCell
+        articlesListView.setCellFactory(view -> new ArticleListCell());
+        articlesListView.setFixedCellSize(24);
 
         // Event handler for the search button
         searchButton.setOnAction(e -> {
@@ -238,78 +243,27 @@ public class UserInterface extends Application {
             // ** Log the search query **
             loginInstance.addSearchQuery(currentUser.getUsername(), keyword);
 
-            // Collect all help articles from all users
-            List<User.HelpArticle> results = new ArrayList<>();
-            for (User u : loginInstance.listUsers()) {
-                results.addAll(u.getAllHelpArticles());
-            }
-
-            // Filter articles that the user has access to
-            results.removeIf(article -> !article.userHasAccess(currentUser));
-
-            // Filter articles based on keyword
-            if (keyword != null && !keyword.isEmpty()) {
-                results.removeIf(article -> !articleMatchesKeyword(article, keyword));
-            }
-
-            // Filter articles by group and level
-            List<User.HelpArticle> filteredArticles = new ArrayList<>();
-            for (User.HelpArticle article : results) {
-                boolean groupMatch = currentGroup.equals("all") || article.getGroups().contains(currentGroup);
-                boolean levelMatch = currentLevel.equals("All") || article.getLevel().equalsIgnoreCase(currentLevel);
-                if (groupMatch && levelMatch) {
-                    filteredArticles.add(article);
-                }
-            }
-
-            // Count articles by level
-            Map<String, Integer> levelCounts = new HashMap<>();
-            for (String level : Arrays.asList("Beginner", "Intermediate", "Advanced", "Expert")) {
-                levelCounts.put(level, 0);
-            }
-            for (User.HelpArticle article : filteredArticles) {
-                String level = article.getLevel();
-                levelCounts.put(level, levelCounts.getOrDefault(level, 0) + 1);
-            }
+            // Search all users' articles the student has access to, filtered by keyword, group and level
+            ArticleSearch.Result result = ArticleSearch.search(loginInstance.getArticleRegistry(), currentUser,
+                    keyword, currentGroup, currentLevel, true);
 
             // Update article count label
             StringBuilder countText = new StringBuilder("Articles Matching Levels:\n");
-            for (String level : Arrays.asList("Beginner", "Intermediate", "Advanced", "Expert")) {
-                countText.append(level).append(": ").append(levelCounts.get(level)).append("\n");
+            for (String level : ArticleSearch.LEVELS) {
+                countText.append(level).append(": ").append(result.getLevelCount(level)).append("\n");
             }
             articleCountLabel.setText(countText.toString());
 
-            // Display articles in short form
-            articlesListView.getItems().clear();
-            sequenceToArticleMap.clear();
-            int sequenceNumber = 1;
-            for (User.HelpArticle article : filteredArticles) {
-                String itemText = sequenceNumber + ". Title: " + article.getTitle() + ", Author: " + article.getAuthor() + ", Abstract: " + article.getDescription();
-                articlesListView.getItems().add(itemText);
-                sequenceToArticleMap.put(sequenceNumber, article);
-                sequenceNumber++;
-            }
+            // Display articles in short form; rows are formatted only when they scroll into view
+            articlesListView.setItems(new ArticleResultList(result));
         });
 
-        // Event handler for selecting an article to view details using sequence number
+        // Event handler for selecting an article to view details
         articlesListView.setOnMouseClicked(event -> {
             if (event.getClickCount() == 2) { // Double-click
-                String selectedItem = articlesListView.getSelectionModel().getSelectedItem();
-                if (selectedItem != null) {
-                    // Extract sequence number from the selected item
-                    int dotIndex = selectedItem.indexOf(".");
-                    if (dotIndex != -1) {
-                        String sequenceStr = selectedItem.substring(0, dotIndex);
-                        try {
-                            int sequenceNumber = Integer.parseInt(sequenceStr.trim());
-                            User.HelpArticle article = sequenceToArticleMap.get(sequenceNumber);
-                            if (article != null) {
-                                showArticleDetail(article);
-                            }
-                        } catch (NumberFormatException ex) {
-                            System.out.println("Invalid sequence number.");
-                        }
-                    }
+                User.HelpArticle article = getSelectedArticle(articlesListView);
+                if (article != null) {
+                    showArticleDetail(article);
                 }
             }
         });
@@ -417,11 +371,10 @@ public class UserInterface extends Application {
         Label activeGroupLabel = new Label("Active Group: all");
         Label articleCountLabel = new Label("Articles Matching Levels:");
 
-        ListView<String> articlesListView = new ListView<>(); // ListView to display article titles
+        ListView<Long> articlesListView = new ListView<>(); // ListView of article ids; rows are rendered by ArticleListCell
         articlesListView.setPrefHeight(200); // Set preferred height
-
-        // Map to associate sequence numbers with articles
-        Map<Integer, User.HelpArticle> sequenceToArticleMap = new HashMap<>();
+        articlesListView.setCellFactory(view -> new ArticleListCell());
+        articlesListView.setFixedCellSize(24);
 
         // Event handler for the search button
         searchButton.setOnAction(e -> {
@@ -437,76 +390,27 @@ public class UserInterface extends Application {
             // ** Log the search query **
             loginInstance.addSearchQuery(currentUser.getUsername(), keyword);
 
-            List<User.HelpArticle> results = new ArrayList<>();
-
-            // Collect all help articles from all users
-            for (User u : loginInstance.listUsers()) {
-                results.addAll(u.getAllHelpArticles());
-            }
-
-            // Filter articles based on keyword
-            if (keyword != null && !keyword.isEmpty()) {
-                results.removeIf(article -> !articleMatchesKeyword(article, keyword));
-            }
-
-            // Filter articles by group and level
-            List<User.HelpArticle> filteredArticles = new ArrayList<>();
-            for (User.HelpArticle article : results) {
-                boolean groupMatch = currentGroup.equals("all") || article.getGroups().contains(currentGroup);
-                boolean levelMatch = currentLevel.equals("All") || article.getLevel().equalsIgnoreCase(currentLevel);
-                if (groupMatch && levelMatch) {
-                    filteredArticles.add(article);
-                }
-            }
-
-            // Count articles by level
-            Map<String, Integer> levelCounts = new HashMap<>();
-            for (String level : Arrays.asList("Beginner", "Intermediate", "Advanced", "Expert")) {
-                levelCounts.put(level, 0);
-            }
-            for (User.HelpArticle article : filteredArticles) {
-                String level = article.getLevel();
-                levelCounts.put(level, levelCounts.getOrDefault(level, 0) + 1);
-            }
+            // Search all users' articles, filtered by keyword, group and level
+            ArticleSearch.Result result = ArticleSearch.search(loginInstance.getArticleRegistry(), currentUser,
+                    keyword, currentGroup, currentLevel, false);
 
             // Update article count label
             StringBuilder countText = new StringBuilder("Articles Matching Levels:\n");
-            for (String level : Arrays.asList("Beginner", "Intermediate", "Advanced", "Expert")) {
-                countText.append(level).append(": ").append(levelCounts.get(level)).append("\n");
+            for (String level : ArticleSearch.LEVELS) {
+                countText.append(level).append(": ").append(result.getLevelCount(level)).append("\n");
             }
             articleCountLabel.setText(countText.toString());
 
-            // Display articles in short form
-            articlesListView.getItems().clear();
-            sequenceToArticleMap.clear();
-            int sequenceNumber = 1;
-            for (User.HelpArticle article : filteredArticles) {
-                String itemText = sequenceNumber + ". Title: " + article.getTitle() + ", Author: " + article.getAuthor() + ", Abstract: " + article.getDescription();
-                articlesListView.getItems().add(itemText);
-                sequenceToArticleMap.put(sequenceNumber, article);
-                sequenceNumber++;
-            }
+            // Display articles in short form; rows are formatted only when they scroll into view
+            articlesListView.setItems(new ArticleResultList(result));
         });
 
-        // Event handler for selecting an article to view details using sequence number
+        // Event handler for selecting an article to view details
         articlesListView.setOnMouseClicked(event -> {
             if (event.getClickCount() == 2) { // Double-click
-                String selectedItem = articlesListView.getSelectionModel().getSelectedItem();
-                if (selectedItem != null) {
-                    // Extract sequence number from the selected item
-                    int dotIndex = selectedItem.indexOf(".");
-                    if (dotIndex != -1) {
-                        String sequenceStr = selectedItem.substring(0, dotIndex);
-                        try {
-                            int sequenceNumber = Integer.parseInt(sequenceStr.trim());
-                            User.HelpArticle article = sequenceToArticleMap.get(sequenceNumber);
-                            if (article != null) {
-                                showArticleDetail(article);
-                            }
-                        } catch (NumberFormatException ex) {
-                            System.out.println("Invalid sequence number.");
-                        }
-                    }
+                User.HelpArticle article = getSelectedArticle(articlesListView);
+                if (article != null) {
+                    showArticleDetail(article);
                 }
             }
         });
@@ -547,30 +451,23 @@ public class UserInterface extends Application {
 
         // Event handler for editing an article
         editArticleButton.setOnAction(e -> {
-            String selectedItem = articlesListView.getSelectionModel().getSelectedItem();
-            if (selectedItem != null) {
-                int dotIndex = selectedItem.indexOf(".");
-                if (dotIndex != -1) {
-                    String sequenceStr = selectedItem.substring(0, dotIndex);
-                    try {
-                        int sequenceNumber = Integer.parseInt(sequenceStr.trim());
-                        User.HelpArticle article = sequenceToArticleMap.get(sequenceNumber);
-                        if (article != null && article.getAuthor().equals(currentUser.getUsername())) {
-                            // Update the article with new details
-                            article.setTitle(titleField.getText());
-                            article.setDescription(descriptionField.getText());
-                            article.setKeywords(Arrays.asList(keywordsField.getText().split(",")));
-                            article.setBody(bodyArea.getText());
-                            article.setGroups(Arrays.asList(groupsField.getText().split(",")));
-                            article.setLevel(levelField.getText());
-                            System.out.println("Article updated.");
-                            clearArticleInputFields(titleField, descriptionField, keywordsField, bodyArea, groupsField, levelField);
-                        } else {
-                            System.out.println("You can only edit your own articles.");
-                        }
-                    } catch (NumberFormatException ex) {
-                        System.out.println("Invalid sequence number.");
-                    }
+            User.HelpArticle article = getSelectedArticle(articlesListView);
+            if (article != null) {
+                if (article.getAuthor().equals(currentUser.getUsername())) {
+                    // Update the article with new details; only fields that differ are rewritten
+                    ArticlePatch patch = new ArticlePatch(article.getId());
+                    patch.setTitle(titleField.getText());
+                    patch.setDescription(descriptionField.getText());
+                    patch.setKeywords(Arrays.asList(keywordsField.getText().split(",")));
+                    patch.setBody(bodyArea.getText());
+                    patch.setGroups(Arrays.asList(groupsField.getText().split(",")));
+                    patch.setLevel(levelField.getText());
+                    article.applyPatch(patch);
+                    System.out.println("Article updated.");
+                    clearArticleInputFields(titleField, descriptionField, keywordsField, bodyArea, groupsField, levelField);
+                    articlesListView.refresh(); // Re-render the visible rows
+                } else {
+                    System.out.println("You can only edit your own articles.");
                 }
             } else {
                 System.out.println("No article selected for editing.");
@@ -579,24 +476,14 @@ public class UserInterface extends Application {
 
         // Event handler for deleting an article
         deleteArticleButton.setOnAction(e -> {
-            String selectedItem = articlesListView.getSelectionModel().getSelectedItem();
-            if (selectedItem != null) {
-                int dotIndex = selectedItem.indexOf(".");
-                if (dotIndex != -1) {
-                    String sequenceStr = selectedItem.substring(0, dotIndex);
-                    try {
-                        int sequenceNumber = Integer.parseInt(sequenceStr.trim());
-                        User.HelpArticle article = sequenceToArticleMap.get(sequenceNumber);
-                        if (article != null && article.getAuthor().equals(currentUser.getUsername())) {
-                            currentUser.removeHelpArticle(article.getId());
-                            System.out.println("Article deleted.");
-                            articlesListView.getItems().remove(selectedItem);
-                        } else {
-                            System.out.println("You can only delete your own articles.");
-                        }
-                    } catch (NumberFormatException ex) {
-                        System.out.println("Invalid sequence number.");
-                    }
+            User.HelpArticle article = getSelectedArticle(articlesListView);
+            if (article != null) {
+                if (article.getAuthor().equals(currentUser.getUsername())) {
+                    currentUser.removeHelpArticle(article.getId());
+                    System.out.println("Article deleted.");
+                    articlesListView.getItems().remove(articlesListView.getSelectionModel().getSelectedIndex());
+                } else {
+                    System.out.println("You can only delete your own articles.");
                 }
             } else {
                 System.out.println("No article selected for deletion.");
@@ -698,8 +585,11 @@ public class UserInterface extends Application {
         Button backupButton = new Button("Backup Articles");
         Button restoreButton = new Button("Restore Articles");
 
+        Button importButton = new Button("Import Articles");
+
         backupButton.setOnAction(e -> backupArticles());
         restoreButton.setOnAction(e -> restoreArticles());
+        importButton.setOnAction(e -> importArticles());
 
         // Logout button
         Button logoutButton = new Button("Logout");
@@ -739,7 +629,7 @@ public class UserInterface extends Application {
                 groupButtons,
                 GroupsLabel, GroupsArea,
                 new Separator(),
-                backupButton, restoreButton,
+                backupButton, restoreButton, importButton,
                 new Separator(),
                 logoutButton); // Ensure logoutButton is added
         
@@ -754,24 +644,14 @@ public class UserInterface extends Application {
     }
 
     
-    // Helper method to check if an article matches the keyword
-    private boolean articleMatchesKeyword(User.HelpArticle article, String keyword) {
-        if (article.getTitle().toLowerCase().contains(keyword)) {
-            return true;
-        }
-        if (article.getDescription().toLowerCase().contains(keyword)) {
-            return true;
-        }
-        if (article.getBody(currentUser).toLowerCase().contains(keyword)) {
-            return true;
+    // Helper method to get the article selected in a search result list, or null if none is selected
+    private User.HelpArticle getSelectedArticle(ListView<Long> articlesListView) {
+        int index = articlesListView.getSelectionModel().getSelectedIndex();
+        if (index < 0 || !(articlesListView.getItems() instanceof ArticleResultList)) {
+            return null;
         }
-        // Check keywords
-        for (String k : article.getKeywords()) {
-            if (k.toLowerCase().contains(keyword)) {
-                return true;
-            }
-        }
-        return false;
+        ArticleSearch.Result result = ((ArticleResultList) articlesListView.getItems()).getResult();
+        return index < result.size() ? result.get(index) : null;
     }
 
     // Method to clear article input fields
@@ -798,7 +678,7 @@ public class UserInterface extends Application {
     private void addArticle(String title, String description, List<String> keywords, String body, List<String> links, List<String> groups, String level) {
         if (currentUser != null) {
             User.HelpArticle newArticle = new User.HelpArticle(
-                    System.currentTimeMillis(), // Unique ID
+                    ArticleIdGenerator.getDefault().nextId(), // Unique ID
                     title, description, keywords, body, links, groups, level, currentUser.getUsername()
             );
             currentUser.addHelpArticle(newArticle); // Add the new article
@@ -808,13 +688,39 @@ public class UserInterface extends Application {
         }
     }
 
+    // Method to import articles in bulk from a JSON lines or Markdown file
+    private void importArticles() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Articles");
+        File file = fileChooser.showOpenDialog(window); // Show open dialog
+        if (file != null) {
+            try {
+                ArticleIngest.Report report = new ArticleIngest(currentUser)
+                        .ingest(file.toPath(), ArticleIngest.formatOf(file.toPath()));
+                System.out.println("Articles imported: " + report);
+            } catch (IOException e) {
+                System.out.println("Import failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Method to rotate the encryption keys and re-encrypt stored data in the background
+    private void rotateKeys() {
+        try {
+            loginInstance.rotateKeys(KEY_ROTATION_RATE);
+            System.out.println("Keys rotated. Re-encrypting passwords and articles in the background.");
+        } catch (IOException e) {
+            System.out.println("Key rotation failed: " + e.getMessage());
+        }
+    }
+
     // Method to backup articles to a file
     private void backupArticles() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save Backup");
         File file = fileChooser.showSaveDialog(window); // Show save dialog
         if (file != null) {
-            loginInstance.backupHelpArticles(file.getAbsolutePath(), currentUser); // Backup articles
+            loginInstance.backupHelpArticlesCompressed(file.getAbsolutePath(), currentUser); // Backup articles
             System.out.println("Backup completed.");
         }
     }
@@ -864,6 +770,12 @@ public class UserInterface extends Application {
         Button addUserButton = new Button("Add User");
         Button deleteUserButton = new Button("Delete User");
         Button listUsersButton = new Button("List Users");
+        Button moreUsersButton = new Button("More Users");
+        moreUsersButton.setDisable(true);
+
+        ComboBox<String> userRoleFilterComboBox = new ComboBox<>();
+        userRoleFilterComboBox.getItems().addAll("All Roles", "Student", "Instructor", "Admin");
+        userRoleFilterComboBox.setValue("All Roles");
         
      // View Registered Users
         Label UserLabel = new Label("Registered Users:");
@@ -871,6 +783,9 @@ public class UserInterface extends Application {
         UserArea.setEditable(false);
         UserArea.setPrefRowCount(5);
 
+        // Cursor of the next page of users; users are fetched one page at a time
+        long[] userCursor = {0};
+
         // Event handler for adding a user
         addUserButton.setOnAction(e -> {
             String username = usernameField.getText();
@@ -906,17 +821,24 @@ public class UserInterface extends Application {
             }
         });
 
-     // Event handler for listing all users
-        listUsersButton.setOnAction(e -> {
-            StringBuilder usersList = new StringBuilder("Listing all users:\n");
-
-            // Iterate through the list of users and append each to the StringBuilder
-            for (User u : loginInstance.listUsers()) {
+     // Event handler for listing users, one page at a time
+        moreUsersButton.setOnAction(e -> {
+            String role = userRoleFilterComboBox.getValue();
+            Page<User> page = loginInstance.listUsers(userCursor[0], LISTING_PAGE_SIZE,
+                    "All Roles".equals(role) ? null : role);
+            StringBuilder usersList = new StringBuilder();
+            for (User u : page.getItems()) {
                 usersList.append("Username: ").append(u.getUsername()).append(", Role: ").append(u.getRole()).append("\n");
             }
+            UserArea.appendText(usersList.toString());
+            userCursor[0] = page.getNextCursor();
+            moreUsersButton.setDisable(!page.hasMore());
+        });
 
-            // Set the text of UserArea to show the list of users
-            UserArea.setText(usersList.toString());
+        listUsersButton.setOnAction(e -> {
+            UserArea.setText("Listing users:\n");
+            userCursor[0] = 0;
+            moreUsersButton.fire();
         });
 
         // Group Management Components
@@ -1070,9 +992,21 @@ public class UserInterface extends Application {
         Button createArticleButton = new Button("Create Article");
         Button deleteArticleButton = new Button("Delete Article");
         Button listArticlesButton = new Button("List Articles");
-
-        // Map to keep track of articles
-        Map<Long, User.HelpArticle> articleMap = new HashMap<>();
+        Button moreArticlesButton = new Button("More Articles");
+        moreArticlesButton.setDisable(true);
+
+        // Filters for the article listing
+        TextField articleGroupFilterField = new TextField();
+        articleGroupFilterField.setPromptText("Filter by group");
+        TextField articleAuthorFilterField = new TextField();
+        articleAuthorFilterField.setPromptText("Filter by author");
+
+        // Article listing, fetched one page at a time from the article registry
+        ListView<Long> adminArticlesListView = new ListView<>();
+        adminArticlesListView.setPrefHeight(200);
+        adminArticlesListView.setCellFactory(view -> new ArticleListCell());
+        adminArticlesListView.setFixedCellSize(24);
+        long[] articleCursor = {Long.MIN_VALUE};
 
         // Event handler for creating an article
         createArticleButton.setOnAction(e -> {
@@ -1084,7 +1018,7 @@ public class UserInterface extends Application {
 
             if (!title.isEmpty()) {
                 User.HelpArticle newArticle = new User.HelpArticle(
-                        System.currentTimeMillis(),
+                        ArticleIdGenerator.getDefault().nextId(),
                         title,
                         description,
                         keywords,
@@ -1095,23 +1029,31 @@ public class UserInterface extends Application {
                         currentUser.getUsername()
                 );
                 currentUser.addHelpArticle(newArticle);
-                articleMap.put(newArticle.getId(), newArticle);
                 System.out.println("Article created successfully.");
             } else {
                 System.out.println("Please enter an article title.");
             }
         });
 
-        // Event handler for deleting an article
+        // Event handler for deleting an article: the article selected in the listing, or else the one with the entered title
         deleteArticleButton.setOnAction(e -> {
+            User.HelpArticle selected = getSelectedArticle(adminArticlesListView);
+            if (selected != null) {
+                if (loginInstance.deleteArticle(selected.getId())) {
+                    adminArticlesListView.getItems().remove(adminArticlesListView.getSelectionModel().getSelectedIndex());
+                    System.out.println("Article deleted successfully.");
+                } else {
+                    System.out.println("Article not found.");
+                }
+                return;
+            }
             String title = articleTitleField.getText();
             if (!title.isEmpty()) {
                 boolean found = false;
                 for (User userItem : loginInstance.listUsers()) {
                     for (User.HelpArticle article : userItem.getAllHelpArticles()) {
                         if (article.getTitle().equals(title)) {
-                            userItem.removeHelpArticle(article.getId());
-                            articleMap.remove(article.getId());
+                            loginInstance.deleteArticle(article.getId());
                             System.out.println("Article deleted successfully.");
                             found = true;
                             break;
@@ -1127,14 +1069,29 @@ public class UserInterface extends Application {
             }
         });
 
-        // Event handler for listing all articles
+        // Event handler for listing articles, one page at a time
+        moreArticlesButton.setOnAction(e -> {
+            String group = articleGroupFilterField.getText().trim();
+            String author = articleAuthorFilterField.getText().trim();
+            Page<User.HelpArticle> page = loginInstance.listArticles(articleCursor[0], LISTING_PAGE_SIZE,
+                    group.isEmpty() ? null : group, author.isEmpty() ? null : author);
+            ((ArticleResultList) adminArticlesListView.getItems()).append(page.getItems());
+            articleCursor[0] = page.getNextCursor();
+            moreArticlesButton.setDisable(!page.hasMore());
+        });
+
         listArticlesButton.setOnAction(e -> {
-            System.out.println("Listing all articles:");
-            articleMap.clear();
-            for (User userItem : loginInstance.listUsers()) {
-                for (User.HelpArticle article : userItem.getAllHelpArticles()) {
-                    System.out.println("Title: " + article.getTitle() + ", Author: " + article.getAuthor());
-                    articleMap.put(article.getId(), article);
+            adminArticlesListView.setItems(new ArticleResultList(new ArticleSearch.Result()));
+            articleCursor[0] = Long.MIN_VALUE;
+            moreArticlesButton.fire();
+        });
+
+        // Event handler for viewing the details of a listed article
+        adminArticlesListView.setOnMouseClicked(event -> {
+            if (event.getClickCount() == 2) { // Double-click
+                User.HelpArticle article = getSelectedArticle(adminArticlesListView);
+                if (article != null) {
+                    showArticleDetail(article);
                 }
             }
         });
@@ -1143,8 +1100,13 @@ public class UserInterface extends Application {
         Button backupButton = new Button("Backup Articles");
         Button restoreButton = new Button("Restore Articles");
 
+        Button importButton = new Button("Import Articles");
+        Button rotateKeysButton = new Button("Rotate Keys");
+
         backupButton.setOnAction(e -> backupArticles());
         restoreButton.setOnAction(e -> restoreArticles());
+        importButton.setOnAction(e -> importArticles());
+        rotateKeysButton.setOnAction(e -> rotateKeys());
 
         // View Messages and Search History
         Label messagesLabel = new Label("Messages from Users:");
@@ -1154,13 +1116,18 @@ public class UserInterface extends Application {
 
         Button refreshMessagesButton = new Button("Refresh Messages");
 
+        // Id of the newest message already shown; refreshes only append newer ones
+        long[] lastMessageId = {0};
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
         refreshMessagesButton.setOnAction(e -> {
-            messagesArea.clear();
-            List<Login.Message> messages = loginInstance.getMessages();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            for (Login.Message message : messages) {
-                messagesArea.appendText("[" + message.getTimestamp().format(formatter) + "] "
-                        + message.getUsername() + ": " + message.getContent() + "\n");
+            StringBuilder newText = new StringBuilder();
+            for (Login.Message message : loginInstance.getMessagesSince(lastMessageId[0])) {
+                appendMessageLine(newText, message, formatter);
+                lastMessageId[0] = message.getId();
+            }
+            if (newText.length() > 0) {
+                messagesArea.appendText(newText.toString());
             }
         });
 
@@ -1171,20 +1138,92 @@ public class UserInterface extends Application {
 
         Button refreshSearchHistoryButton = new Button("Refresh Search History");
 
+        // Id of the newest search query already shown
+        long[] lastSearchQueryId = {0};
+
         refreshSearchHistoryButton.setOnAction(e -> {
-            searchHistoryArea.clear();
-            List<Login.SearchQuery> searchQueries = loginInstance.getSearchQueries();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            for (Login.SearchQuery query : searchQueries) {
-                searchHistoryArea.appendText("[" + query.getTimestamp().format(formatter) + "] "
-                        + query.getUsername() + " searched: " + query.getQuery() + "\n");
+            StringBuilder newText = new StringBuilder();
+            for (Login.SearchQuery query : loginInstance.getSearchQueriesSince(lastSearchQueryId[0])) {
+                appendSearchLine(newText, query, formatter);
+                lastSearchQueryId[0] = query.getId();
+            }
+            if (newText.length() > 0) {
+                searchHistoryArea.appendText(newText.toString());
             }
         });
 
+        // Live updates: events are queued by whichever thread publishes them and
+        // appended once per frame, so a burst of activity costs one append per area
+        Queue<Login.Message> pendingMessages = new ConcurrentLinkedQueue<>();
+        Queue<Login.SearchQuery> pendingSearches = new ConcurrentLinkedQueue<>();
+        Login.Listener dashboardListener = new Login.Listener() {
+            @Override
+            public void onMessage(Login.Message message) {
+                pendingMessages.offer(message);
+            }
+
+            @Override
+            public void onSearchQuery(Login.SearchQuery query) {
+                pendingSearches.offer(query);
+            }
+        };
+        // Publishers on different threads can deliver ids out of order. Events are
+        // shown directly only while they follow on from the last id shown; after a
+        // gap the frame re-reads from the store, which already holds every event
+        // up to the newest delivered one, and later duplicates are skipped by id.
+        AnimationTimer liveUpdates = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                StringBuilder messageText = new StringBuilder();
+                boolean messageGap = false;
+                Login.Message message;
+                while ((message = pendingMessages.poll()) != null) {
+                    if (message.getId() == lastMessageId[0] + 1 && !messageGap) {
+                        appendMessageLine(messageText, message, formatter);
+                        lastMessageId[0] = message.getId();
+                    } else if (message.getId() > lastMessageId[0]) {
+                        messageGap = true;
+                    }
+                }
+                if (messageGap) {
+                    for (Login.Message missed : loginInstance.getMessagesSince(lastMessageId[0])) {
+                        appendMessageLine(messageText, missed, formatter);
+                        lastMessageId[0] = missed.getId();
+                    }
+                }
+                if (messageText.length() > 0) {
+                    messagesArea.appendText(messageText.toString());
+                }
+
+                StringBuilder searchText = new StringBuilder();
+                boolean searchGap = false;
+                Login.SearchQuery query;
+                while ((query = pendingSearches.poll()) != null) {
+                    if (query.getId() == lastSearchQueryId[0] + 1 && !searchGap) {
+                        appendSearchLine(searchText, query, formatter);
+                        lastSearchQueryId[0] = query.getId();
+                    } else if (query.getId() > lastSearchQueryId[0]) {
+                        searchGap = true;
+                    }
+                }
+                if (searchGap) {
+                    for (Login.SearchQuery missed : loginInstance.getSearchQueriesSince(lastSearchQueryId[0])) {
+                        appendSearchLine(searchText, missed, formatter);
+                        lastSearchQueryId[0] = missed.getId();
+                    }
+                }
+                if (searchText.length() > 0) {
+                    searchHistoryArea.appendText(searchText.toString());
+                }
+            }
+        };
+
         // Logout button
         Button logoutButton = new Button("Logout");
         logoutButton.setOnAction(e -> {
             System.out.println("Logging out.");
+            loginInstance.unsubscribe(dashboardListener);
+            liveUpdates.stop();
             showLoginScreen(); // Return to login screen
         });
 
@@ -1196,8 +1235,8 @@ public class UserInterface extends Application {
                 usernameField,
                 passwordField,
                 roleComboBox,
-                new HBox(10, addUserButton, deleteUserButton, listUsersButton),
-                UserLabel, UserArea,
+                new HBox(10, addUserButton, deleteUserButton, listUsersButton, userRoleFilterComboBox),
+                UserLabel, UserArea, moreUsersButton,
                 new Separator(),
                 groupManagementLabel,
                 groupNameField,
@@ -1215,9 +1254,11 @@ public class UserInterface extends Application {
                 articleGroupsField,
                 articleLevelField,
                 new HBox(10, createArticleButton, deleteArticleButton, listArticlesButton),
+                new HBox(10, articleGroupFilterField, articleAuthorFilterField),
+                adminArticlesListView, moreArticlesButton,
                 new Separator(),
                 new Label("Backup and Restore Articles:"),
-                new HBox(10, backupButton, restoreButton),
+                new HBox(10, backupButton, restoreButton, importButton, rotateKeysButton),
                 new Separator(),
                 messagesLabel,
                 messagesArea,
@@ -1238,9 +1279,24 @@ public class UserInterface extends Application {
         window.setScene(adminScene);
         window.show();
 
-        // Auto-refresh messages and search history when the dashboard is opened
+        // Subscribe before loading history so nothing published in between is missed;
+        // the id checks drop anything delivered twice
+        loginInstance.subscribe(dashboardListener);
         refreshMessagesButton.fire();
         refreshSearchHistoryButton.fire();
+        liveUpdates.start();
+    }
+
+    // Formats one message line for the admin dashboard
+    private void appendMessageLine(StringBuilder text, Login.Message message, DateTimeFormatter formatter) {
+        text.append("[").append(message.getTimestamp().format(formatter)).append("] ")
+                .append(message.getUsername()).append(": ").append(message.getContent()).append("\n");
+    }
+
+    // Formats one search history line for the admin dashboard
+    private void appendSearchLine(StringBuilder text, Login.SearchQuery query, DateTimeFormatter formatter) {
+        text.append("[").append(query.getTimestamp().format(formatter)).append("] ")
+                .append(query.getUsername()).append(" searched: ").append(query.getQuery()).append("\n");
     }
 
     public static void main(String[] args) {
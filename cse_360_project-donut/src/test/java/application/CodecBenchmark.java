@@ -0,0 +1,78 @@
+package application;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares BinaryCodec with Java serialization for size and encode/decode speed.
+ * Run with: java -cp target/classes:target/test-classes application.CodecBenchmark [articles]
+ */
+public class CodecBenchmark {
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        List<User.HelpArticle> articles = new ArrayList<>(count);
+        String[] levels = {"Beginner", "Intermediate", "Advanced", "Expert"};
+        for (int i = 0; i < count; i++) {
+            articles.add(new User.HelpArticle(i, "Article title " + i, "Abstract of article " + i,
+                    List.of("java", "keyword" + (i % 50)), "Body text ".repeat(40) + i,
+                    List.of("https://example.com/" + i), List.of("group" + (i % 20), i % 10 == 0 ? "special_staff" : "general"),
+                    levels[i % levels.length], "author" + (i % 100)));
+        }
+
+        // Warm up both paths before measuring
+        for (int i = 0; i < 3; i++) {
+            BinaryCodec.decodeArticles(BinaryCodec.encodeArticles(articles));
+            javaDecode(javaEncode(articles));
+        }
+
+        byte[] binary = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            binary = BinaryCodec.encodeArticles(articles);
+        }
+        long binaryEncode = (System.nanoTime() - start) / ROUNDS;
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            BinaryCodec.decodeArticles(binary);
+        }
+        long binaryDecode = (System.nanoTime() - start) / ROUNDS;
+
+        byte[] java = null;
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            java = javaEncode(articles);
+        }
+        long javaEncode = (System.nanoTime() - start) / ROUNDS;
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            javaDecode(java);
+        }
+        long javaDecode = (System.nanoTime() - start) / ROUNDS;
+
+        System.out.printf("%d articles%n", count);
+        System.out.printf("%-20s %12s %12s %12s%n", "format", "bytes", "encode ms", "decode ms");
+        System.out.printf("%-20s %12d %12.2f %12.2f%n", "BinaryCodec", binary.length, binaryEncode / 1e6, binaryDecode / 1e6);
+        System.out.printf("%-20s %12d %12.2f %12.2f%n", "ObjectOutputStream", java.length, javaEncode / 1e6, javaDecode / 1e6);
+    }
+
+    private static byte[] javaEncode(List<User.HelpArticle> articles) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(articles);
+        }
+        return out.toByteArray();
+    }
+
+    private static Object javaDecode(byte[] bytes) throws Exception {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return ois.readObject();
+        }
+    }
+}
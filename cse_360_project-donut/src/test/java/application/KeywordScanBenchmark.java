@@ -0,0 +1,63 @@
+package application;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Compares KeywordScanner with toLowerCase().contains() for scanning article
+ * bodies that do not contain the keyword, the worst case of a full-text search.
+ * Run with: java -cp target/classes:target/test-classes application.KeywordScanBenchmark [bodies] [bodyBytes]
+ */
+public class KeywordScanBenchmark {
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 16 * 1024;
+        Random random = new Random(1);
+        String[] words = {"Java ", "Eclipse ", "compile ", "ERROR ", "thread ", "class ", "Loop ", "array "};
+        String[] bodies = new String[count];
+        byte[][] bytes = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            StringBuilder body = new StringBuilder(size + 16);
+            while (body.length() < size) {
+                body.append(words[random.nextInt(words.length)]);
+            }
+            bodies[i] = body.toString();
+            bytes[i] = bodies[i].getBytes(StandardCharsets.UTF_8);
+        }
+        String keyword = "classpath";
+        KeywordScanner scanner = KeywordScanner.forKeyword(keyword);
+        double megabytes = (double) count * size * ROUNDS / (1024 * 1024);
+
+        // Warm up both paths before measuring
+        int found = 0;
+        for (int r = 0; r < 3; r++) {
+            for (int i = 0; i < count; i++) {
+                found += bodies[i].toLowerCase().contains(keyword) ? 1 : 0;
+                found += scanner.matches(bytes[i]) ? 1 : 0;
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int i = 0; i < count; i++) {
+                found += bodies[i].toLowerCase().contains(keyword) ? 1 : 0;
+            }
+        }
+        long lowerCase = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int i = 0; i < count; i++) {
+                found += scanner.matches(bytes[i]) ? 1 : 0;
+            }
+        }
+        long scanned = System.nanoTime() - start;
+
+        System.out.printf("toLowerCase().contains: %8.1f MB/s%n", megabytes / (lowerCase / 1e9));
+        System.out.printf("KeywordScanner:         %8.1f MB/s%n", megabytes / (scanned / 1e9));
+        System.out.println("Matches (expected 0): " + found);
+    }
+}
@@ -0,0 +1,84 @@
+package application;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures login latency for regular users while attacker threads replay
+ * guessed passwords against the same accounts from a few sources. With the
+ * attempt limiters in place the attack traffic is turned away before any
+ * password is decrypted, so regular logins keep a stable latency.
+ * Run with: java -cp target/classes:target/test-classes application.LoginLoadTest [attackers] [seconds]
+ */
+public class LoginLoadTest {
+
+    private static final int USERS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int attackers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Login login = Login.getInstance();
+        for (int i = 0; i < USERS; i++) {
+            login.registerUser("loadUser" + i, "password" + i, "Student", false, null);
+        }
+
+        System.out.println("Baseline (no attack):");
+        report(measureLegitimate(seconds));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder attempts = new LongAdder();
+        Thread[] threads = new Thread[attackers];
+        for (int t = 0; t < attackers; t++) {
+            String source = "203.0.113." + t;
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    // Stuff credentials against the victim accounts and unknown names alike
+                    String username = random.nextBoolean() ? "loadUser" + random.nextInt(USERS) : "guess" + random.nextInt(100_000);
+                    login.authenticate(username, "guess" + random.nextInt(), source);
+                    attempts.increment();
+                }
+            }, "attacker-" + t);
+            threads[t].start();
+        }
+
+        System.out.println("Under attack (" + attackers + " attacker threads):");
+        report(measureLegitimate(seconds));
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long rejected = login.getUserAttemptLimiter().getRejectedAttempts() + login.getSourceAttemptLimiter().getRejectedAttempts();
+        System.out.printf("Attack attempts: %d, rejected before decryption: %d (%.1f%%)%n",
+                attempts.sum(), rejected, 100.0 * rejected / Math.max(1, attempts.sum()));
+        EventLog.flush();
+    }
+
+    // Logs regular users in from their own source for the given time and returns the latencies in nanoseconds
+    private static long[] measureLegitimate(int seconds) {
+        long[] latencies = new long[1 << 20];
+        int count = 0;
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        while (System.nanoTime() < end && count < latencies.length) {
+            int user = count % USERS;
+            long start = System.nanoTime();
+            // Accounts the attackers have locked out are rejected too; their latency still counts
+            Login.getInstance().authenticate("loadUser" + user, "password" + user, "192.0.2.1");
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static void report(long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf("  logins: %d  p50: %.1f us  p99: %.1f us  p99.9: %.1f us%n",
+                latencies.length,
+                latencies[latencies.length / 2] / 1000.0,
+                latencies[(int) (latencies.length * 0.99)] / 1000.0,
+                latencies[(int) (latencies.length * 0.999)] / 1000.0);
+    }
+}
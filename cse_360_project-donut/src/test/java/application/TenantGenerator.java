@@ -0,0 +1,155 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds a synthetic tenant inside Login for load tests: users with a
+ * realistic role mix, groups (about one in five a special_ group), group
+ * memberships, and articles whose keywords follow a skewed vocabulary and
+ * whose body sizes follow a long-tailed distribution. Generation is
+ * deterministic for a given seed, and every name carries a prefix so
+ * several tenants can share the Login singleton.
+ */
+public class TenantGenerator {
+
+    /** Median article body size in characters. */
+    static final int MEDIAN_BODY_CHARS = 2048;
+    /** Largest article body the generator produces. */
+    static final int MAX_BODY_CHARS = 256 * 1024;
+
+    private static final String[] WORDS = {
+        "java", "eclipse", "compile", "error", "loop", "array", "class", "object", "method", "thread",
+        "exception", "debug", "install", "path", "variable", "string", "interface", "package", "build", "test",
+        "maven", "gradle", "git", "merge", "branch", "stream", "lambda", "generic", "collection", "map",
+        "recursion", "sort", "search", "tree", "graph", "queue", "stack", "heap", "hash", "pointer",
+        "javafx", "scene", "button", "layout", "event", "listener", "database", "query", "index", "backup"
+    };
+
+    private final String prefix;
+    private final Random random;
+
+    /**
+     * A generated tenant: everything a workload needs to address it.
+     */
+    public static class Tenant {
+        final List<String> usernames = new ArrayList<>();
+        final List<String> passwords = new ArrayList<>();
+        final List<String> groupNames = new ArrayList<>();
+        final List<Long> articleIds = new ArrayList<>();
+        final List<User> instructors = new ArrayList<>();
+        User admin;
+        long bodyChars;
+
+        public List<String> getUsernames() { return usernames; }
+        public List<String> getPasswords() { return passwords; }
+        public List<String> getGroupNames() { return groupNames; }
+        public List<Long> getArticleIds() { return articleIds; }
+        public List<User> getInstructors() { return instructors; }
+        public User getAdmin() { return admin; }
+        public long getBodyChars() { return bodyChars; }
+    }
+
+    /**
+     * @param prefix Prefix for every generated username and group name.
+     * @param seed   Seed for the random choices.
+     */
+    public TenantGenerator(String prefix, long seed) {
+        this.prefix = prefix;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Registers the tenant's users and groups in Login and gives its
+     * instructors the articles.
+     *
+     * @param login    The login to populate.
+     * @param users    Number of users, at least 2 (an admin and an instructor).
+     * @param groups   Number of groups, at least 1.
+     * @param articles Number of articles.
+     * @return The tenant.
+     */
+    public Tenant generate(Login login, int users, int groups, int articles) {
+        if (users < 2 || groups < 1) {
+            throw new IllegalArgumentException("A tenant needs at least 2 users and 1 group");
+        }
+        Tenant tenant = new Tenant();
+        for (int g = 0; g < groups; g++) {
+            // Every fifth group restricts access, like the staff-only groups in a real course
+            String name = (g % 5 == 4 ? "special_" : "") + prefix + "_group" + g;
+            login.createGroup(name, name.startsWith("special_"));
+            tenant.groupNames.add(name);
+        }
+
+        for (int u = 0; u < users; u++) {
+            // One admin, roughly one instructor per 20 users, the rest students
+            String role = u == 0 ? "Admin" : u == 1 || random.nextInt(20) == 0 ? "Instructor" : "Student";
+            String username = prefix + "_user" + u;
+            String password = "pw" + Long.toHexString(random.nextLong());
+            User user = login.registerUser(username, password, role, false, null);
+            tenant.usernames.add(username);
+            tenant.passwords.add(password);
+            if (u == 0) {
+                tenant.admin = user;
+            } else if (role.equals("Instructor")) {
+                tenant.instructors.add(user);
+            }
+            // Each user joins one to three groups; students only rarely join a special group
+            int memberships = 1 + random.nextInt(3);
+            for (int m = 0; m < memberships; m++) {
+                String group = tenant.groupNames.get(random.nextInt(groups));
+                if (!group.startsWith("special_") || !role.equals("Student") || random.nextInt(10) == 0) {
+                    login.addUserToGroup(group, user);
+                }
+            }
+        }
+
+        String[] levels = ArticleSearch.LEVELS.toArray(new String[0]);
+        for (int a = 0; a < articles; a++) {
+            User author = tenant.instructors.get(random.nextInt(tenant.instructors.size()));
+            List<String> keywords = new ArrayList<>();
+            for (int k = 1 + random.nextInt(4); k > 0; k--) {
+                keywords.add(word());
+            }
+            List<String> articleGroups = new ArrayList<>();
+            articleGroups.add(tenant.groupNames.get(random.nextInt(groups)));
+            if (random.nextInt(4) == 0) {
+                articleGroups.add(tenant.groupNames.get(random.nextInt(groups)));
+            }
+            String body = body(bodyChars());
+            User.HelpArticle article = new User.HelpArticle(ArticleIdGenerator.getDefault().nextId(),
+                    "How to " + word() + " a " + word() + " " + a, "Notes on " + keywords.get(0), keywords, body,
+                    List.of("https://example.com/" + prefix + "/" + a), articleGroups,
+                    levels[random.nextInt(levels.length)], author.getUsername());
+            author.addHelpArticle(article);
+            tenant.articleIds.add(article.getId());
+            tenant.bodyChars += body.length();
+        }
+        return tenant;
+    }
+
+    /**
+     * Picks a vocabulary word, favouring the first ones the way real search
+     * terms favour a few popular topics (roughly Zipf-distributed).
+     */
+    String word() {
+        double u = random.nextDouble();
+        return WORDS[(int) (WORDS.length * u * u * u)];
+    }
+
+    // Log-normal body size around the median, so most bodies are a few KB and a few are very large
+    int bodyChars() {
+        double size = MEDIAN_BODY_CHARS * Math.exp(random.nextGaussian() * 1.2);
+        return (int) Math.max(64, Math.min(MAX_BODY_CHARS, size));
+    }
+
+    private String body(int chars) {
+        StringBuilder body = new StringBuilder(chars + 16);
+        while (body.length() < chars) {
+            body.append(word()).append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        body.setLength(chars);
+        return body.toString();
+    }
+}
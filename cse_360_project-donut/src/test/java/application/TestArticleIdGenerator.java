@@ -0,0 +1,63 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TestArticleIdGenerator {
+
+    @Test
+    void testIdsIncreaseAndEncodeNode() {
+        ArticleIdGenerator generator = new ArticleIdGenerator(7);
+        long previous = generator.nextId();
+        for (int i = 0; i < 100000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "Ids should be strictly increasing.");
+            previous = id;
+        }
+        assertEquals(7, ArticleIdGenerator.nodeOf(previous));
+        assertTrue(Math.abs(ArticleIdGenerator.timestampOf(previous) - System.currentTimeMillis()) < 60000,
+                "The timestamp should track the wall clock.");
+    }
+
+    @Test
+    void testConcurrentCallersGetUniqueIds() throws InterruptedException {
+        ArticleIdGenerator generator = new ArticleIdGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(8 * 20000, ids.size(), "No id should be handed out twice.");
+    }
+
+    @Test
+    void testNodesDoNotCollide() {
+        ArticleIdGenerator first = new ArticleIdGenerator(1);
+        ArticleIdGenerator second = new ArticleIdGenerator(2);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(ids.add(first.nextId()));
+            assertTrue(ids.add(second.nextId()));
+        }
+    }
+
+    @Test
+    void testInvalidNodeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ArticleIdGenerator(ArticleIdGenerator.MAX_NODE_ID + 1));
+    }
+}
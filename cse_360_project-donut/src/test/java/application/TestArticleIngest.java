@@ -0,0 +1,120 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestArticleIngest {
+
+    private final Login loginInstance = Login.getInstance();
+
+    private static BufferedReader input(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+
+    @Test
+    void testJsonLinesAreNormalizedAndCommitted() throws Exception {
+        User target = loginInstance.registerUser("ingestJson", "pass", "Instructor", false, null);
+        String lines = "{\"title\": \" Getting started \", \"keywords\": [\"java\", \"java\", \" \"], \"groups\": \"general, special_staff\", \"level\": \"advanced\", \"body\": \"Secret\\nsteps\"}\n"
+                + "\n"
+                + "{\"description\": \"no title\"}\n"
+                + "not json\n"
+                + "{\"title\": \"Second\", \"author\": \"someoneElse\"}\n";
+
+        ArticleIngest.Report report = new ArticleIngest(target, 2, 4, 1).ingest(input(lines), ArticleIngest.Format.JSON_LINES);
+
+        assertEquals(4, report.getRead());
+        assertEquals(2, report.getRejected());
+        assertEquals(2, report.getCommitted());
+        List<User.HelpArticle> articles = target.getAllHelpArticles();
+        assertEquals(2, articles.size());
+
+        User.HelpArticle first = articles.stream().filter(a -> a.getTitle().equals("Getting started")).findFirst().orElseThrow();
+        assertEquals(List.of("java"), first.getKeywords());
+        assertEquals(List.of("general", "special_staff"), first.getGroups());
+        assertEquals("Advanced", first.getLevel());
+        assertEquals("ingestJson", first.getAuthor());
+        assertTrue(first.isSpecialAccessGroup());
+        assertEquals("Secret\nsteps", first.getBody(target), "Encrypted bodies should decrypt to the original.");
+        assertSame(target, loginInstance.getArticleRegistry().getOwner(first.getId()), "Imported articles should be indexed.");
+    }
+
+    @Test
+    void testMarkdownArticlesAreSplitOnHeadings() throws Exception {
+        User target = loginInstance.registerUser("ingestMarkdown", "pass", "Instructor", false, null);
+        String markdown = "Exported from the wiki\n"
+                + "# First article\n"
+                + "Keywords: setup, install\n"
+                + "Level: Beginner\n"
+                + "\n"
+                + "Line one\n"
+                + "Line two\n"
+                + "\n"
+                + "# Second article\n"
+                + "Body without headers\n";
+
+        ArticleIngest.Report report = new ArticleIngest(target).ingest(input(markdown), ArticleIngest.Format.MARKDOWN);
+
+        assertEquals(2, report.getCommitted());
+        List<User.HelpArticle> articles = target.getAllHelpArticles();
+        User.HelpArticle first = articles.stream().filter(a -> a.getTitle().equals("First article")).findFirst().orElseThrow();
+        assertEquals(List.of("setup", "install"), first.getKeywords());
+        assertEquals("Line one\nLine two", first.getBody(target));
+        User.HelpArticle second = articles.stream().filter(a -> a.getTitle().equals("Second article")).findFirst().orElseThrow();
+        assertEquals("Body without headers", second.getBody(target));
+    }
+
+    @Test
+    void testSmallQueuesApplyBackpressure() throws Exception {
+        User target = loginInstance.registerUser("ingestBulk", "pass", "Instructor", false, null);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            lines.append("{\"title\": \"Article ").append(i).append("\", \"groups\": [\"general\"]}\n");
+        }
+
+        ArticleIngest.Report report = new ArticleIngest(target, 2, 8, 100).ingest(input(lines.toString()), ArticleIngest.Format.JSON_LINES);
+
+        assertEquals(5000, report.getCommitted());
+        assertEquals(5000, target.getAllHelpArticles().size(), "Generated ids should not collide.");
+        assertTrue(report.getBatches() >= 50);
+    }
+
+    @Test
+    void testFailingWorkerDoesNotHangImport() throws Exception {
+        User target = loginInstance.registerUser("ingestFailing", "pass", "Instructor", false, null);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            lines.append("{\"title\": \"Article ").append(i).append("\"}\n");
+        }
+        ArticleIngest ingest = new ArticleIngest(target, 1, 2, 4);
+        AtomicInteger calls = new AtomicInteger();
+        ingest.setIdGenerator(new ArticleIdGenerator(1) {
+            @Override
+            public long nextId() {
+                if (calls.incrementAndGet() % 5 == 0) {
+                    throw new IllegalStateException("clock moved backwards");
+                }
+                return super.nextId();
+            }
+        });
+
+        ArticleIngest.Report report = ingest.ingest(input(lines.toString()), ArticleIngest.Format.JSON_LINES);
+
+        assertEquals(20, report.getRead());
+        assertEquals(4, report.getFailed());
+        assertEquals(16, report.getCommitted());
+    }
+
+    @Test
+    void testJsonParsesNestedValues() {
+        Map<String, Object> object = Json.parseObject("{\"a\": [1, 2.5, true, null], \"b\": {\"c\": \"\\u0041\\\"\"}}");
+        assertEquals(List.of(1L, 2.5, true), ((List<?>) object.get("a")).subList(0, 3));
+        assertEquals("A\"", ((Map<?, ?>) object.get("b")).get("c"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\": }"));
+    }
+}
@@ -0,0 +1,90 @@
+package application;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestArticleMerger {
+
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = new User("mergeAdmin", new byte[]{}, "Admin");
+    }
+
+    private User.HelpArticle article(long id, String title) {
+        return new User.HelpArticle(id, title, "Description", List.of("keyword"), "Body",
+                List.of(), List.of("general"), "Beginner", "author");
+    }
+
+    @Test
+    void testKeepExistingSkipsConflicts() {
+        admin.addHelpArticle(article(1L, "Existing"));
+        ArticleMerger.MergeResult result = ArticleMerger.merge(admin,
+                List.of(article(1L, "Restored"), article(2L, "New")), ArticleMerger.ConflictPolicy.KEEP_EXISTING);
+
+        assertEquals(1, result.getAdded());
+        assertEquals(1, result.getKeptExisting());
+        assertEquals("Existing", admin.getAllHelpArticles().get(0).getTitle());
+        assertEquals(2, admin.getAllHelpArticles().size());
+    }
+
+    @Test
+    void testOverwriteNewerReplacesOlderArticle() {
+        User.HelpArticle older = article(1L, "Older");
+        User.HelpArticle newer = article(1L, "Newer"); // Created later, so stamped later
+        admin.addHelpArticle(older);
+
+        ArticleMerger.MergeResult result = ArticleMerger.merge(admin, List.of(newer),
+                ArticleMerger.ConflictPolicy.OVERWRITE_NEWER);
+        assertEquals(1, result.getOverwritten());
+        assertEquals("Newer", admin.getAllHelpArticles().get(0).getTitle());
+
+        result = ArticleMerger.merge(admin, List.of(older), ArticleMerger.ConflictPolicy.OVERWRITE_NEWER);
+        assertEquals(1, result.getKeptExisting(), "An older restored article should not overwrite.");
+        assertEquals("Newer", admin.getAllHelpArticles().get(0).getTitle());
+    }
+
+    @Test
+    void testKeepBothAssignsNewId() {
+        admin.addHelpArticle(article(5L, "Existing"));
+        ArticleMerger.MergeResult result = ArticleMerger.merge(admin, List.of(article(5L, "Restored")),
+                ArticleMerger.ConflictPolicy.KEEP_BOTH);
+
+        assertEquals(1, result.getKeptBoth());
+        List<User.HelpArticle> articles = admin.getAllHelpArticles();
+        assertEquals(2, articles.size());
+        assertNotEquals(articles.get(0).getId(), articles.get(1).getId(), "Copies should get distinct ids.");
+        assertEquals("Restored", articles.get(1).getTitle());
+    }
+
+    @Test
+    void testReplaceDropsExistingArticles() {
+        admin.addHelpArticle(article(1L, "Old"));
+        ArticleMerger.MergeResult result = ArticleMerger.replace(admin, List.of(article(2L, "Restored")));
+
+        assertEquals(1, result.getAdded());
+        assertEquals(1, admin.getAllHelpArticles().size());
+        assertEquals(2L, admin.getAllHelpArticles().get(0).getId());
+    }
+
+    @Test
+    void testLargeMergeCountsEveryArticle() {
+        List<User.HelpArticle> existing = new ArrayList<>();
+        List<User.HelpArticle> restored = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            existing.add(article(i, "Existing"));
+            restored.add(article(i + 10000, "Restored"));
+        }
+        admin.replaceAllHelpArticles(existing);
+
+        ArticleMerger.MergeResult result = ArticleMerger.merge(admin, restored, ArticleMerger.ConflictPolicy.KEEP_EXISTING);
+        assertEquals(10000, result.getAdded());
+        assertEquals(10000, result.getKeptExisting());
+        assertEquals(30000, admin.getAllHelpArticles().size());
+    }
+}
@@ -0,0 +1,154 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestArticleMetadataStore {
+
+    private static User.HelpArticle article(long id, List<String> groups, String level, String author) {
+        return new User.HelpArticle(id, "Title " + id, "Description", List.of(), "Body", List.of(), groups, level, author);
+    }
+
+    @Test
+    void testFiltersByLevelGroupAndAuthor() {
+        ArticleMetadataStore store = new ArticleMetadataStore();
+        store.put(article(3, List.of("columns_a"), "Beginner", "columnsAnn"));
+        store.put(article(1, List.of("columns_a", "special_columns"), "Expert", "columnsBob"));
+        store.put(article(2, List.of("columns_b"), "beginner", "columnsAnn"));
+        store.put(article(4, List.of("columns_b"), "Guru", "columnsBob"));
+
+        assertEquals(4, store.size());
+        assertEquals(2, store.count(Level.BEGINNER, null, null));
+        assertEquals(1, store.count(Level.BEGINNER, "columns_a", "columnsAnn"));
+        assertEquals(0, store.count(null, "columns_unknown", null));
+        assertEquals(0, store.count(null, null, "columnsNobody"));
+        assertArrayEquals(new long[] {1, 3}, store.matchingIds(null, "columns_a", null));
+        assertArrayEquals(new long[] {1, 4}, store.matchingIds(null, null, "columnsBob"));
+        assertEquals(1, store.countSpecialAccess(null));
+
+        int[] byLevel = store.countByLevel(null);
+        assertEquals(2, byLevel[Level.BEGINNER.ordinal()]);
+        assertEquals(1, byLevel[Level.EXPERT.ordinal()]);
+        assertEquals(0, byLevel[Level.ADVANCED.ordinal()], "Unknown levels are not counted as a known level");
+    }
+
+    @Test
+    void testRemovedSlotsAreReused() {
+        ArticleMetadataStore store = new ArticleMetadataStore();
+        List<User.HelpArticle> articles = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            User.HelpArticle article = article(i, List.of("reuse_" + (i % 3)), "Advanced", "reuseAuthor");
+            articles.add(article);
+            store.put(article);
+        }
+        for (int i = 0; i < 200; i += 2) {
+            assertTrue(store.remove(articles.get(i)));
+        }
+        assertFalse(store.remove(articles.get(0)));
+        store.put(article(1000, List.of("reuse_new"), "Expert", "reuseAuthor"));
+
+        assertEquals(101, store.size());
+        assertEquals(100, store.count(Level.ADVANCED, null, null));
+        assertArrayEquals(new long[] {1000}, store.matchingIds(null, "reuse_new", null));
+        assertEquals(33, store.count(null, "reuse_0", null));
+    }
+
+    @Test
+    void testAuthorCodesAreReleased() {
+        ArticleMetadataStore store = new ArticleMetadataStore();
+        List<User.HelpArticle> articles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            User.HelpArticle article = article(i, List.of("authors"), "Beginner", "releasedAuthor" + i);
+            articles.add(article);
+            store.put(article);
+        }
+        assertEquals(100, store.authorCount());
+        for (User.HelpArticle article : articles) {
+            store.remove(article);
+        }
+        assertEquals(0, store.authorCount(), "Authors should not outlive their articles.");
+        assertEquals(SymbolTable.NONE, SymbolTable.getDefault().idOf("releasedAuthor0"));
+
+        // Freed codes are handed out again without mixing authors up
+        User.HelpArticle renamed = article(200, List.of("authors"), "Beginner", "releasedAuthorA");
+        store.put(renamed);
+        store.put(article(201, List.of("authors"), "Beginner", "releasedAuthorB"));
+        renamed.setAuthor("releasedAuthorB");
+        store.put(renamed);
+        assertEquals(1, store.authorCount());
+        assertArrayEquals(new long[] {200, 201}, store.matchingIds(null, null, "releasedAuthorB"));
+        assertEquals(0, store.count(null, null, "releasedAuthorA"));
+    }
+
+    @Test
+    void testStaysInSyncWithRegistryAndEdits() {
+        ArticleRegistry registry = new ArticleRegistry();
+        User owner = new User("columnsOwner", null, "Instructor");
+        User reader = new User("columnsReader", null, "Student");
+        reader.addGroupName("sync_a");
+        owner.attachRegistry(registry);
+        User.HelpArticle edited = article(5001, List.of("sync_a"), "Beginner", "columnsOwner");
+        owner.addHelpArticle(edited);
+        owner.addHelpArticle(article(5002, List.of("sync_b"), "Beginner", "columnsOwner"));
+        ArticleMetadataStore metadata = registry.getMetadata();
+        assertEquals(1, metadata.countAccessible(reader));
+        assertEquals(2, metadata.countAccessible(owner));
+
+        edited.setLevel("Expert");
+        edited.setGroups(List.of("sync_b", "special_sync"));
+        assertEquals(1, metadata.count(Level.EXPERT, "sync_b", null));
+        assertEquals(0, metadata.count(null, "sync_a", null));
+        assertEquals(1, metadata.countSpecialAccess("sync_b"));
+        assertEquals(0, metadata.countAccessible(reader));
+
+        ArticlePatch patch = new ArticlePatch(5002);
+        patch.setLevel("Advanced");
+        owner.applyPatch(patch);
+        assertEquals(1, metadata.count(Level.ADVANCED, null, null));
+
+        owner.removeHelpArticle(5001);
+        assertEquals(1, metadata.size());
+        owner.detachRegistry();
+        assertEquals(0, metadata.size());
+    }
+
+    @Test
+    void testMatchesPlainScan() {
+        ArticleRegistry registry = new ArticleRegistry();
+        User owner = new User("columnsRandom", null, "Instructor");
+        owner.attachRegistry(registry);
+        Random random = new Random(5);
+        String[] levels = {"Beginner", "Intermediate", "Advanced", "Expert"};
+        for (int i = 0; i < 2000; i++) {
+            owner.addHelpArticle(article(6000 + i, List.of("random_" + random.nextInt(7)), levels[random.nextInt(4)],
+                    "columnsRandom"));
+            if (random.nextInt(4) == 0) {
+                owner.removeHelpArticle(6000 + random.nextInt(i + 1));
+            }
+        }
+        for (int g = 0; g < 7; g++) {
+            for (Level level : Level.values()) {
+                // Compare against a plain scan of the owner's articles
+                List<Long> expected = new ArrayList<>();
+                for (User.HelpArticle article : owner.getAllHelpArticles()) {
+                    if (article.getGroups().contains("random_" + g) && article.getLevelType() == level) {
+                        expected.add(article.getId());
+                    }
+                }
+                expected.sort(null);
+                long[] actual = registry.getMetadata().matchingIds(level, "random_" + g, null);
+                List<Long> visited = new ArrayList<>();
+                registry.forEachMatch("random_" + g, level.getDisplayName(), a -> visited.add(a.getId()));
+                assertEquals(expected, visited);
+                assertEquals(expected.size(), actual.length);
+                for (int i = 0; i < actual.length; i++) {
+                    assertEquals((long) expected.get(i), actual[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestArticlePatch {
+
+    private final Login loginInstance = Login.getInstance();
+
+    private User.HelpArticle article(long id, String group) {
+        return new User.HelpArticle(id, "Title", "Description", List.of("keyword"), "Body text",
+                List.of(), List.of(group), "Beginner", "patchAuthor");
+    }
+
+    @Test
+    void testOnlyChangedFieldsAreApplied() {
+        User owner = new User("patchOwner", new byte[0], "Instructor");
+        User.HelpArticle target = article(740001L, "general");
+        owner.addHelpArticle(target);
+        byte[] storedBody = target.getStoredBody();
+        long stamp = target.getLastModified();
+
+        ArticlePatch patch = new ArticlePatch(740001L);
+        patch.setTitle("New title");
+        patch.setBody("Body text");
+        patch.setLevel("Beginner");
+        assertEquals(ArticlePatch.TITLE, owner.applyPatch(patch));
+        assertEquals("New title", target.getTitle());
+        assertSame(storedBody, target.getStoredBody(), "An unchanged body should not be re-encoded.");
+        assertTrue(target.getLastModified() > stamp);
+
+        long unchangedStamp = target.getLastModified();
+        assertEquals(0, owner.applyPatch(patch), "Re-applying should change nothing.");
+        assertEquals(unchangedStamp, target.getLastModified());
+        assertEquals(-1, owner.applyPatch(new ArticlePatch(1L)));
+    }
+
+    @Test
+    void testMovingIntoSpecialGroupEncryptsBody() {
+        User owner = new User("patchSpecial", new byte[0], "Instructor");
+        User.HelpArticle target = article(740002L, "general");
+        owner.addHelpArticle(target);
+
+        ArticlePatch patch = new ArticlePatch(740002L);
+        patch.setGroups(List.of("special_staff"));
+        assertEquals(ArticlePatch.GROUPS, owner.applyPatch(patch));
+
+        assertTrue(target.isSpecialAccessGroup());
+        assertNotEquals("Body text", new String(target.getStoredBody()), "The body should now be stored encrypted.");
+        assertEquals("Body text", target.getBody(owner));
+    }
+
+    @Test
+    void testMovingGroupsWithSameBodyKeepsBody() {
+        User owner = new User("patchSpecialBody", new byte[0], "Instructor");
+        User.HelpArticle target = article(740003L, "plain");
+        owner.addHelpArticle(target);
+
+        ArticlePatch into = new ArticlePatch(740003L);
+        into.setGroups(List.of("special_x"));
+        into.setBody("Body text");
+        assertEquals(ArticlePatch.GROUPS, owner.applyPatch(into), "The body did not change, only how it is stored.");
+        assertTrue(target.isSpecialAccessGroup());
+        assertEquals("Body text", target.getBody(owner));
+
+        ArticlePatch outOf = new ArticlePatch(740003L);
+        outOf.setGroups(List.of("plain"));
+        outOf.setBody("Body text");
+        assertEquals(ArticlePatch.GROUPS, owner.applyPatch(outOf));
+        assertEquals("Body text", new String(target.getStoredBody()), "The body should be stored as plain text again.");
+
+        ArticlePatch both = new ArticlePatch(740003L);
+        both.setGroups(List.of("special_x"));
+        both.setBody("New body");
+        assertEquals(ArticlePatch.GROUPS | ArticlePatch.BODY, owner.applyPatch(both));
+        assertEquals("New body", target.getBody(owner));
+    }
+
+    @Test
+    void testBatchRelabelKeepsLevelIndexConsistent() {
+        User owner = loginInstance.registerUser("patchBatch", "pass", "Instructor", false, null);
+        List<ArticlePatch> patches = new ArrayList<>();
+        for (long id = 740101; id <= 740110; id++) {
+            owner.addHelpArticle(article(id, "patchGroup"));
+            ArticlePatch patch = new ArticlePatch(id);
+            patch.setLevel("Expert");
+            patches.add(patch);
+        }
+
+        assertEquals(10, owner.applyPatches(patches));
+
+        ArticleSearch.Result experts = ArticleSearch.search(loginInstance.getArticleRegistry(), owner, null,
+                "patchGroup", "Expert", false);
+        assertEquals(10, experts.size());
+        ArticleSearch.Result beginners = ArticleSearch.search(loginInstance.getArticleRegistry(), owner, null,
+                "patchGroup", "Beginner", false);
+        assertEquals(0, beginners.size());
+    }
+}
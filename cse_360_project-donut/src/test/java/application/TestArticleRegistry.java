@@ -0,0 +1,169 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestArticleRegistry {
+
+    private final Login loginInstance = Login.getInstance();
+
+    private User.HelpArticle article(long id, String group, String author) {
+        return new User.HelpArticle(id, "Title " + id, "Description", List.of("keyword"), "Body",
+                List.of(), List.of(group), "Beginner", author);
+    }
+
+    @Test
+    void testArticlesArePagedInIdOrder() {
+        User author = loginInstance.registerUser("pagingAuthor", "pass", "Instructor", false, null);
+        for (long id = 700250; id > 700000; id--) {
+            author.addHelpArticle(article(id, id % 2 == 0 ? "even" : "odd", "pagingAuthor"));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        long cursor = Long.MIN_VALUE;
+        Page<User.HelpArticle> page;
+        do {
+            page = loginInstance.listArticles(cursor, 40, null, "pagingAuthor");
+            assertTrue(page.getItems().size() <= 40);
+            for (User.HelpArticle listed : page.getItems()) {
+                seen.add(listed.getId());
+            }
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+
+        assertEquals(250, seen.size());
+        assertEquals(700001L, seen.get(0).longValue());
+        assertEquals(700250L, seen.get(249).longValue());
+
+        Page<User.HelpArticle> evens = loginInstance.listArticles(Long.MIN_VALUE, 500, "even", "pagingAuthor");
+        assertEquals(125, evens.getItems().size());
+        assertFalse(evens.hasMore());
+    }
+
+    @Test
+    void testRegistryFollowsUserChanges() {
+        User owner = loginInstance.registerUser("registryOwner", "pass", "Instructor", false, null);
+        owner.addHelpArticle(article(710001L, "general", "registryOwner"));
+        owner.addHelpArticle(article(710002L, "general", "registryOwner"));
+        ArticleRegistry registry = loginInstance.getArticleRegistry();
+        assertSame(owner, registry.getOwner(710001L));
+
+        owner.removeHelpArticle(710001L);
+        assertNull(registry.get(710001L), "Removed articles should leave the registry.");
+
+        assertTrue(loginInstance.deleteUser("registryOwner"));
+        assertNull(registry.get(710002L), "Deleting a user should drop their articles.");
+    }
+
+    @Test
+    void testUsersArePagedByRole() {
+        for (int i = 0; i < 5; i++) {
+            loginInstance.registerUser("pagedInstructor" + i, "pass", "PagedRole", false, null);
+        }
+        List<String> names = new ArrayList<>();
+        long cursor = 0;
+        Page<User> page;
+        do {
+            page = loginInstance.listUsers(cursor, 2, "pagedrole");
+            for (User u : page.getItems()) {
+                names.add(u.getUsername());
+            }
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+        assertEquals(5, names.size());
+        assertEquals("pagedInstructor0", names.get(0));
+    }
+
+    @Test
+    void testUserPagesSurviveDeletions() {
+        for (int i = 0; i < 6; i++) {
+            loginInstance.registerUser("stablePaged" + i, "pass", "StablePagedRole", false, null);
+        }
+        Page<User> first = loginInstance.listUsers(0, 3, "stablepagedrole");
+        assertEquals(3, first.getItems().size());
+        assertTrue(first.hasMore());
+        // Deleting a user already listed must not make the next page skip anyone
+        assertTrue(loginInstance.deleteUser("stablePaged0"));
+        loginInstance.registerUser("stablePaged6", "pass", "StablePagedRole", false, null);
+
+        List<String> rest = new ArrayList<>();
+        long cursor = first.getNextCursor();
+        Page<User> page;
+        do {
+            page = loginInstance.listUsers(cursor, 3, "stablepagedrole");
+            for (User u : page.getItems()) {
+                rest.add(u.getUsername());
+            }
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+        assertEquals(List.of("stablePaged3", "stablePaged4", "stablePaged5", "stablePaged6"), rest);
+    }
+
+    @Test
+    void testDeleteArticleRemovesFromEveryOwnerAndIndex() {
+        User first = loginInstance.registerUser("deleteOwnerA", "pass", "Instructor", false, null);
+        User second = loginInstance.registerUser("deleteOwnerB", "pass", "Instructor", false, null);
+        first.addHelpArticle(article(720001L, "deleteGroup", "deleteOwnerA"));
+        second.addHelpArticle(article(720001L, "deleteGroup", "deleteOwnerA"));
+        first.addHelpArticle(article(720002L, "deleteGroup", "deleteOwnerA"));
+
+        assertTrue(loginInstance.deleteArticle(720001L));
+        assertNull(first.getHelpArticle(720001L));
+        assertNull(second.getHelpArticle(720001L));
+        Page<User.HelpArticle> page = loginInstance.listArticles(Long.MIN_VALUE, 10, "deleteGroup", null);
+        assertEquals(1, page.getItems().size(), "The group index should drop the deleted article.");
+        assertFalse(loginInstance.deleteArticle(720001L), "Deleting twice should report nothing deleted.");
+    }
+
+    @Test
+    void testIndexesFollowArticleEdits() {
+        User owner = loginInstance.registerUser("reindexOwner", "pass", "Instructor", false, null);
+        User.HelpArticle edited = article(730001L, "beforeGroup", "reindexOwner");
+        owner.addHelpArticle(edited);
+
+        edited.setGroups(List.of("afterGroup"));
+        edited.setLevel("Expert");
+
+        assertTrue(loginInstance.listArticles(Long.MIN_VALUE, 10, "beforeGroup", null).getItems().isEmpty());
+        assertEquals(1, loginInstance.listArticles(Long.MIN_VALUE, 10, "afterGroup", null).getItems().size());
+        ArticleSearch.Result result = ArticleSearch.search(loginInstance.getArticleRegistry(), owner, null,
+                "afterGroup", "expert", false);
+        assertEquals(1, result.size(), "Level filtering should see the new level.");
+    }
+
+    @Test
+    void testSharedIdsKeepEachOwnersIndexKeys() {
+        User first = loginInstance.registerUser("sharedIndexA", "pass", "Instructor", false, null);
+        User second = loginInstance.registerUser("sharedIndexB", "pass", "Instructor", false, null);
+        first.addHelpArticle(article(750001L, "sharedFirst", "sharedIndexA"));
+        second.addHelpArticle(article(750001L, "sharedSecond", "sharedIndexB"));
+        assertEquals(1, loginInstance.listArticles(Long.MIN_VALUE, 10, "sharedFirst", null).getItems().size());
+        assertEquals(1, loginInstance.listArticles(Long.MIN_VALUE, 10, null, "sharedIndexB").getItems().size());
+
+        first.removeHelpArticle(750001L);
+        assertTrue(loginInstance.listArticles(Long.MIN_VALUE, 10, "sharedFirst", null).getItems().isEmpty());
+        assertTrue(loginInstance.listArticles(Long.MIN_VALUE, 10, null, "sharedIndexA").getItems().isEmpty());
+        assertEquals(1, loginInstance.listArticles(Long.MIN_VALUE, 10, "sharedSecond", "sharedIndexB").getItems().size(),
+                "The remaining owner's copy should stay filed under its own keys.");
+    }
+
+    @Test
+    void testLevelsOutsideTheEnumAreFiltered() {
+        User owner = loginInstance.registerUser("customLevelOwner", "pass", "Instructor", false, null);
+        User.HelpArticle custom = article(740001L, "customLevels", "customLevelOwner");
+        custom.setLevel("Guru");
+        owner.addHelpArticle(custom);
+        owner.addHelpArticle(article(740002L, "customLevels", "customLevelOwner"));
+
+        List<Long> gurus = new ArrayList<>();
+        loginInstance.getArticleRegistry().forEachMatch("customLevels", "guru", a -> gurus.add(a.getId()));
+        assertEquals(List.of(740001L), gurus);
+        List<Long> anyGroup = new ArrayList<>();
+        loginInstance.getArticleRegistry().forEachMatch(null, "GURU", a -> anyGroup.add(a.getId()));
+        assertTrue(anyGroup.contains(740001L));
+        assertFalse(anyGroup.contains(740002L));
+    }
+}
@@ -0,0 +1,63 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class TestArticleSearch {
+
+    private User.HelpArticle article(long id, String title, String level, String group, String author) {
+        return new User.HelpArticle(id, title, "Abstract " + id, List.of("keyword" + id), "Body " + id,
+                List.of(), List.of(group), level, author);
+    }
+
+    @Test
+    void testFiltersByKeywordGroupAndLevel() {
+        User author = new User("searchAuthor", new byte[0], "Instructor");
+        author.addHelpArticle(article(1L, "Java basics", "Beginner", "general", "searchAuthor"));
+        author.addHelpArticle(article(2L, "Java streams", "Advanced", "general", "searchAuthor"));
+        author.addHelpArticle(article(3L, "Python basics", "Beginner", "python", "searchAuthor"));
+
+        ArticleSearch.Result result = ArticleSearch.search(List.of(author), author, "java", "general", "All", false);
+        assertEquals(2, result.size());
+        assertEquals(1, result.getLevelCount("Beginner"));
+        assertEquals(1, result.getLevelCount("Advanced"));
+
+        result = ArticleSearch.search(List.of(author), author, "", "all", "Beginner", false);
+        assertEquals(2, result.size());
+        assertEquals(3L, result.getId(1));
+
+        result = ArticleSearch.search(List.of(author), author, "keyword2", "all", "All", false);
+        assertEquals(1, result.size(), "Keywords should be searched.");
+    }
+
+    @Test
+    void testRowsAreFormattedOnDemand() {
+        User author = new User("rowAuthor", new byte[0], "Instructor");
+        for (long id = 1; id <= 1000; id++) {
+            author.addHelpArticle(article(id, "Title " + id, "Beginner", "general", "rowAuthor"));
+        }
+        ArticleSearch.Result result = ArticleSearch.search(List.of(author), author, null, null, null, false);
+        assertEquals(1000, result.size());
+
+        StringBuilder row = new StringBuilder();
+        result.formatRow(499, row);
+        assertEquals("500. Title: Title 500, Author: rowAuthor, Abstract: Abstract 500", row.toString());
+    }
+
+    @Test
+    void testRemoveShiftsRows() {
+        User author = new User("removeAuthor", new byte[0], "Instructor");
+        author.addHelpArticle(article(1L, "One", "Beginner", "general", "removeAuthor"));
+        author.addHelpArticle(article(2L, "Two", "Expert", "general", "removeAuthor"));
+        author.addHelpArticle(article(3L, "Three", "Beginner", "general", "removeAuthor"));
+        ArticleSearch.Result result = ArticleSearch.search(List.of(author), author, null, null, null, false);
+
+        assertEquals(2L, result.remove(result.indexOf(2L)).getId());
+        assertEquals(2, result.size());
+        assertEquals(3L, result.getId(1));
+        assertEquals(0, result.getLevelCount("Expert"));
+        assertEquals(-1, result.indexOf(2L));
+    }
+}
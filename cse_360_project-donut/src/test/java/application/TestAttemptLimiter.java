@@ -0,0 +1,111 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestAttemptLimiter {
+
+    @Test
+    void testLimitAndSlidingWindow() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        AttemptLimiter limiter = new AttemptLimiter(3, 1000, 10, AttemptLimiter.DEFAULT_MAX_KEYS, now::get);
+
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(limiter.tryAcquire("alice"));
+            assertEquals(i, limiter.recordFailure("alice"));
+            now.addAndGet(300);
+        }
+        assertFalse(limiter.tryAcquire("alice"), "A fourth attempt within the window should be rejected.");
+        assertTrue(limiter.tryAcquire("bob"), "Other keys should not be affected.");
+        assertEquals(1, limiter.getRejectedAttempts());
+
+        // The first failure slides out of the window
+        now.addAndGet(200);
+        assertEquals(2, limiter.count("alice"));
+        assertTrue(limiter.tryAcquire("alice"));
+
+        now.addAndGet(1000);
+        assertEquals(0, limiter.count("alice"));
+        assertTrue(limiter.tryAcquire(null), "A missing key is never limited.");
+    }
+
+    @Test
+    void testConcurrentFailuresAreNotLost() throws Exception {
+        AttemptLimiter limiter = new AttemptLimiter(1_000_000, 60_000, 6);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    limiter.recordFailure("shared");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, limiter.count("shared"));
+        assertEquals(40_000, limiter.getRecordedFailures());
+    }
+
+    @Test
+    void testSprayOnOtherNamesLocksOutNoOne() {
+        AttemptLimiter limiter = new AttemptLimiter(10, 5 * 60 * 1000L, 10);
+        Random random = new Random(41);
+        for (int i = 0; i < 60_000; i++) {
+            limiter.recordFailure("spray" + random.nextLong());
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire("innocent" + i), "Failures on other names should not count against a user.");
+        }
+        assertEquals(0, limiter.getRejectedAttempts());
+    }
+
+    @Test
+    void testTrackedKeysStayBounded() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        AttemptLimiter limiter = new AttemptLimiter(3, 10_000, 10, 100, now::get);
+        for (int i = 0; i < 1000; i++) {
+            now.incrementAndGet();
+            limiter.recordFailure("spray" + i);
+            if (i % 50 == 0) {
+                limiter.recordFailure("target"); // Still under attack, so never the idlest key
+            }
+        }
+        assertTrue(limiter.getTrackedKeys() <= 100);
+        assertTrue(limiter.getEvictedKeys() > 0);
+        assertFalse(limiter.tryAcquire("target"), "A key failing recently should survive eviction.");
+
+        // Once the window has passed, expired keys are dropped before any recent one
+        now.addAndGet(20_000);
+        limiter.recordFailure("late");
+        long evicted = limiter.getEvictedKeys();
+        for (int tracked = 0; limiter.getTrackedKeys() > tracked; ) {
+            tracked = limiter.getTrackedKeys();
+            now.incrementAndGet();
+            limiter.recordFailure("filler" + now.get()); // Fills the map until it is pruned
+        }
+        assertEquals(evicted, limiter.getEvictedKeys(), "Dropping the expired keys should have been enough.");
+        assertEquals(1, limiter.count("late"));
+    }
+
+    @Test
+    void testLoginLocksOutUsername() {
+        Login loginInstance = Login.getInstance();
+        loginInstance.registerUser("lockoutUser", "rightPass", "Student", false, null);
+        int limit = loginInstance.getUserAttemptLimiter().getMaxAttempts();
+        for (int i = 0; i < limit; i++) {
+            assertFalse(loginInstance.authenticate("lockoutUser", "wrongPass" + i, "198.51.100.7"));
+        }
+        long rejectedBefore = loginInstance.getUserAttemptLimiter().getRejectedAttempts();
+        assertFalse(loginInstance.authenticate("lockoutUser", "rightPass", "198.51.100.8"),
+                "A locked-out username should be rejected even with the right password.");
+        assertEquals(rejectedBefore + 1, loginInstance.getUserAttemptLimiter().getRejectedAttempts());
+    }
+}
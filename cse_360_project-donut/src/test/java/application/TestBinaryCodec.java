@@ -0,0 +1,91 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestBinaryCodec {
+
+    private User.HelpArticle article(long id, List<String> groups) {
+        return new User.HelpArticle(id, "Title " + id, "Description", List.of("java", "loops"),
+                "Body " + id, List.of("https://example.com"), groups, "Beginner", "author");
+    }
+
+    @Test
+    void testArticleRoundTrip() throws Exception {
+        User.HelpArticle original = article(42L, List.of("general"));
+        User.HelpArticle decoded = BinaryCodec.decodeArticles(BinaryCodec.encodeArticles(List.of(original))).get(0);
+
+        User admin = new User("codecAdmin", new byte[]{}, "Admin");
+        assertEquals(42L, decoded.getId());
+        assertEquals(original.getTitle(), decoded.getTitle());
+        assertEquals(original.getKeywords(), decoded.getKeywords());
+        assertEquals(original.getLinks(), decoded.getLinks());
+        assertEquals(original.getGroups(), decoded.getGroups());
+        assertEquals(original.getLevel(), decoded.getLevel());
+        assertEquals(original.getLastModified(), decoded.getLastModified());
+        assertEquals("Body 42", decoded.getBody(admin));
+    }
+
+    @Test
+    void testSpecialAccessBodyStaysEncrypted() throws Exception {
+        User.HelpArticle original = article(7L, List.of("special_staff"));
+        User.HelpArticle decoded = BinaryCodec.decodeArticles(BinaryCodec.encodeArticles(List.of(original))).get(0);
+
+        assertTrue(decoded.isSpecialAccessGroup());
+        assertArrayEquals(original.getStoredBody(), decoded.getStoredBody(), "Ciphertext should be copied, not re-encrypted.");
+        assertEquals("Body 7", decoded.getBody(new User("codecAdmin", new byte[]{}, "Admin")));
+    }
+
+    @Test
+    void testUserRoundTrip() throws Exception {
+        User user = new User("codecUser", new byte[]{1, 2, 3}, "Student");
+        user.setEmail("user@example.com");
+        user.setOneTimePassword(true);
+        user.setOtpExpiry(LocalDateTime.of(2030, 1, 2, 3, 4, 5));
+        user.setTopicProficiency("Topic 1", "Expert");
+        user.addGroupName("general");
+        user.addHelpArticle(article(1L, List.of("general")));
+
+        User decoded = BinaryCodec.decodeUser(BinaryCodec.encodeUser(user));
+        assertEquals("codecUser", decoded.getUsername());
+        assertArrayEquals(new byte[]{1, 2, 3}, decoded.getPassword());
+        assertEquals("Student", decoded.getRole());
+        assertEquals("user@example.com", decoded.getEmail());
+        assertTrue(decoded.isOneTimePassword());
+        assertEquals(user.getOtpExpiry(), decoded.getOtpExpiry());
+        assertEquals(user.getTopics(), decoded.getTopics());
+        assertEquals(user.getGroupNames(), decoded.getGroupNames());
+        assertEquals(1, decoded.getAllHelpArticles().size());
+    }
+
+    @Test
+    void testSharedNamesAreStoredOnce() throws Exception {
+        List<User.HelpArticle> articles = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            articles.add(article(i, List.of("general", "special_staff")));
+        }
+        byte[] encoded = BinaryCodec.encodeArticles(articles);
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(serialized)) {
+            oos.writeObject(articles);
+        }
+        assertTrue(encoded.length < serialized.size(), "Binary encoding should be smaller than Java serialization.");
+
+        List<User.HelpArticle> decoded = BinaryCodec.decodeArticles(encoded);
+        assertSame(decoded.get(0).getGroups().get(0), decoded.get(499).getGroups().get(0), "Decoded names should be shared.");
+    }
+
+    @Test
+    void testMalformedPayloadIsRejected() {
+        byte[] encoded = BinaryCodec.encodeArticles(List.of(article(1L, List.of("general"))));
+        byte[] truncated = java.util.Arrays.copyOf(encoded, encoded.length / 2);
+        assertThrows(java.io.IOException.class, () -> BinaryCodec.decodeArticles(truncated));
+    }
+}
@@ -0,0 +1,100 @@
+package application;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestCompressedBackup {
+
+    private static final String BACKUP_FILE = "testCompressed.bak";
+
+    @AfterEach
+    void tearDown() {
+        new File(BACKUP_FILE).delete();
+    }
+
+    private List<User.HelpArticle> articles(int count) {
+        List<User.HelpArticle> articles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            articles.add(new User.HelpArticle(i, "Title " + i, "Description " + i, List.of("keyword"),
+                    "Body of article " + i, List.of(), List.of("general"), "Beginner", "author"));
+        }
+        return articles;
+    }
+
+    @Test
+    void testWriteAndReadAllBlocks() throws Exception {
+        Path path = Paths.get(BACKUP_FILE);
+        CompressedBackup.write(path, articles(1000), 100);
+
+        assertTrue(CompressedBackup.isCompressedBackup(path));
+        assertEquals(10, CompressedBackup.readIndex(path).size(), "There should be ten blocks.");
+
+        List<User.HelpArticle> restored = CompressedBackup.read(path);
+        assertEquals(1000, restored.size());
+        for (int i = 0; i < restored.size(); i++) {
+            assertEquals(i, restored.get(i).getId(), "Articles should keep their order.");
+        }
+        User admin = new User("compressedAdmin", new byte[]{}, "Admin");
+        assertEquals("Body of article 999", restored.get(999).getBody(admin));
+    }
+
+    @Test
+    void testReadSingleBlock() throws Exception {
+        Path path = Paths.get(BACKUP_FILE);
+        CompressedBackup.write(path, articles(1000), 100);
+
+        CompressedBackup.BlockInfo info = CompressedBackup.readIndex(path).get(3);
+        assertEquals(300, info.getFirstId());
+        assertEquals(399, info.getLastId());
+
+        List<User.HelpArticle> block = CompressedBackup.readBlock(path, 3);
+        assertEquals(100, block.size());
+        assertEquals(300, block.get(0).getId());
+    }
+
+    @Test
+    void testManyMoreBlocksThanInFlight() throws Exception {
+        Path path = Paths.get(BACKUP_FILE);
+        CompressedBackup.write(path, articles(1000), 1);
+
+        List<CompressedBackup.BlockInfo> index = CompressedBackup.readIndex(path);
+        assertEquals(1000, index.size());
+        for (int i = 0; i < index.size(); i++) {
+            assertEquals(i, index.get(i).getFirstId(), "Blocks should be written in order.");
+        }
+        List<User.HelpArticle> restored = CompressedBackup.read(path);
+        assertEquals(1000, restored.size());
+        assertEquals(999, restored.get(999).getId());
+        assertThrows(IllegalArgumentException.class, () -> CompressedBackup.write(path, articles(1), 0));
+    }
+
+    @Test
+    void testHeaderRecordsCheckpoint() throws Exception {
+        Path path = Paths.get(BACKUP_FILE);
+        CompressedBackup.write(path, articles(10), 4, 42L);
+        assertEquals(42L, CompressedBackup.readCheckpoint(path));
+        assertEquals(10, CompressedBackup.read(path).size());
+
+        CompressedBackup.write(path, articles(10));
+        assertEquals(CompressedBackup.NO_CHECKPOINT, CompressedBackup.readCheckpoint(path));
+    }
+
+    @Test
+    void testRestoreDetectsCompressedFormat() {
+        Login loginInstance = Login.getInstance();
+        User admin = loginInstance.registerUser("compressedOwner", "pass", "Admin", false, null);
+        admin.addHelpArticle(articles(1).get(0));
+        assertTrue(loginInstance.backupHelpArticlesCompressed(BACKUP_FILE, admin) > 0);
+
+        User target = loginInstance.registerUser("compressedTarget", "pass", "Admin", false, null);
+        loginInstance.restoreHelpArticles(BACKUP_FILE, true, target);
+        assertFalse(target.getAllHelpArticles().isEmpty(), "Articles should be restored from the compressed file.");
+    }
+}
@@ -0,0 +1,130 @@
+package application;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+public class TestDonutHttpServer {
+
+    private final Login loginInstance = Login.getInstance();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private DonutHttpServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new DonutHttpServer(new DonutService(loginInstance), 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    // Sends a request and returns {status, parsed body}; array bodies are wrapped as {"items": [...]}
+    private Object[] call(String method, String path, String token, String json) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        String body = response.body().startsWith("[") ? "{\"items\":" + response.body() + "}" : response.body();
+        return new Object[] {response.statusCode(), Json.parseObject(body)};
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> body(Object[] response) {
+        return (Map<String, Object>) response[1];
+    }
+
+    @Test
+    void testArticleLifecycle() throws Exception {
+        loginInstance.registerUser("httpInstructor", "httpPass", "Instructor", false, null);
+        Object[] login = call("POST", "/api/login", null, "{\"username\":\"httpInstructor\",\"password\":\"httpPass\"}");
+        assertEquals(200, login[0]);
+        String token = (String) body(login).get("token");
+
+        Object[] created = call("POST", "/api/articles", token,
+                "{\"title\":\"HTTP article\",\"body\":\"Served \\\"headless\\\"\",\"groups\":[\"http_group\"],\"level\":\"Advanced\"}");
+        assertEquals(200, created[0]);
+        long id = (Long) body(created).get("id");
+
+        Map<String, Object> article = body(call("GET", "/api/articles/" + id, token, null));
+        assertEquals("HTTP article", article.get("title"));
+        assertEquals("Served \"headless\"", article.get("body"));
+        assertEquals(List.of("http_group"), article.get("groups"));
+
+        Object[] patched = call("PATCH", "/api/articles/" + id, token, "{\"title\":\"Renamed\",\"level\":\"Advanced\"}");
+        assertEquals((long) ArticlePatch.TITLE, body(patched).get("changed"));
+
+        List<?> results = (List<?>) body(call("GET", "/api/articles?group=http_group", token, null)).get("items");
+        assertEquals(1, results.size());
+        assertEquals("Renamed", ((Map<?, ?>) results.get(0)).get("title"));
+
+        assertEquals(200, call("DELETE", "/api/articles/" + id, token, null)[0]);
+        assertEquals(404, call("GET", "/api/articles/" + id, token, null)[0]);
+        assertEquals(200, call("POST", "/api/logout", token, null)[0]);
+        assertEquals(401, call("GET", "/api/groups", token, null)[0]);
+    }
+
+    @Test
+    void testErrorsMapToStatusCodes() throws Exception {
+        loginInstance.registerUser("httpStudent", "studentPass", "Student", false, null);
+        assertEquals(401, call("POST", "/api/login", null, "{\"username\":\"httpStudent\",\"password\":\"nope\"}")[0]);
+        String token = (String) body(call("POST", "/api/login", null,
+                "{\"username\":\"httpStudent\",\"password\":\"studentPass\"}")).get("token");
+
+        assertEquals(403, call("POST", "/api/articles", token, "{\"title\":\"Not allowed\"}")[0]);
+        assertEquals(403, call("POST", "/api/groups", token, "{\"name\":\"httpGroup\"}")[0]);
+        assertEquals(400, call("POST", "/api/articles", token, "{not json")[0]);
+        assertEquals(404, call("GET", "/api/unknown", token, null)[0]);
+        assertEquals(401, call("GET", "/api/articles", "bogus", null)[0]);
+    }
+
+    @Test
+    void testInstructorsChangeOnlyTheirOwnArticles() throws Exception {
+        loginInstance.registerUser("httpAuthor", "authorPass", "Instructor", false, null);
+        loginInstance.registerUser("httpOtherInstructor", "otherPass", "Instructor", false, null);
+        loginInstance.registerUser("httpEditorAdmin", "adminPass", "Admin", false, null);
+        String author = (String) body(call("POST", "/api/login", null,
+                "{\"username\":\"httpAuthor\",\"password\":\"authorPass\"}")).get("token");
+        String other = (String) body(call("POST", "/api/login", null,
+                "{\"username\":\"httpOtherInstructor\",\"password\":\"otherPass\"}")).get("token");
+        String admin = (String) body(call("POST", "/api/login", null,
+                "{\"username\":\"httpEditorAdmin\",\"password\":\"adminPass\"}")).get("token");
+        long id = (Long) body(call("POST", "/api/articles", author, "{\"title\":\"Owned\"}")).get("id");
+
+        assertEquals(403, call("PATCH", "/api/articles/" + id, other, "{\"title\":\"Taken over\"}")[0]);
+        assertEquals(403, call("DELETE", "/api/articles/" + id, other, null)[0]);
+        assertEquals("Owned", body(call("GET", "/api/articles/" + id, author, null)).get("title"));
+
+        assertEquals(200, call("PATCH", "/api/articles/" + id, author, "{\"title\":\"Renamed\"}")[0]);
+        assertEquals(200, call("PATCH", "/api/articles/" + id, admin, "{\"title\":\"Moderated\"}")[0]);
+        assertEquals(200, call("DELETE", "/api/articles/" + id, admin, null)[0]);
+    }
+
+    @Test
+    void testDeepNestingIsRejected() throws Exception {
+        String nested = "{\"title\":" + "[".repeat(100_000) + "]".repeat(100_000) + "}";
+        Object[] response = call("POST", "/api/login", null, nested);
+        assertEquals(400, response[0]);
+        assertTrue(((String) body(response).get("error")).startsWith("Nesting deeper than"));
+        // Nesting within the limit still parses
+        String allowed = "[".repeat(Json.MAX_DEPTH - 1) + "]".repeat(Json.MAX_DEPTH - 1);
+        assertEquals(1, Json.parseObject("{\"a\":" + allowed + "}").size());
+    }
+
+    @Test
+    void testListensOnLoopbackByDefault() {
+        assertTrue(server.getAddress().getAddress().isLoopbackAddress());
+    }
+}
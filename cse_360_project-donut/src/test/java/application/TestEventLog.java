@@ -0,0 +1,91 @@
+package application;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class TestEventLog {
+
+    private static final String TEST_LOG_FILE = "testEvents.log";
+
+    @BeforeEach
+    void setUp() {
+        EventLog.configure(TEST_LOG_FILE, 1024 * 1024, 2);
+        EventLog.setLevel(EventLog.Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        EventLog.configure("donut-events.log", 10L * 1024 * 1024, 5);
+        new File(TEST_LOG_FILE).delete();
+        new File(TEST_LOG_FILE + ".1").delete();
+    }
+
+    @Test
+    void testEventIsWrittenAsKeyValueLine() throws IOException {
+        EventLog.info("group.created", "group", "My Group", "special", true);
+        EventLog.flush();
+
+        String content = Files.readString(new File(TEST_LOG_FILE).toPath());
+        assertTrue(content.contains("INFO group.created group=\"My Group\" special=true"), "Event should be written with quoted values.");
+    }
+
+    @Test
+    void testDisabledLevelIsNotWritten() throws IOException {
+        EventLog.debug("message.sent", "user", "student1");
+        EventLog.info("marker");
+        EventLog.flush();
+
+        String content = Files.readString(new File(TEST_LOG_FILE).toPath());
+        assertFalse(content.contains("message.sent"), "Debug events should be skipped at INFO level.");
+        assertTrue(content.contains("marker"), "Info events should be written.");
+    }
+
+    @Test
+    void testLogFileIsRotated() {
+        EventLog.configure(TEST_LOG_FILE, 200, 2);
+        for (int i = 0; i < 20; i++) {
+            EventLog.info("rotation.test", "index", i);
+        }
+        EventLog.flush();
+
+        assertTrue(new File(TEST_LOG_FILE + ".1").exists(), "Full log file should be rotated.");
+    }
+
+    @Test
+    void testRotationCountsEncodedBytes() {
+        // 400 chars of three bytes each: under the limit in chars, well over it in bytes
+        EventLog.configure(TEST_LOG_FILE, 1000, 2);
+        EventLog.info("rotation.bytes", "text", "\u20ac".repeat(400));
+        EventLog.flush();
+
+        File rotated = new File(TEST_LOG_FILE + ".1");
+        assertTrue(rotated.exists(), "The file should rotate once its bytes reach the limit.");
+        assertTrue(rotated.length() >= 1000);
+    }
+
+    @Test
+    void testUnknownLevelFallsBack() {
+        assertEquals(EventLog.Level.DEBUG, EventLog.parseLevel(" debug ", EventLog.Level.INFO));
+        assertEquals(EventLog.Level.INFO, EventLog.parseLevel("verbose", EventLog.Level.INFO));
+        assertEquals(EventLog.Level.INFO, EventLog.parseLevel(null, EventLog.Level.INFO));
+    }
+
+    @Test
+    void testUtf8Length() {
+        assertEquals(3, EventLog.utf8Length("abc"));
+        assertEquals(2, EventLog.utf8Length("\u00e9"));
+        assertEquals(3, EventLog.utf8Length("\u20ac"));
+        assertEquals(4, EventLog.utf8Length("\ud83d\ude00"));
+        assertEquals(1, EventLog.utf8Length("\ud83d"), "An unpaired surrogate is written as '?'");
+        for (String text : new String[] {"mixed \u00e9\u20ac\ud83d\ude00 text", "\ude00\ud83d"}) {
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, EventLog.utf8Length(text));
+        }
+    }
+}
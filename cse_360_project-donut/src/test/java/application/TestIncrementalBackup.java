@@ -0,0 +1,165 @@
+package application;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestIncrementalBackup {
+
+    private static final String BASE_FILE = "testBase.bak";
+    private static final String DELTA_FILE = "testDelta.bak";
+    private static final String OTHER_BASE_FILE = "testOtherBase.bak";
+
+    private final Login loginInstance = Login.getInstance();
+
+    @AfterEach
+    void tearDown() {
+        new File(BASE_FILE).delete();
+        new File(DELTA_FILE).delete();
+        new File(OTHER_BASE_FILE).delete();
+    }
+
+    private User.HelpArticle article(long id, String title, User author) {
+        return new User.HelpArticle(id, title, "Description", List.of("keyword"), "Body",
+                List.of(), List.of("general"), "Beginner", author.getUsername());
+    }
+
+    @Test
+    void testDeltaContainsOnlyChanges() throws Exception {
+        User admin = loginInstance.registerUser("deltaAdmin", "pass", "Admin", false, null);
+        admin.addHelpArticle(article(9001L, "Unchanged", admin));
+        admin.addHelpArticle(article(9002L, "To edit", admin));
+        admin.addHelpArticle(article(9003L, "To delete", admin));
+
+        long checkpoint = loginInstance.backupHelpArticles(BASE_FILE, admin);
+        assertTrue(checkpoint > 0, "Full backup should return a checkpoint.");
+
+        admin.getAllHelpArticles().get(1).setTitle("Edited");
+        admin.removeHelpArticle(9003L);
+        admin.addHelpArticle(article(9004L, "New", admin));
+
+        long next = loginInstance.backupHelpArticlesIncremental(DELTA_FILE, admin, checkpoint);
+        assertTrue(next > checkpoint, "Checkpoints should advance.");
+
+        BackupDelta delta;
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(DELTA_FILE))) {
+            delta = (BackupDelta) ois.readObject();
+        }
+        List<Long> changedIds = new ArrayList<>();
+        for (User.HelpArticle changed : delta.getChangedArticles()) {
+            changedIds.add(changed.getId());
+        }
+        assertTrue(changedIds.contains(9002L), "Edited article should be in the delta.");
+        assertTrue(changedIds.contains(9004L), "New article should be in the delta.");
+        assertFalse(changedIds.contains(9001L), "Unchanged article should not be in the delta.");
+        assertTrue(contains(delta.getDeletedIds(), 9003L), "Deletion should be recorded.");
+    }
+
+    @Test
+    void testRestoreReplaysBaseAndDeltas() {
+        User admin = loginInstance.registerUser("chainAdmin", "pass", "Admin", false, null);
+        admin.addHelpArticle(article(9101L, "Kept", admin));
+        admin.addHelpArticle(article(9102L, "Deleted later", admin));
+        long checkpoint = loginInstance.backupHelpArticles(BASE_FILE, admin);
+
+        admin.removeHelpArticle(9102L);
+        admin.addHelpArticle(article(9103L, "Added later", admin));
+        loginInstance.backupHelpArticlesIncremental(DELTA_FILE, admin, checkpoint);
+
+        User target = loginInstance.registerUser("chainTarget", "pass", "Admin", false, null);
+        assertTrue(loginInstance.restoreHelpArticles(BASE_FILE, List.of(DELTA_FILE), true, target));
+
+        List<Long> restoredIds = new ArrayList<>();
+        for (User.HelpArticle restored : target.getAllHelpArticles()) {
+            restoredIds.add(restored.getId());
+        }
+        assertTrue(restoredIds.contains(9101L));
+        assertTrue(restoredIds.contains(9103L));
+        assertFalse(restoredIds.contains(9102L), "Deleted article should not be restored.");
+    }
+
+    @Test
+    void testFirstDeltaMustStartAtTheBase() {
+        User admin = loginInstance.registerUser("chainCheckAdmin", "pass", "Admin", false, null);
+        admin.addHelpArticle(article(9201L, "In the base", admin));
+        loginInstance.backupHelpArticles(BASE_FILE, admin);
+
+        // A delta taken on top of a later full backup belongs to another chain
+        admin.addHelpArticle(article(9202L, "After the base", admin));
+        long other = loginInstance.backupHelpArticles(OTHER_BASE_FILE, admin);
+        admin.addHelpArticle(article(9203L, "After the other base", admin));
+        loginInstance.backupHelpArticlesIncremental(DELTA_FILE, admin, other);
+
+        User target = loginInstance.registerUser("chainCheckTarget", "pass", "Admin", false, null);
+        assertFalse(loginInstance.restoreHelpArticles(BASE_FILE, List.of(DELTA_FILE), true, target),
+                "A delta that does not start at the base's checkpoint should be rejected.");
+        assertTrue(target.getAllHelpArticles().isEmpty());
+        assertTrue(loginInstance.restoreHelpArticles(OTHER_BASE_FILE, List.of(DELTA_FILE), true, target));
+    }
+
+    @Test
+    void testCompressedBaseRecordsItsCheckpoint() {
+        User admin = loginInstance.registerUser("compressedChainAdmin", "pass", "Admin", false, null);
+        admin.addHelpArticle(article(9301L, "In the base", admin));
+        long checkpoint = loginInstance.backupHelpArticlesCompressed(BASE_FILE, admin);
+        admin.addHelpArticle(article(9302L, "After the base", admin));
+        long other = loginInstance.backupHelpArticles(OTHER_BASE_FILE, admin);
+        admin.addHelpArticle(article(9303L, "After the other base", admin));
+        loginInstance.backupHelpArticlesIncremental(DELTA_FILE, admin, other);
+
+        User target = loginInstance.registerUser("compressedChainTarget", "pass", "Admin", false, null);
+        assertFalse(loginInstance.restoreHelpArticles(BASE_FILE, List.of(DELTA_FILE), true, target));
+        loginInstance.backupHelpArticlesIncremental(DELTA_FILE, admin, checkpoint);
+        assertTrue(loginInstance.restoreHelpArticles(BASE_FILE, List.of(DELTA_FILE), true, target));
+    }
+
+    @Test
+    void testDeletedUsersArticlesStayDeleted() {
+        User admin = loginInstance.registerUser("tombstoneAdmin", "pass", "Admin", false, null);
+        User owner = loginInstance.registerUser("tombstoneOwner", "pass", "Instructor", false, null);
+        admin.addHelpArticle(article(9401L, "Admin's", admin));
+        owner.addHelpArticle(article(9402L, "Owner's", owner));
+        long checkpoint = loginInstance.backupHelpArticles(BASE_FILE, admin);
+
+        assertTrue(loginInstance.deleteUser("tombstoneOwner"));
+        loginInstance.backupHelpArticlesIncremental(DELTA_FILE, admin, checkpoint);
+
+        User target = loginInstance.registerUser("tombstoneTarget", "pass", "Admin", false, null);
+        assertTrue(loginInstance.restoreHelpArticles(BASE_FILE, List.of(DELTA_FILE), true, target));
+        assertNotNull(target.getHelpArticle(9401L));
+        assertNull(target.getHelpArticle(9402L), "A deleted user's articles should not come back.");
+    }
+
+    @Test
+    void testMergedArticlesAreInTheNextDelta() {
+        User admin = loginInstance.registerUser("mergeStampAdmin", "pass", "Admin", false, null);
+        admin.addHelpArticle(article(9501L, "Restored later", admin));
+        loginInstance.backupHelpArticles(OTHER_BASE_FILE, admin);
+        admin.removeHelpArticle(9501L);
+        long checkpoint = loginInstance.backupHelpArticles(BASE_FILE, admin);
+
+        // Restoring the older backup brings back an article whose stored stamp predates the checkpoint
+        loginInstance.restoreHelpArticles(OTHER_BASE_FILE, true, admin);
+        assertNotNull(admin.getHelpArticle(9501L));
+        loginInstance.backupHelpArticlesIncremental(DELTA_FILE, admin, checkpoint);
+
+        User target = loginInstance.registerUser("mergeStampTarget", "pass", "Admin", false, null);
+        assertTrue(loginInstance.restoreHelpArticles(BASE_FILE, List.of(DELTA_FILE), true, target));
+        assertNotNull(target.getHelpArticle(9501L), "The delta should carry the restored article.");
+    }
+
+    private static boolean contains(long[] values, long value) {
+        for (long v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
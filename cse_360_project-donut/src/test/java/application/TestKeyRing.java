@@ -0,0 +1,267 @@
+package application;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class TestKeyRing {
+
+    private static final String RING_FILE = "testKeyRing.ring";
+    private static final String KEY_FILE = "testKeyRing.key";
+
+    @AfterEach
+    void tearDown() {
+        new File(RING_FILE).delete();
+        new File(RING_FILE + ".lock").delete();
+        new File(KEY_FILE).delete();
+    }
+
+    private KeyRing ring() throws Exception {
+        return new KeyRing(Paths.get(RING_FILE), Paths.get(KEY_FILE));
+    }
+
+    @Test
+    void testRotationKeepsOldCiphertextsReadable() throws Exception {
+        KeyRing ring = ring();
+        assertEquals(KeyRing.LEGACY_KEY_ID, ring.getActiveKeyId());
+        byte[] before = ring.encrypt("secret");
+
+        int newId = ring.rotate();
+        byte[] after = ring.encrypt("secret");
+
+        assertEquals(KeyRing.LEGACY_KEY_ID, KeyRing.keyIdOf(before));
+        assertEquals(newId, KeyRing.keyIdOf(after));
+        assertFalse(ring.isCurrent(before));
+        assertTrue(ring.isCurrent(after));
+        assertEquals("secret", ring.decrypt(before));
+        assertEquals("secret", ring.decrypt(after));
+    }
+
+    @Test
+    void testReadsHeaderlessLegacyCiphertexts() throws Exception {
+        KeyRing ring = ring();
+        byte[] legacy = EncryptionUtil.encrypt("old password", EncryptionUtil.loadKey(KEY_FILE));
+        ring.rotate();
+
+        assertEquals(KeyRing.LEGACY_KEY_ID, KeyRing.keyIdOf(legacy));
+        assertEquals("old password", ring.decrypt(legacy));
+    }
+
+    @Test
+    void testRotationByAnotherInstanceIsPickedUp() throws Exception {
+        KeyRing writer = ring();
+        KeyRing reader = ring();
+
+        int newId = writer.rotate();
+        byte[] data = writer.encrypt("hot reload");
+
+        // The reader has never seen the new key and loads it on demand
+        assertEquals("hot reload", reader.decrypt(data));
+        assertEquals(newId, reader.getActiveKeyId());
+    }
+
+    @Test
+    void testConcurrentRotationsNeverReuseAnId() throws Exception {
+        ring(); // Creates the legacy key file once
+        List<Integer> ids = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            KeyRing own = ring(); // Separate instances, as separate processes would have
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 5; i++) {
+                        ids.add(own.rotate());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(20, new HashSet<>(ids).size(), "Every rotation should create its own key.");
+        KeyRing reader = ring();
+        assertEquals(21, reader.getKeyIds().size(), "No key should be lost from the ring file.");
+        assertEquals((int) Collections.max(ids), reader.getActiveKeyId());
+    }
+
+    @Test
+    void testEveryRotationIsNoticed() throws Exception {
+        KeyRing writer = ring();
+        KeyRing reader = ring();
+        for (int i = 0; i < 5; i++) {
+            int newId = writer.rotate(); // Rotations within the same millisecond must still be seen
+            assertTrue(reader.reload());
+            assertFalse(reader.reload());
+            assertEquals(newId, reader.getActiveKeyId());
+        }
+    }
+
+    @Test
+    void testRotationJobMigratesPasswordsAndArticles() throws Exception {
+        Login loginInstance = Login.getInstance();
+        User user = loginInstance.registerUser("keyRotationUser", "rotatePass", "Instructor", false, null);
+        User.HelpArticle article = new User.HelpArticle(790001L, "Rotated", "Description", List.of("keyword"),
+                "Private body", List.of(), List.of("special_rotation"), "Beginner", "keyRotationUser");
+        user.addHelpArticle(article);
+
+        KeyRotationJob job = loginInstance.rotateKeys(10_000);
+        assertTrue(job.await(10_000));
+
+        KeyRing passwordRing = EncryptionUtil.getPasswordKeyRing();
+        KeyRing articleRing = EncryptionUtil.getArticleKeyRing();
+        assertTrue(passwordRing.isCurrent(user.getPassword()));
+        assertTrue(articleRing.isCurrent(article.getStoredBody()));
+        assertTrue(job.getPasswordsMigrated() >= 1);
+        assertTrue(job.getArticlesMigrated() >= 1);
+        assertEquals(0, job.getFailures());
+
+        assertTrue(loginInstance.authenticate("keyRotationUser", "rotatePass"));
+        assertEquals("Private body", article.getBody(user));
+    }
+
+    private static byte[] largeBody() {
+        byte[] body = new byte[3 * AesGcm.SEGMENT_SIZE + 123];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) (i * 31);
+        }
+        return body;
+    }
+
+    @Test
+    void testGcmRoundTripAcrossSegments() throws Exception {
+        KeyRing ring = ring();
+        byte[] body = largeBody();
+        byte[] sealed = ring.encrypt(body);
+
+        assertEquals(AesGcm.recordLength(KeyRing.GCM_HEADER_LENGTH, body.length), sealed.length);
+        assertArrayEquals(body, ring.decryptBytes(sealed));
+        assertArrayEquals(new byte[0], ring.decryptBytes(ring.encrypt(new byte[0])));
+        assertFalse(Arrays.equals(ring.encrypt("same"), ring.encrypt("same")), "Every record should get a fresh nonce.");
+    }
+
+    @Test
+    void testStreamsMatchWholeValueFormat() throws Exception {
+        KeyRing ring = ring();
+        byte[] body = largeBody();
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (OutputStream out = ring.encryptingStream(sink)) {
+            for (int offset = 0; offset < body.length; offset += 1000) {
+                out.write(body, offset, Math.min(1000, body.length - offset));
+            }
+        }
+        byte[] sealed = sink.toByteArray();
+
+        assertArrayEquals(body, ring.decryptBytes(sealed));
+        try (InputStream in = ring.decryptingStream(new ByteArrayInputStream(ring.encrypt(body)))) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void testTamperedRecordIsRejected() throws Exception {
+        KeyRing ring = ring();
+        byte[] sealed = ring.encrypt(largeBody());
+        sealed[sealed.length - AesGcm.SEGMENT_SIZE] ^= 1;
+        assertThrows(Exception.class, () -> ring.decryptBytes(sealed));
+
+        byte[] truncated = Arrays.copyOf(ring.encrypt(largeBody()), KeyRing.GCM_HEADER_LENGTH + AesGcm.SEGMENT_SIZE + AesGcm.TAG_LENGTH);
+        assertThrows(Exception.class, () -> ring.decryptBytes(truncated), "A record cut at a segment boundary should not verify.");
+    }
+
+    @Test
+    void testTamperedBlockSizedRecordsAreNotReadAsLegacy() throws Exception {
+        KeyRing ring = ring();
+        Random random = new Random(40);
+        // Makes a record of a whole number of 16-byte blocks
+        byte[] plain = new byte[16 - (KeyRing.GCM_HEADER_LENGTH + AesGcm.TAG_LENGTH) % 16];
+        for (int i = 0; i < 2000; i++) {
+            byte[] sealed = ring.encrypt(plain);
+            assertEquals(0, sealed.length % 16);
+            sealed[KeyRing.GCM_HEADER_LENGTH + random.nextInt(sealed.length - KeyRing.GCM_HEADER_LENGTH)] ^= (byte) (1 + random.nextInt(255));
+            assertThrows(Exception.class, () -> ring.decryptBytes(sealed));
+            assertThrows(Exception.class, () -> ring.decryptingStream(sealed).readAllBytes());
+        }
+    }
+
+    @Test
+    void testRecordsGetTheirOwnKeys() throws Exception {
+        byte[] key = new byte[16];
+        byte[] info = {KeyRing.MAGIC, KeyRing.FORMAT_GCM_DERIVED, 0, 0, 0, 1};
+        byte[] salt = new byte[AesGcm.SALT_LENGTH];
+        byte[] first = AesGcm.deriveKey(key, salt, info);
+        assertArrayEquals(first, AesGcm.deriveKey(key, salt, info));
+        salt[0] = 1;
+        assertFalse(Arrays.equals(first, AesGcm.deriveKey(key, salt, info)), "A new salt should give a new key.");
+        info[5] = 2;
+        assertFalse(Arrays.equals(first, AesGcm.deriveKey(key, new byte[AesGcm.SALT_LENGTH], info)));
+    }
+
+    @Test
+    void testReadsGcmRecordsUnderTheRingKey() throws Exception {
+        KeyRing ring = ring();
+        byte[] header = ByteBuffer.allocate(KeyRing.GCM_V2_HEADER_LENGTH)
+                .put(KeyRing.MAGIC).put(KeyRing.FORMAT_GCM).putInt(KeyRing.LEGACY_KEY_ID).put(new byte[AesGcm.PREFIX_LENGTH])
+                .array();
+        byte[] body = largeBody();
+        byte[] record = AesGcm.encrypt(EncryptionUtil.loadKey(KEY_FILE), header, body);
+
+        assertArrayEquals(body, ring.decryptBytes(record));
+        assertFalse(ring.isCurrent(record), "Records written before per-record keys should be migrated.");
+        try (InputStream in = ring.decryptingStream(new ByteArrayInputStream(record))) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void testReadsEcbRecordsFromEarlierVersions() throws Exception {
+        KeyRing ring = ring();
+        byte[] ecb = EncryptionUtil.encrypt("ecb body", EncryptionUtil.loadKey(KEY_FILE));
+        byte[] record = ByteBuffer.allocate(KeyRing.HEADER_LENGTH + ecb.length)
+                .put(KeyRing.MAGIC).put(KeyRing.FORMAT_AES).putInt(KeyRing.LEGACY_KEY_ID).put(ecb)
+                .array();
+
+        assertEquals("ecb body", ring.decrypt(record));
+        assertFalse(ring.isCurrent(record));
+        try (InputStream in = ring.decryptingStream(record)) {
+            assertEquals("ecb body", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testArticleBodyStreams() throws Exception {
+        User owner = new User("streamOwner", new byte[0], "Instructor");
+        User.HelpArticle article = new User.HelpArticle(790101L, "Large", "Description", List.of("keyword"),
+                "", List.of(), List.of("special_streaming"), "Beginner", "streamOwner");
+        owner.addHelpArticle(article);
+        String body = "line of a long body\n".repeat(20_000);
+
+        article.setBody(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        assertNotEquals(body.length(), article.getStoredBody().length, "The body should be stored encrypted.");
+        try (InputStream in = article.openBody(owner)) {
+            assertEquals(body, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(body, article.getBody(owner));
+    }
+}
@@ -0,0 +1,80 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+public class TestKeywordScanner {
+
+    private static boolean scan(String text, String keyword) {
+        return KeywordScanner.forKeyword(keyword).matches(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testMatchesIgnoringAsciiCase() {
+        assertTrue(scan("Installing ECLIPSE on Windows", "eclipse"));
+        assertTrue(scan("Installing ECLIPSE on Windows", "EcLiPsE"));
+        assertTrue(scan("short", "short"));
+        assertTrue(scan("ends with the keyWORD", "keyword"));
+        assertTrue(scan("Crème brûlée and Java", "java"));
+        assertFalse(scan("Crème brûlée and Jav", "java"));
+        assertFalse(scan("", "java"));
+        assertFalse(scan("ja", "java"));
+        // '@' | 0x20 is '`', so a fold on the first byte must still be verified
+        assertFalse(scan("@ttention", "`ttention"));
+        assertTrue(scan("12345678x90", "x9"));
+        assertEquals(9, KeywordScanner.forKeyword("x").indexIn("abcdefghxxx".getBytes(StandardCharsets.US_ASCII), 9, 11));
+    }
+
+    @Test
+    void testRejectsKeywordsItCannotScan() {
+        assertNull(KeywordScanner.forKeyword(""));
+        assertNull(KeywordScanner.forKeyword(null));
+        assertNull(KeywordScanner.forKeyword("brûlée"));
+    }
+
+    @Test
+    void testAgreesWithLowerCaseContains() {
+        Random random = new Random(17);
+        String alphabet = "aAbB \u0001ézZ@`";
+        for (int round = 0; round < 5000; round++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(40); i > 0; i--) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            StringBuilder keyword = new StringBuilder();
+            for (int i = 1 + random.nextInt(3); i > 0; i--) {
+                keyword.append("aAbB@`z".charAt(random.nextInt(7)));
+            }
+            String lower = keyword.toString().toLowerCase();
+            KeywordScanner scanner = KeywordScanner.forKeyword(lower);
+            boolean expected = text.toString().toLowerCase().contains(lower);
+            assertEquals(expected, scanner.matches(text.toString().getBytes(StandardCharsets.UTF_8)), text + " / " + lower);
+            assertEquals(expected, scanner.matches(text.toString()), text + " / " + lower);
+        }
+    }
+
+    @Test
+    void testSearchScansPlainAndSpecialBodies() {
+        User instructor = new User("scanInstructor", null, "Instructor");
+        instructor.addHelpArticle(new User.HelpArticle(9_301, "Plain", "", List.of(), "Set the CLASSPATH first",
+                List.of(), List.of("general"), "Beginner", "scanInstructor"));
+        instructor.addHelpArticle(new User.HelpArticle(9_302, "Secret", "", List.of(), "Exam answers: Classpath",
+                List.of(), List.of("special_scan"), "Beginner", "scanInstructor"));
+        instructor.addHelpArticle(new User.HelpArticle(9_303, "Other", "", List.of("threads"), "Nothing here",
+                List.of(), List.of("general"), "Beginner", "scanInstructor"));
+        List<User> users = List.of(instructor);
+
+        assertEquals(2, ArticleSearch.search(users, instructor, "classpath", null, null, true).size());
+        assertEquals(1, ArticleSearch.search(users, instructor, "thread", null, null, true).size());
+
+        User student = new User("scanStudent", null, "Student");
+        student.addGroupName("general");
+        ArticleSearch.Result visible = ArticleSearch.search(users, student, "classpath", null, null, false);
+        assertEquals(1, visible.size(), "Bodies the viewer cannot read are not scanned");
+        assertEquals(9_301, visible.getId(0));
+    }
+}
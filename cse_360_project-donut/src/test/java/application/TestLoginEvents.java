@@ -0,0 +1,62 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestLoginEvents {
+
+    private final Login loginInstance = Login.getInstance();
+
+    @Test
+    void testSubscriberReceivesSearchQueries() {
+        List<Login.SearchQuery> received = new ArrayList<>();
+        Login.Listener listener = new Login.Listener() {
+            @Override
+            public void onSearchQuery(Login.SearchQuery query) {
+                received.add(query);
+            }
+        };
+        loginInstance.subscribe(listener);
+        try {
+            loginInstance.addSearchQuery("eventsStudent", "first");
+            loginInstance.addSearchQuery("eventsStudent", "second");
+        } finally {
+            loginInstance.unsubscribe(listener);
+        }
+        loginInstance.addSearchQuery("eventsStudent", "after unsubscribe");
+
+        assertEquals(2, received.size(), "Only queries added while subscribed should be delivered.");
+        assertEquals("first", received.get(0).getQuery());
+        assertTrue(received.get(1).getId() > received.get(0).getId(), "Query ids should increase.");
+    }
+
+    @Test
+    void testFailingListenerDoesNotBlockOthers() {
+        List<String> received = new ArrayList<>();
+        Login.Listener failing = new Login.Listener() {
+            @Override
+            public void onSearchQuery(Login.SearchQuery query) {
+                throw new IllegalStateException("boom");
+            }
+        };
+        Login.Listener recording = new Login.Listener() {
+            @Override
+            public void onSearchQuery(Login.SearchQuery query) {
+                received.add(query.getQuery());
+            }
+        };
+        loginInstance.subscribe(failing);
+        loginInstance.subscribe(recording);
+        try {
+            loginInstance.addSearchQuery("eventsStudent", "still delivered");
+        } finally {
+            loginInstance.unsubscribe(failing);
+            loginInstance.unsubscribe(recording);
+        }
+
+        assertEquals(List.of("still delivered"), received);
+    }
+}
@@ -0,0 +1,88 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class TestMessageStore {
+
+    @Test
+    void testIdsIncreaseAndCursorReadsOnlyNewMessages() {
+        MessageStore store = new MessageStore(100, 10);
+        Login.Message first = store.post("student1", null, "Hello");
+        Login.Message second = store.post("student2", null, "Hi");
+        assertTrue(second.getId() > first.getId(), "Ids should increase.");
+
+        List<Login.Message> newer = store.readSince(first.getId());
+        assertEquals(1, newer.size());
+        assertEquals("Hi", newer.get(0).getContent());
+        assertTrue(store.readSince(store.getLatestId()).isEmpty(), "Nothing should be newer than the latest id.");
+    }
+
+    @Test
+    void testRecipientAndSenderInboxes() {
+        MessageStore store = new MessageStore(100, 10);
+        store.post("student1", null, "To staff");
+        store.post("student1", "instructor1", "To instructor");
+        store.post("student2", "instructor1", "Also to instructor");
+
+        assertEquals(1, store.readForStaff(0).size());
+        assertEquals(2, store.readForRecipient("instructor1", 0).size());
+        assertEquals(2, store.readFromSender("student1", 0).size());
+        assertTrue(store.readForRecipient("nobody", 0).isEmpty());
+    }
+
+    @Test
+    void testStaffMailIsNotAUserInbox() {
+        MessageStore store = new MessageStore(100, 10);
+        store.post("student1", null, "Help with my password");
+        store.post("student2", MessageStore.STAFF_RECIPIENT, "Hello namesake");
+
+        assertEquals(List.of("Help with my password"), store.readForStaff(0).stream().map(Login.Message::getContent).toList());
+        assertEquals(List.of("Hello namesake"),
+                store.readForRecipient(MessageStore.STAFF_RECIPIENT, 0).stream().map(Login.Message::getContent).toList(),
+                "A user named like the staff inbox should only see mail sent to them.");
+
+        store.removeUser(MessageStore.STAFF_RECIPIENT);
+        assertTrue(store.readForRecipient(MessageStore.STAFF_RECIPIENT, 0).isEmpty());
+        assertEquals(1, store.readForStaff(0).size());
+    }
+
+    @Test
+    void testMessagesOnlyGoToRegisteredUsers() {
+        Login loginInstance = Login.getInstance();
+        assertThrows(IllegalArgumentException.class,
+                () -> loginInstance.addMessage("messageSender", "messageNobody" + System.nanoTime(), "Lost"));
+    }
+
+    @Test
+    void testRetentionDropsOldestMessages() {
+        MessageStore store = new MessageStore(5, 3);
+        for (int i = 1; i <= 8; i++) {
+            store.post("student1", null, "Message " + i);
+        }
+
+        List<Login.Message> all = store.readAll();
+        assertEquals(5, all.size(), "Only the newest five messages should be kept.");
+        assertEquals("Message 4", all.get(0).getContent());
+        assertEquals(3, store.readFromSender("student1", 0).size());
+        assertEquals(2, store.readSince(6).size());
+    }
+
+    @Test
+    void testInboxGrowsUpToItsCapacity() {
+        MessageStore store = new MessageStore(40, 40);
+        for (int i = 1; i <= 100; i++) {
+            store.post("student1", null, "Message " + i);
+        }
+
+        List<Login.Message> all = store.readAll();
+        assertEquals(40, all.size(), "The inbox should grow to its capacity and then wrap.");
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals("Message " + (61 + i), all.get(i).getContent());
+        }
+        assertEquals(10, store.readSince(90).size());
+        assertEquals(40, store.readFromSender("student1", 0).size());
+    }
+}
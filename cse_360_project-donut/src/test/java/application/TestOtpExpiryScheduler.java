@@ -0,0 +1,124 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestOtpExpiryScheduler {
+
+    private static User otpUser(String username, LocalDateTime expiry) {
+        User user = new User(username, new byte[] {1}, "Student");
+        user.setOneTimePassword(true);
+        user.setOtpExpiry(expiry);
+        return user;
+    }
+
+    @Test
+    void testExpiresDueUsersAndListsSoonest() {
+        List<User> expired = new ArrayList<>();
+        OtpExpiryScheduler scheduler = new OtpExpiryScheduler(expired::add, false);
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 12, 0);
+        User late = otpUser("otpLate", base.plusHours(2));
+        User soon = otpUser("otpSoon", base.plusMinutes(10));
+        User reset = otpUser("otpReset", base.plusMinutes(5));
+        scheduler.track(late);
+        scheduler.track(soon);
+        scheduler.track(reset);
+        scheduler.track(new User("otpNone", new byte[] {1}, "Student"));
+
+        assertEquals(3, scheduler.size());
+        assertEquals(List.of(reset, soon), scheduler.expiringBefore(base.plusHours(1)));
+
+        reset.setOneTimePassword(false);
+        scheduler.track(reset); // No longer an OTP user
+        scheduler.sweep(OtpExpiryScheduler.toMillis(base.plusMinutes(15)));
+
+        assertEquals(List.of(soon), expired);
+        assertEquals(List.of(late), scheduler.expiringBefore(base.plusDays(1)));
+    }
+
+    @Test
+    void testMovedExpiryIsHonoured() {
+        List<User> expired = new ArrayList<>();
+        OtpExpiryScheduler scheduler = new OtpExpiryScheduler(expired::add, false);
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 12, 0);
+        User user = otpUser("otpExtended", base.plusMinutes(1));
+        scheduler.track(user);
+        user.setOtpExpiry(base.plusMinutes(30));
+        scheduler.track(user);
+
+        scheduler.sweep(OtpExpiryScheduler.toMillis(base.plusMinutes(2)));
+        assertTrue(expired.isEmpty(), "The earlier, replaced expiry should not fire.");
+        scheduler.sweep(OtpExpiryScheduler.toMillis(base.plusMinutes(31)));
+        assertEquals(List.of(user), expired);
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void testLoginInvalidatesExpiredOtp() {
+        Login loginInstance = Login.getInstance();
+        List<User> notified = new ArrayList<>();
+        Login.Listener listener = new Login.Listener() {
+            @Override
+            public void onOtpExpired(User user) {
+                notified.add(user);
+            }
+        };
+        loginInstance.subscribe(listener);
+        try {
+            User user = loginInstance.registerUser("otpLoginUser", "otp123", "Student", true, LocalDateTime.now().plusDays(3));
+            assertTrue(loginInstance.listUsersWithOtpExpiringBefore(LocalDateTime.now().plusDays(4)).contains(user));
+
+            loginInstance.expireOtp(user);
+            assertNull(user.getPassword());
+            assertEquals(List.of(user), notified);
+            assertFalse(loginInstance.authenticate("otpLoginUser", "otp123"));
+        } finally {
+            loginInstance.unsubscribe(listener);
+        }
+    }
+
+    @Test
+    void testResetPasswordSurvivesLateExpiry() {
+        Login loginInstance = Login.getInstance();
+        User user = loginInstance.registerUser("otpResetUser", "otp456", "Student", true, LocalDateTime.now().plusDays(3));
+        assertTrue(loginInstance.resetPassword("otpResetUser", "newPass"));
+        assertFalse(user.isOneTimePassword());
+        assertFalse(loginInstance.listUsersWithOtpExpiringBefore(LocalDateTime.now().plusDays(4)).contains(user));
+
+        loginInstance.expireOtp(user); // A timer that fired just as the reset finished
+        assertNotNull(user.getPassword());
+        assertTrue(loginInstance.authenticate("otpResetUser", "newPass"));
+    }
+
+    @Test
+    void testThrowingListenerDoesNotStopOthers() {
+        Login loginInstance = Login.getInstance();
+        List<User> notified = new ArrayList<>();
+        Login.Listener failing = new Login.Listener() {
+            @Override
+            public void onOtpExpired(User user) {
+                throw new IllegalStateException("listener failure");
+            }
+        };
+        Login.Listener recording = new Login.Listener() {
+            @Override
+            public void onOtpExpired(User user) {
+                notified.add(user);
+            }
+        };
+        loginInstance.subscribe(failing);
+        loginInstance.subscribe(recording);
+        try {
+            User user = loginInstance.registerUser("otpListenerUser", "otp789", "Student", true, LocalDateTime.now().plusDays(3));
+            loginInstance.expireOtp(user);
+            assertEquals(List.of(user), notified);
+        } finally {
+            loginInstance.unsubscribe(failing);
+            loginInstance.unsubscribe(recording);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestRequestExecutor {
+
+    @Test
+    void testResultsKeepTaskOrder() throws Exception {
+        for (RequestExecutor.Mode mode : RequestExecutor.Mode.values()) {
+            try (RequestExecutor executor = new RequestExecutor(mode, 4)) {
+                List<Callable<Integer>> tasks = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    int n = i;
+                    tasks.add(() -> {
+                        Thread.sleep(10 - n); // Later tasks finish first
+                        return n * n;
+                    });
+                }
+                List<Integer> results = executor.fanOut(tasks);
+                for (int i = 0; i < 10; i++) {
+                    assertEquals(i * i, (int) results.get(i), mode.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFailureCancelsRemainingTasks() throws Exception {
+        for (RequestExecutor.Mode mode : RequestExecutor.Mode.values()) {
+            try (RequestExecutor executor = new RequestExecutor(mode, 4)) {
+                CountDownLatch started = new CountDownLatch(1);
+                AtomicBoolean interrupted = new AtomicBoolean();
+                CountDownLatch stopped = new CountDownLatch(1);
+                List<Callable<String>> tasks = List.of(
+                        () -> {
+                            started.countDown();
+                            try {
+                                Thread.sleep(10_000);
+                            } catch (InterruptedException e) {
+                                interrupted.set(true);
+                            }
+                            stopped.countDown();
+                            return "slow";
+                        },
+                        () -> {
+                            started.await();
+                            throw new IOException("disk gone");
+                        });
+
+                long start = System.nanoTime();
+                IOException e = assertThrows(IOException.class, () -> executor.fanOut(tasks));
+                assertEquals("disk gone", e.getMessage());
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000, mode.name());
+                assertEquals(0, stopped.getCount(), "The cancelled task should stop before fanOut returns. " + mode.name());
+                assertTrue(interrupted.get(), mode.name());
+            }
+        }
+    }
+
+    @Test
+    void testFailureWaitsForTasksIgnoringInterrupts() throws Exception {
+        for (RequestExecutor.Mode mode : RequestExecutor.Mode.values()) {
+            try (RequestExecutor executor = new RequestExecutor(mode, 4)) {
+                CountDownLatch started = new CountDownLatch(1);
+                AtomicBoolean finished = new AtomicBoolean();
+                List<Callable<String>> tasks = List.of(
+                        () -> {
+                            started.countDown();
+                            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                            while (System.nanoTime() < end) {
+                                Thread.onSpinWait(); // Like a search that never checks for interruption
+                            }
+                            finished.set(true);
+                            return "busy";
+                        },
+                        () -> {
+                            started.await();
+                            throw new IOException("disk gone");
+                        });
+
+                assertThrows(IOException.class, () -> executor.fanOut(tasks));
+                assertTrue(finished.get(), "fanOut should not return while a task is still running. " + mode.name());
+            }
+        }
+    }
+
+    @Test
+    void testVirtualModeUsesVirtualThreads() throws Exception {
+        try (RequestExecutor executor = new RequestExecutor(RequestExecutor.Mode.VIRTUAL, 0)) {
+            List<Callable<Boolean>> tasks = List.of(() -> Thread.currentThread().isVirtual(), () -> Thread.currentThread().isVirtual());
+            assertEquals(List.of(true, true), executor.fanOut(tasks));
+            assertTrue(executor.requests().submit(() -> Thread.currentThread().isVirtual()).get());
+        }
+        try (RequestExecutor executor = new RequestExecutor(RequestExecutor.Mode.PLATFORM, 2)) {
+            assertFalse(executor.requests().submit(() -> Thread.currentThread().isVirtual()).get());
+        }
+    }
+
+    @Test
+    void testSearchGroupsFansOutPerGroup() {
+        Login login = Login.getInstance();
+        login.registerUser("fanOutInstructor", "fanOutPass", "Instructor", false, null);
+        DonutService service = new DonutService(login, new RequestExecutor(RequestExecutor.Mode.VIRTUAL, 0));
+        String token = service.login("fanOutInstructor", "fanOutPass", null);
+        service.createArticle(token, "Fan one", null, null, "a", null, List.of("fan_a"), null);
+        service.createArticle(token, "Fan two", null, null, "b", null, List.of("fan_b"), null);
+        service.createArticle(token, "Fan three", null, null, "c", null, List.of("fan_b"), null);
+
+        Map<String, ArticleSearch.Result> byGroup = service.searchGroups(token, null, List.of("fan_b", "fan_a", "fan_none"), null);
+        assertEquals(List.of("fan_b", "fan_a", "fan_none"), new ArrayList<>(byGroup.keySet()));
+        assertEquals(2, byGroup.get("fan_b").size());
+        assertEquals(1, byGroup.get("fan_a").size());
+        assertEquals(0, byGroup.get("fan_none").size());
+        service.getExecutor().close();
+    }
+}
@@ -0,0 +1,69 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class TestRoleAndLevel {
+
+    @Test
+    void testLookupIgnoresCase() {
+        assertSame(Role.ADMIN, Role.of("admin"));
+        assertSame(Role.INSTRUCTOR, Role.of("Instructor"));
+        assertNull(Role.of("Teaching Assistant"));
+        assertNull(Role.of(null));
+        assertSame(Level.EXPERT, Level.of("EXPERT"));
+        assertNull(Level.of("Guru"));
+        assertEquals(ArticleSearch.LEVELS, Level.displayNames());
+    }
+
+    @Test
+    void testUnknownTextIsKeptUnchanged() {
+        User assistant = new User("roleAssistant", null, "Teaching Assistant");
+        assertEquals("Teaching Assistant", assistant.getRole());
+        assertNull(assistant.getRoleType());
+        assertFalse(assistant.isAdmin());
+        assertFalse(new Group("role_group", false).addUser(assistant));
+
+        assistant.setRole("ADMIN");
+        assertEquals("ADMIN", assistant.getRole(), "The role text should be stored as given");
+        assertSame(Role.ADMIN, assistant.getRoleType());
+        assertTrue(assistant.isAdmin());
+
+        User.HelpArticle article = new User.HelpArticle(9_101, "Guru notes", "", List.of(), "body", List.of(),
+                List.of("general"), "Guru", "roleAssistant");
+        assertEquals("Guru", article.getLevel());
+        assertNull(article.getLevelType());
+        article.setLevel("advanced");
+        assertEquals("advanced", article.getLevel());
+        assertSame(Level.ADVANCED, article.getLevelType());
+    }
+
+    @Test
+    void testLevelFilterAndCounts() {
+        User author = new User("levelAuthor", null, "Instructor");
+        String[] levels = {"Beginner", "beginner", "Expert", "Guru", null};
+        for (int i = 0; i < levels.length; i++) {
+            author.addHelpArticle(new User.HelpArticle(9_200 + i, "Level " + i, "", List.of(), "body", List.of(),
+                    List.of("general"), levels[i], "levelAuthor"));
+        }
+        List<User> users = List.of(author);
+
+        ArticleSearch.Result all = ArticleSearch.search(users, author, null, null, null, true);
+        assertEquals(5, all.size());
+        assertEquals(2, all.getLevelCount("Beginner"), "Known levels are counted regardless of case");
+        assertEquals(2, all.getLevelCount(Level.BEGINNER));
+        assertEquals(1, all.getLevelCount("Expert"));
+        assertEquals(1, all.getLevelCount("Guru"));
+        assertEquals(0, all.getLevelCount("Intermediate"));
+
+        assertEquals(2, ArticleSearch.search(users, author, null, null, "BEGINNER", true).size());
+        assertEquals(1, ArticleSearch.search(users, author, null, null, "guru", true).size());
+
+        all.remove(all.indexOf(9_200));
+        assertEquals(1, all.getLevelCount(Level.BEGINNER));
+        all.remove(all.indexOf(9_203));
+        assertEquals(0, all.getLevelCount("Guru"));
+    }
+}
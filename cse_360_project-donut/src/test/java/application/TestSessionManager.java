@@ -0,0 +1,80 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestSessionManager {
+
+    private final Login loginInstance = Login.getInstance();
+
+    @Test
+    void testIdleAndAbsoluteExpiry() {
+        AtomicLong now = new AtomicLong(10_000_000);
+        SessionManager sessions = new SessionManager(loginInstance, 60_000, 300_000, now::get, false);
+        User user = new User("sessionUser", new byte[0], "Student");
+        String token = sessions.createSession(user);
+
+        // Regular use keeps the session alive past the idle timeout
+        for (int i = 0; i < 4; i++) {
+            now.addAndGet(50_000);
+            assertSame(user, sessions.resolve(token));
+            sessions.sweep(now.get());
+        }
+        assertEquals(1, sessions.size());
+
+        // ...but not past the absolute timeout
+        now.addAndGet(100_000);
+        sessions.sweep(now.get());
+        assertNull(sessions.resolve(token));
+        assertEquals(0, sessions.size());
+
+        String idle = sessions.createSession(user);
+        now.addAndGet(61_000);
+        sessions.sweep(now.get());
+        assertEquals(0, sessions.size(), "The sweep should remove an idle session without it being resolved.");
+        assertNull(sessions.resolve(idle));
+    }
+
+    @Test
+    void testLoginAndLogout() {
+        loginInstance.registerUser("sessionLogin", "sessionPass", "Student", false, null);
+        SessionManager sessions = loginInstance.getSessionManager();
+
+        assertNull(sessions.login("sessionLogin", "wrong", null));
+        String token = sessions.login("sessionLogin", "sessionPass", null);
+        assertNotNull(token);
+        assertEquals("sessionLogin", sessions.resolve(token).getUsername());
+        assertNull(sessions.resolve("not-a-token"));
+
+        String second = sessions.login("sessionLogin", "sessionPass", null);
+        assertTrue(sessions.logout(token));
+        assertFalse(sessions.logout(token));
+        assertNotNull(sessions.resolve(second));
+
+        loginInstance.resetPassword("sessionLogin", "newSessionPass");
+        assertNull(sessions.resolve(second), "Resetting the password should end existing sessions.");
+    }
+
+    @Test
+    void testTimerWheelFiresOnlyDueItems() {
+        List<String> fired = new ArrayList<>();
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, fired::add);
+        wheel.schedule("soon", 1_000);
+        wheel.schedule("next revolution", 1_000 + 8 * 100);
+        wheel.schedule("late", 5_000);
+
+        wheel.advance(1_050);
+        assertEquals(List.of("soon"), fired);
+        wheel.advance(1_850);
+        assertEquals(List.of("soon", "next revolution"), fired);
+
+        wheel.schedule("overdue", 100); // Already past; fires on the next tick
+        wheel.advance(1_950);
+        assertEquals(List.of("soon", "next revolution", "overdue"), fired);
+        assertEquals(1, wheel.size());
+    }
+}
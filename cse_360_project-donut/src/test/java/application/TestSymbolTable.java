@@ -0,0 +1,139 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TestSymbolTable {
+
+    @Test
+    void testInternReturnsStableIds() {
+        SymbolTable table = new SymbolTable();
+        int java = table.intern("java");
+        assertEquals(java, table.intern(new String("java")));
+        assertNotEquals(java, table.intern("eclipse"));
+        assertEquals("java", table.name(java));
+        assertEquals(SymbolTable.NONE, table.intern(null));
+        assertNull(table.name(SymbolTable.NONE));
+        assertEquals(SymbolTable.NONE, table.idOf("never interned"));
+        assertThrows(IllegalArgumentException.class, () -> table.name(1000));
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        SymbolTable table = new SymbolTable();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, table.intern("symbol" + i));
+        }
+        assertEquals(1000, table.size());
+        assertEquals("symbol999", table.name(999));
+    }
+
+    @Test
+    void testConcurrentInterningAgrees() throws Exception {
+        SymbolTable table = new SymbolTable();
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    int id = table.intern("word" + i);
+                    seen.add(i + "=" + id);
+                    assertEquals("word" + i, table.name(id));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(500, table.size());
+        assertEquals(500, seen.size(), "Every thread should get the same id for a string");
+    }
+
+    @Test
+    void testNamesViewComparesById() {
+        SymbolTable table = new SymbolTable();
+        List<String> names = table.names(table.internAll(List.of("a", "b", "c")));
+        assertEquals(List.of("a", "b", "c"), names);
+        assertTrue(names.contains(new String("b")));
+        assertFalse(names.contains("d"));
+        assertThrows(UnsupportedOperationException.class, () -> names.add("d"));
+        assertNull(table.names(null));
+        assertNull(table.internAll(null));
+    }
+
+    @Test
+    void testArticlesShareInternedStrings() {
+        User.HelpArticle first = new User.HelpArticle(9_001, "First", "", new ArrayList<>(List.of(new String("symbolKeyword"))),
+                "body", List.of(), List.of(new String("symbol_group")), new String("Beginner"), "symbolAuthor");
+        User.HelpArticle second = new User.HelpArticle(9_002, "Second", "", List.of(new String("symbolKeyword")),
+                "body", List.of(), List.of(new String("symbol_group")), new String("Beginner"), "symbolAuthor");
+        assertSame(first.getGroups().get(0), second.getGroups().get(0));
+        assertSame(first.getLevel(), second.getLevel());
+        // Keywords are free text and are not interned, so they never pile up in the table
+        assertEquals(SymbolTable.NONE, SymbolTable.getDefault().idOf("symbolKeyword"));
+    }
+
+    @Test
+    void testUserGroupMembership() {
+        User user = new User("symbolUser", null, "Student");
+        user.addGroupName("symbol_b");
+        user.addGroupName("symbol_a");
+        user.addGroupName("symbol_b");
+        assertEquals(Set.of("symbol_a", "symbol_b"), user.getGroupNames());
+        assertTrue(user.isInGroup("symbol_a"));
+        assertFalse(user.isInGroup("symbol_unknown"));
+        user.removeGroupName("symbol_a");
+        user.removeGroupName("symbol_unknown");
+        assertEquals(Set.of("symbol_b"), user.getGroupNames());
+
+        User.HelpArticle article = new User.HelpArticle(9_003, "Grouped", "", List.of(), "body", List.of(),
+                List.of("symbol_a", "symbol_b"), "Beginner", "symbolAuthor");
+        assertTrue(article.userHasAccess(user));
+        user.removeGroupName("symbol_b");
+        assertFalse(article.userHasAccess(user));
+    }
+
+    @Test
+    void testSerializedFormKeepsStrings() throws Exception {
+        // The stream still describes the fields as strings and lists, as earlier versions wrote them
+        ObjectStreamClass articleClass = ObjectStreamClass.lookup(User.HelpArticle.class);
+        assertEquals(List.class, articleClass.getField("keywords").getType());
+        assertEquals(List.class, articleClass.getField("groups").getType());
+        assertEquals(String.class, articleClass.getField("level").getType());
+        assertEquals(String.class, ObjectStreamClass.lookup(User.class).getField("role").getType());
+        assertEquals(Set.class, ObjectStreamClass.lookup(User.class).getField("groupNames").getType());
+
+        User user = new User("symbolSerialized", new byte[] {1, 2}, "Instructor");
+        user.addGroupName("symbol_serialized");
+        user.addHelpArticle(new User.HelpArticle(9_004, "Serialized", "Abstract", List.of("java", "io"), "body",
+                List.of("https://example.com"), List.of("symbol_serialized"), "Advanced", "symbolSerialized"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(user);
+        }
+        User copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (User) in.readObject();
+        }
+        assertEquals("Instructor", copy.getRole());
+        assertTrue(copy.isInstructor());
+        assertEquals(Set.of("symbol_serialized"), copy.getGroupNames());
+        User.HelpArticle article = copy.getHelpArticle(9_004);
+        assertEquals(List.of("java", "io"), article.getKeywords());
+        assertEquals(List.of("symbol_serialized"), article.getGroups());
+        assertEquals("Advanced", article.getLevel());
+        assertEquals("body", article.getBody(copy));
+    }
+}
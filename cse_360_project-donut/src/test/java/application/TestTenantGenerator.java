@@ -0,0 +1,59 @@
+package application;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+public class TestTenantGenerator {
+
+    private final Login loginInstance = Login.getInstance();
+
+    @Test
+    void testGeneratesTenantInLogin() {
+        TenantGenerator.Tenant tenant = new TenantGenerator("tenantTest", 7).generate(loginInstance, 60, 10, 120);
+
+        assertEquals(60, tenant.getUsernames().size());
+        assertEquals(10, tenant.getGroupNames().size());
+        assertEquals(2, tenant.getGroupNames().stream().filter(g -> g.startsWith("special_")).count());
+        assertTrue(loginInstance.getGroup("special_tenantTest_group4").isSpecialAccess());
+        assertTrue(tenant.getAdmin().isAdmin());
+        assertFalse(tenant.getInstructors().isEmpty());
+
+        // Every generated user can log in with the generated password
+        for (int i = 0; i < tenant.getUsernames().size(); i++) {
+            assertTrue(loginInstance.authenticate(tenant.getUsernames().get(i), tenant.getPasswords().get(i)));
+        }
+        // Every article is registered and readable by its author
+        for (long id : tenant.getArticleIds()) {
+            User.HelpArticle article = loginInstance.getArticleRegistry().get(id);
+            assertNotNull(article);
+            User author = loginInstance.findUser(article.getAuthor());
+            assertTrue(article.getBody(author).length() >= 64);
+        }
+    }
+
+    @Test
+    void testBodySizesAreLongTailed() {
+        TenantGenerator generator = new TenantGenerator("bodySizes", 11);
+        int[] sizes = new int[5000];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = generator.bodyChars();
+        }
+        Arrays.sort(sizes);
+        int median = sizes[sizes.length / 2];
+        assertTrue(median > TenantGenerator.MEDIAN_BODY_CHARS / 2 && median < TenantGenerator.MEDIAN_BODY_CHARS * 2);
+        assertTrue(sizes[(int) (sizes.length * 0.99)] > median * 8, "The largest bodies should be far above the median");
+        assertTrue(sizes[sizes.length - 1] <= TenantGenerator.MAX_BODY_CHARS);
+    }
+
+    @Test
+    void testSameSeedSameTenantShape() {
+        TenantGenerator first = new TenantGenerator("seedA", 3);
+        TenantGenerator second = new TenantGenerator("seedB", 3);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.word(), second.word());
+            assertEquals(first.bodyChars(), second.bodyChars());
+        }
+    }
+}
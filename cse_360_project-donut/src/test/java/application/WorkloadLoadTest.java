@@ -0,0 +1,231 @@
+package application;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Replays a mixed workload of logins, searches, article views, edits and
+ * backups against a synthetic tenant (see TenantGenerator) from several
+ * client threads, and reports throughput and latency percentiles per
+ * operation for capacity planning.
+ * Run with: java -cp target/classes:target/test-classes application.WorkloadLoadTest
+ *           [users] [groups] [articles] [threads] [seconds] [mix]
+ * where mix weights the operations, e.g. login=10,search=45,view=35,edit=8,backup=2.
+ */
+public class WorkloadLoadTest {
+
+    enum Op { LOGIN, SEARCH, VIEW, EDIT, BACKUP }
+
+    private static final String DEFAULT_MIX = "login=10,search=45,view=35,edit=8,backup=2";
+    private static final int MAX_SAMPLES = 1 << 17;
+    private static final String[] SEARCH_TERMS = {"java", "error", "thread", "javafx", "backup", "merge"};
+
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int groups = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int articles = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        int[] weights = parseMix(args.length > 5 ? args[5] : DEFAULT_MIX);
+
+        Login login = Login.getInstance();
+        long start = System.nanoTime();
+        TenantGenerator.Tenant tenant = new TenantGenerator("load", 42).generate(login, users, groups, articles);
+        System.out.printf("Tenant: %d users, %d groups, %d articles, %.1f MB of bodies, built in %d ms%n",
+                users, groups, articles, tenant.getBodyChars() / 1e6, (System.nanoTime() - start) / 1_000_000);
+
+        // Warm up with a short run so the JIT has compiled the hot paths
+        run(login, tenant, weights, threads, Math.min(2, seconds));
+
+        Client[] clients = run(login, tenant, weights, threads, seconds);
+        report(clients, seconds);
+        EventLog.flush();
+    }
+
+    private static Client[] run(Login login, TenantGenerator.Tenant tenant, int[] weights, int threads, int seconds)
+            throws InterruptedException {
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        Client[] clients = new Client[threads];
+        Thread[] running = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            clients[t] = new Client(login, tenant, weights, t);
+            Client client = clients[t];
+            running[t] = new Thread(() -> client.run(end), "load-client-" + t);
+            running[t].start();
+        }
+        for (Thread thread : running) {
+            thread.join();
+        }
+        return clients;
+    }
+
+    /**
+     * One simulated client: holds a session and picks operations by weight.
+     */
+    private static class Client {
+        final Login login;
+        final TenantGenerator.Tenant tenant;
+        final int[] weights;
+        final int totalWeight;
+        final Random random;
+        final String source;
+        final File backupFile;
+        final long[][] samples = new long[Op.values().length][MAX_SAMPLES];
+        final int[] counts = new int[Op.values().length];
+        int failures;
+
+        String token;
+        User user;
+        long checkpoint;
+
+        Client(Login login, TenantGenerator.Tenant tenant, int[] weights, int number) {
+            this.login = login;
+            this.tenant = tenant;
+            this.weights = weights;
+            this.totalWeight = Arrays.stream(weights).sum();
+            this.random = new Random(number);
+            this.source = "198.51.100." + number;
+            this.backupFile = new File("load_backup_" + number + ".bak");
+        }
+
+        void run(long end) {
+            logIn();
+            while (System.nanoTime() < end) {
+                Op op = pick();
+                long start = System.nanoTime();
+                boolean ok = perform(op);
+                long elapsed = System.nanoTime() - start;
+                if (!ok) {
+                    failures++;
+                }
+                int i = op.ordinal();
+                if (counts[i] < MAX_SAMPLES) {
+                    samples[i][counts[i]++] = elapsed;
+                }
+            }
+            login.getSessionManager().logout(token);
+            backupFile.delete();
+        }
+
+        private Op pick() {
+            int r = random.nextInt(totalWeight);
+            for (Op op : Op.values()) {
+                r -= weights[op.ordinal()];
+                if (r < 0) {
+                    return op;
+                }
+            }
+            return Op.SEARCH;
+        }
+
+        private boolean perform(Op op) {
+            switch (op) {
+                case LOGIN:
+                    login.getSessionManager().logout(token);
+                    return logIn();
+                case SEARCH: {
+                    User viewer = login.getSessionManager().resolve(token);
+                    // Half the searches filter by one of the viewer's groups, the rest search everything
+                    String group = random.nextBoolean() ? randomGroup() : null;
+                    String keyword = SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)];
+                    ArticleSearch.search(login.getArticleRegistry(), viewer, keyword, group, null, true);
+                    return viewer != null;
+                }
+                case VIEW: {
+                    User viewer = login.getSessionManager().resolve(token);
+                    User.HelpArticle article = login.getArticleRegistry().get(randomArticle());
+                    if (viewer == null || article == null || !article.userHasAccess(viewer)) {
+                        return article != null; // Being refused access is expected, not a failure
+                    }
+                    return article.getBody(viewer) != null;
+                }
+                case EDIT: {
+                    // Edits come from the article's author, as they would through the instructor dashboard
+                    long id = randomArticle();
+                    ArticlePatch patch = new ArticlePatch(id);
+                    patch.setDescription("Revised " + System.nanoTime());
+                    int changed = 0;
+                    for (User owner : login.getArticleRegistry().getOwners(id)) {
+                        changed |= Math.max(0, owner.applyPatch(patch));
+                    }
+                    return changed != 0;
+                }
+                case BACKUP:
+                    // Mostly incremental backups, with a periodic full one to reset the chain
+                    if (checkpoint == 0 || random.nextInt(10) == 0) {
+                        checkpoint = login.backupHelpArticlesCompressed(backupFile.getPath(), tenant.getAdmin());
+                    } else {
+                        checkpoint = login.backupHelpArticlesIncremental(backupFile.getPath(), tenant.getAdmin(), checkpoint);
+                    }
+                    return checkpoint >= 0;
+                default:
+                    return false;
+            }
+        }
+
+        private boolean logIn() {
+            int u = random.nextInt(tenant.getUsernames().size());
+            token = login.getSessionManager().login(tenant.getUsernames().get(u), tenant.getPasswords().get(u), source);
+            user = token != null ? login.getSessionManager().resolve(token) : null;
+            return user != null;
+        }
+
+        private String randomGroup() {
+            List<String> mine = new ArrayList<>(user != null ? user.getGroupNames() : List.of());
+            return mine.isEmpty() ? null : mine.get(random.nextInt(mine.size()));
+        }
+
+        private long randomArticle() {
+            return tenant.getArticleIds().get(random.nextInt(tenant.getArticleIds().size()));
+        }
+    }
+
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[Op.values().length];
+        for (String part : mix.split(",")) {
+            String[] pair = part.split("=");
+            weights[Op.valueOf(pair[0].trim().toUpperCase()).ordinal()] = Integer.parseInt(pair[1].trim());
+        }
+        if (Arrays.stream(weights).sum() <= 0) {
+            throw new IllegalArgumentException("The mix needs at least one positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    private static void report(Client[] clients, int seconds) {
+        long total = 0;
+        int failures = 0;
+        System.out.printf("%-7s %9s %9s %10s %10s %10s %10s%n", "op", "count", "ops/s", "p50 us", "p99 us", "p99.9 us", "max us");
+        for (Op op : Op.values()) {
+            int i = op.ordinal();
+            int count = 0;
+            for (Client client : clients) {
+                count += client.counts[i];
+            }
+            long[] latencies = new long[count];
+            int offset = 0;
+            for (Client client : clients) {
+                System.arraycopy(client.samples[i], 0, latencies, offset, client.counts[i]);
+                offset += client.counts[i];
+            }
+            total += count;
+            if (count == 0) {
+                continue;
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%-7s %9d %9.0f %10.1f %10.1f %10.1f %10.1f%n", op.name().toLowerCase(), count,
+                    (double) count / seconds,
+                    latencies[count / 2] / 1000.0,
+                    latencies[(int) (count * 0.99)] / 1000.0,
+                    latencies[(int) (count * 0.999)] / 1000.0,
+                    latencies[count - 1] / 1000.0);
+        }
+        for (Client client : clients) {
+            failures += client.failures;
+        }
+        System.out.printf("total: %d operations, %.0f ops/s, %d failed%n", total, (double) total / seconds, failures);
+    }
+}